@@ -0,0 +1,47 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.config;
+
+import org.jetbrains.annotations.NotNull;
+import svnserver.config.serializer.ConfigType;
+import svnserver.server.engine.BoundedConnectionEngine;
+import svnserver.server.engine.ConnectionEngine;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Bounded connection engine: fixed worker pool with accept queue and per-address/per-user limits.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+@SuppressWarnings("FieldCanBeLocal")
+@ConfigType("boundedConnections")
+public final class BoundedConnectionConfig implements ConnectionConfig {
+  // Maximum number of concurrently served connections.
+  private int maxThreads = 64;
+  // Maximum number of accepted connections waiting for free worker thread.
+  private int acceptQueue = 256;
+  // Maximum number of connections from one client address (0 - unlimited).
+  private int maxConnectionsPerAddress = 0;
+  // Maximum number of connections of one authenticated user (0 - unlimited).
+  private int maxConnectionsPerUser = 0;
+
+  public BoundedConnectionConfig() {
+  }
+
+  public BoundedConnectionConfig(int maxThreads, int acceptQueue) {
+    this.maxThreads = maxThreads;
+    this.acceptQueue = acceptQueue;
+  }
+
+  @NotNull
+  @Override
+  public ConnectionEngine create(@NotNull ThreadFactory threadFactory) {
+    return new BoundedConnectionEngine(threadFactory, maxThreads, acceptQueue, maxConnectionsPerAddress, maxConnectionsPerUser);
+  }
+}
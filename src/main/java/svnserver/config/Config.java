@@ -9,6 +9,12 @@ package svnserver.config;
 
 import org.jetbrains.annotations.NotNull;
 import svnserver.config.serializer.ConfigType;
+import svnserver.parser.svndiff.SvnDiffCodec;
+import svnserver.repository.git.GitCommitCache;
+import svnserver.repository.git.GitFileCache;
+import svnserver.repository.git.GitPropertyCache;
+import svnserver.repository.git.GitRenameDetector;
+import svnserver.repository.git.GitTreeCache;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -37,6 +43,9 @@ public final class Config {
   @NotNull
   private CacheConfig cacheConfig = new PersistentCacheConfig();
 
+  @NotNull
+  private ConnectionConfig connections = new LegacyConnectionConfig();
+
   @NotNull
   private List<SharedConfig> shared = new ArrayList<>();
 
@@ -44,8 +53,22 @@ public final class Config {
 
   private boolean reuseAddress = false;
   private boolean compressionEnabled = true;
+  @NotNull
+  private SvnDiffCodec deltaCodec = SvnDiffCodec.Lz4;
   private long shutdownTimeout = TimeUnit.SECONDS.toMillis(5);
   private boolean parallelIndexing = true;
+  private boolean nioFrontend = false;
+  private int deltaLookAhead = 8;
+  private long deltaCacheMemorySize = 64 * 1024 * 1024;
+  private long deltaCacheDiskEntries = 10000;
+  private long commitCacheSize = GitCommitCache.DEFAULT_SIZE;
+  private long treeCacheSize = GitTreeCache.DEFAULT_SIZE;
+  private long fileCacheSize = GitFileCache.DEFAULT_SIZE;
+  private long propertyCacheSize = GitPropertyCache.DEFAULT_SIZE;
+  private long refWatchInterval = 0;
+  private int renameCandidateLimit = GitRenameDetector.DEFAULT_CANDIDATE_LIMIT;
+  private long renameTimeout = GitRenameDetector.DEFAULT_TIMEOUT;
+  private long renameBigFileThreshold = GitRenameDetector.DEFAULT_BIG_FILE_THRESHOLD;
 
   @SuppressWarnings("UnusedDeclaration")
   public Config() {
@@ -105,6 +128,15 @@ public final class Config {
     this.cacheConfig = cacheConfig;
   }
 
+  @NotNull
+  public ConnectionConfig getConnections() {
+    return connections;
+  }
+
+  public void setConnections(@NotNull ConnectionConfig connections) {
+    this.connections = connections;
+  }
+
   @NotNull
   public List<SharedConfig> getShared() {
     return shared;
@@ -114,6 +146,102 @@ public final class Config {
     return parallelIndexing;
   }
 
+  public boolean isNioFrontend() {
+    return nioFrontend;
+  }
+
+  public void setNioFrontend(boolean nioFrontend) {
+    this.nioFrontend = nioFrontend;
+  }
+
+  public int getDeltaLookAhead() {
+    return deltaLookAhead;
+  }
+
+  public void setDeltaLookAhead(int deltaLookAhead) {
+    this.deltaLookAhead = deltaLookAhead;
+  }
+
+  public long getDeltaCacheMemorySize() {
+    return deltaCacheMemorySize;
+  }
+
+  public void setDeltaCacheMemorySize(long deltaCacheMemorySize) {
+    this.deltaCacheMemorySize = deltaCacheMemorySize;
+  }
+
+  public long getDeltaCacheDiskEntries() {
+    return deltaCacheDiskEntries;
+  }
+
+  public void setDeltaCacheDiskEntries(long deltaCacheDiskEntries) {
+    this.deltaCacheDiskEntries = deltaCacheDiskEntries;
+  }
+
+  public long getCommitCacheSize() {
+    return commitCacheSize;
+  }
+
+  public void setCommitCacheSize(long commitCacheSize) {
+    this.commitCacheSize = commitCacheSize;
+  }
+
+  public long getTreeCacheSize() {
+    return treeCacheSize;
+  }
+
+  public void setTreeCacheSize(long treeCacheSize) {
+    this.treeCacheSize = treeCacheSize;
+  }
+
+  public long getFileCacheSize() {
+    return fileCacheSize;
+  }
+
+  public void setFileCacheSize(long fileCacheSize) {
+    this.fileCacheSize = fileCacheSize;
+  }
+
+  public long getPropertyCacheSize() {
+    return propertyCacheSize;
+  }
+
+  public void setPropertyCacheSize(long propertyCacheSize) {
+    this.propertyCacheSize = propertyCacheSize;
+  }
+
+  public long getRefWatchInterval() {
+    return refWatchInterval;
+  }
+
+  public void setRefWatchInterval(long refWatchInterval) {
+    this.refWatchInterval = refWatchInterval;
+  }
+
+  public int getRenameCandidateLimit() {
+    return renameCandidateLimit;
+  }
+
+  public void setRenameCandidateLimit(int renameCandidateLimit) {
+    this.renameCandidateLimit = renameCandidateLimit;
+  }
+
+  public long getRenameTimeout() {
+    return renameTimeout;
+  }
+
+  public void setRenameTimeout(long renameTimeout) {
+    this.renameTimeout = renameTimeout;
+  }
+
+  public long getRenameBigFileThreshold() {
+    return renameBigFileThreshold;
+  }
+
+  public void setRenameBigFileThreshold(long renameBigFileThreshold) {
+    this.renameBigFileThreshold = renameBigFileThreshold;
+  }
+
   public boolean isCompressionEnabled() {
     return compressionEnabled;
   }
@@ -121,4 +249,16 @@ public final class Config {
   public void setCompressionEnabled(boolean compressionEnabled) {
     this.compressionEnabled = compressionEnabled;
   }
+
+  /**
+   * Preferred delta compression. Client without support of preferred codec gets next weaker one.
+   */
+  @NotNull
+  public SvnDiffCodec getDeltaCodec() {
+    return deltaCodec;
+  }
+
+  public void setDeltaCodec(@NotNull SvnDiffCodec deltaCodec) {
+    this.deltaCodec = deltaCodec;
+  }
 }
@@ -0,0 +1,23 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.config;
+
+import org.jetbrains.annotations.NotNull;
+import svnserver.server.engine.ConnectionEngine;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Client connection engine configuration.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public interface ConnectionConfig {
+  @NotNull
+  ConnectionEngine create(@NotNull ThreadFactory threadFactory);
+}
@@ -0,0 +1,29 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.config;
+
+import org.jetbrains.annotations.NotNull;
+import svnserver.config.serializer.ConfigType;
+import svnserver.server.engine.ConnectionEngine;
+import svnserver.server.engine.LegacyConnectionEngine;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Legacy connection engine: every client connection gets its own thread without any limits.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+@ConfigType("legacyConnections")
+public final class LegacyConnectionConfig implements ConnectionConfig {
+  @NotNull
+  @Override
+  public ConnectionEngine create(@NotNull ThreadFactory threadFactory) {
+    return new LegacyConnectionEngine(threadFactory);
+  }
+}
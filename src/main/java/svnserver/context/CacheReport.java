@@ -0,0 +1,123 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.context;
+
+import org.jetbrains.annotations.NotNull;
+import org.mapdb.DB;
+import org.mapdb.DataOutput2;
+import org.mapdb.HTreeMap;
+import org.mapdb.Serializer;
+import org.mapdb.StoreDirect;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Persistent cache size report.
+ * <p>
+ * Logical size of every hash map is estimated as total serialized size of its keys and values. Store size is
+ * allocated size of cache storage: it doesn't shrink after entries removal until store is compacted.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class CacheReport {
+  @NotNull
+  private final Map<String, Item> items;
+  private final long storeBytes;
+  private final long freeBytes;
+
+  private CacheReport(@NotNull Map<String, Item> items, long storeBytes, long freeBytes) {
+    this.items = items;
+    this.storeBytes = storeBytes;
+    this.freeBytes = freeBytes;
+  }
+
+  @NotNull
+  public static CacheReport create(@NotNull DB db) throws IOException {
+    final Map<String, Item> items = new TreeMap<>();
+    for (String name : db.getAllNames()) {
+      final Object value = db.get(name);
+      if (value instanceof HTreeMap) {
+        items.put(name, measure((HTreeMap<?, ?>) value));
+      }
+    }
+    if (db.getStore() instanceof StoreDirect) {
+      final StoreDirect store = (StoreDirect) db.getStore();
+      return new CacheReport(items, store.getTotalSize(), store.getFreeSize());
+    }
+    return new CacheReport(items, -1, -1);
+  }
+
+  @NotNull
+  private static <K, V> Item measure(@NotNull HTreeMap<K, V> map) throws IOException {
+    final DataOutput2 out = new DataOutput2();
+    long entries = 0;
+    long bytes = 0;
+    for (Map.Entry<K, V> entry : map.getEntries()) {
+      bytes += serializedSize(out, map.getKeySerializer(), entry.getKey());
+      bytes += serializedSize(out, map.getValueSerializer(), entry.getValue());
+      entries++;
+    }
+    return new Item(entries, bytes);
+  }
+
+  private static <T> int serializedSize(@NotNull DataOutput2 out, @NotNull Serializer<T> serializer, @NotNull T value) throws IOException {
+    out.pos = 0;
+    serializer.serialize(out, value);
+    return out.pos;
+  }
+
+  public long getEntries() {
+    return items.values().stream().mapToLong(item -> item.entries).sum();
+  }
+
+  /**
+   * @return Total serialized size of keys and values.
+   */
+  public long getLogicalBytes() {
+    return items.values().stream().mapToLong(item -> item.bytes).sum();
+  }
+
+  /**
+   * @return Allocated store size (-1 if unknown).
+   */
+  public long getStoreBytes() {
+    return storeBytes;
+  }
+
+  /**
+   * @return Free space in allocated store (-1 if unknown).
+   */
+  public long getFreeBytes() {
+    return freeBytes;
+  }
+
+  @NotNull
+  public String format() {
+    final StringBuilder result = new StringBuilder();
+    for (Map.Entry<String, Item> entry : items.entrySet()) {
+      result.append(String.format("  %-48s %10d entries %12d logical bytes%n", entry.getKey(), entry.getValue().entries, entry.getValue().bytes));
+    }
+    result.append(String.format("  %-48s %10d entries %12d logical bytes", "total", getEntries(), getLogicalBytes()));
+    if (storeBytes >= 0) {
+      result.append(String.format("%n  %-48s %12d bytes allocated, %d bytes free", "store", storeBytes, freeBytes));
+    }
+    return result.toString();
+  }
+
+  private static final class Item {
+    private final long entries;
+    private final long bytes;
+
+    private Item(long entries, long bytes) {
+      this.entries = entries;
+      this.bytes = bytes;
+    }
+  }
+}
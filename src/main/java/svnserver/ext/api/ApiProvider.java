@@ -39,7 +39,7 @@ public class ApiProvider implements Shared, Local {
     if (servletInfo == null) {
       WebServer webServer = WebServer.get(context.getShared());
       final ServiceRegistry registry = ServiceRegistry.get(context);
-      registry.addService(Core.newReflectiveBlockingService(new CoreRpc(registry)));
+      registry.addService(Core.newReflectiveBlockingService(new CoreRpc(registry, context.getShared())));
 
       final ProtobufRpcServlet servlet = new ProtobufRpcServlet(ServiceRegistry.get(context));
       servletInfo = webServer.addServlet("/" + path + "/*", servlet);
@@ -51,7 +51,7 @@ public class ApiProvider implements Shared, Local {
     if (servletInfo == null) {
       WebServer webServer = WebServer.get(context);
       final ServiceRegistry registry = ServiceRegistry.get(context);
-      registry.addService(Core.newReflectiveBlockingService(new CoreRpc(registry)));
+      registry.addService(Core.newReflectiveBlockingService(new CoreRpc(registry, context)));
 
       final ProtobufRpcServlet servlet = new ProtobufRpcServlet(registry);
       servletInfo = webServer.addServlet(path + "/*", servlet);
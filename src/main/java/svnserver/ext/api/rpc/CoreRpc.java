@@ -7,15 +7,16 @@
  */
 package svnserver.ext.api.rpc;
 
+import com.google.common.cache.CacheStats;
 import com.google.protobuf.RpcController;
 import com.google.protobuf.ServiceException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import svnserver.VersionInfo;
-import svnserver.api.core.Core;
-import svnserver.api.core.VersionRequest;
-import svnserver.api.core.VersionResponse;
+import svnserver.api.core.*;
+import svnserver.context.SharedContext;
 import svnserver.ext.api.ServiceRegistry;
+import svnserver.repository.git.GitPropertyCache;
 
 import java.util.function.Consumer;
 
@@ -27,9 +28,12 @@ import java.util.function.Consumer;
 public class CoreRpc implements Core.BlockingInterface {
   @NotNull
   private final ServiceRegistry registry;
+  @NotNull
+  private final SharedContext context;
 
-  public CoreRpc(@NotNull final ServiceRegistry registry) {
+  public CoreRpc(@NotNull final ServiceRegistry registry, @NotNull SharedContext context) {
     this.registry = registry;
+    this.context = context;
   }
 
   @Override
@@ -42,6 +46,23 @@ public class CoreRpc implements Core.BlockingInterface {
     return builder.build();
   }
 
+  @Override
+  public CacheStatsResponse cacheStats(RpcController controller, CacheStatsRequest request) throws ServiceException {
+    final CacheStatsResponse.Builder builder = CacheStatsResponse.newBuilder();
+    final GitPropertyCache propertyCache = context.get(GitPropertyCache.class);
+    if (propertyCache != null) {
+      final CacheStats stats = propertyCache.getStats();
+      builder.addCache(CacheStatsResponse.Cache.newBuilder()
+          .setName("property")
+          .setEntries(propertyCache.getEntryCount())
+          .setEstimatedBytes(propertyCache.getEstimatedBytes())
+          .setHits(stats.hitCount())
+          .setMisses(stats.missCount())
+          .setHitRatio(stats.hitRate()));
+    }
+    return builder.build();
+  }
+
   private <T> void setField(@NotNull Consumer<T> setter, @Nullable T value) {
     if (value != null) setter.accept(value);
   }
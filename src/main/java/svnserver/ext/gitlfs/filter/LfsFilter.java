@@ -26,6 +26,8 @@ import svnserver.ext.gitlfs.storage.LfsStorage;
 import svnserver.ext.gitlfs.storage.LfsWriter;
 import svnserver.repository.SvnForbiddenException;
 import svnserver.repository.git.GitObject;
+import svnserver.repository.git.filter.GitBlobMetadata;
+import svnserver.repository.git.filter.GitBlobMetadataCache;
 import svnserver.repository.git.filter.GitFilter;
 import svnserver.repository.git.filter.GitFilterHelper;
 
@@ -46,11 +48,11 @@ public class LfsFilter implements GitFilter {
   @NotNull
   private final LfsStorage storage;
   @NotNull
-  private final Map<String, String> cacheMd5;
+  private final GitBlobMetadataCache cacheMetadata;
 
   public LfsFilter(@NotNull LocalContext context) throws IOException, SVNException {
     this.storage = LfsConfig.getStorage(context);
-    this.cacheMd5 = GitFilterHelper.getCacheMd5(this, context.getShared().getCacheDB());
+    this.cacheMetadata = GitFilterHelper.getCacheMetadata(context);
     final LfsServer lfsServer = context.getShared().get(LfsServer.class);
     if (lfsServer != null) {
       context.add(LfsServerEntry.class, new LfsServerEntry(lfsServer, context, storage));
@@ -72,38 +74,76 @@ public class LfsFilter implements GitFilter {
     return reader;
   }
 
+  /**
+   * Get LFS object reader for pointer blob.
+   *
+   * @return LFS object reader or null if blob is not LFS pointer.
+   */
+  @Nullable
+  private LfsReader getReader(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
+    final ObjectLoader loader = objectId.openObject();
+    try (ObjectStream stream = loader.openStream()) {
+      final byte[] header = new byte[Constants.POINTER_MAX_SIZE];
+      int length = ByteStreams.read(stream, header, 0, header.length);
+      if (length < header.length) {
+        final Map<String, String> pointer = Pointer.parsePointer(header, 0, length);
+        if (pointer != null) {
+          return getReader(pointer);
+        }
+      }
+    }
+    return null;
+  }
+
   @NotNull
   @Override
   public String getMd5(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
-    final ObjectLoader loader = objectId.openObject();
-    final ObjectStream stream = loader.openStream();
-    final byte[] header = new byte[Constants.POINTER_MAX_SIZE];
-    int length = ByteStreams.read(stream, header, 0, header.length);
-    if (length < header.length) {
-      final Map<String, String> pointer = Pointer.parsePointer(header, 0, length);
-      if (pointer != null) {
-        String md5 = getReader(pointer).getMd5();
-        if (md5 != null) {
-          return md5;
-        }
+    final LfsReader reader = getReader(objectId);
+    if (reader != null) {
+      final String md5 = reader.getMd5();
+      if (md5 != null) {
+        return md5;
       }
     }
-    return GitFilterHelper.getMd5(this, cacheMd5, null, objectId);
+    return getMetadata(objectId).getMd5();
   }
 
   @Override
   public long getSize(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
-    final ObjectLoader loader = objectId.openObject();
-    final ObjectStream stream = loader.openStream();
-    final byte[] header = new byte[Constants.POINTER_MAX_SIZE];
-    int length = ByteStreams.read(stream, header, 0, header.length);
-    if (length < header.length) {
-      final Map<String, String> pointer = Pointer.parsePointer(header, 0, length);
-      if (pointer != null) {
-        return getReader(pointer).getSize();
+    final LfsReader reader = getReader(objectId);
+    return reader != null ? reader.getSize() : objectId.openObject().getSize();
+  }
+
+  @Override
+  public boolean isBinary(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    return GitFilterHelper.isBinary(this, cacheMetadata, objectId);
+  }
+
+  @NotNull
+  @Override
+  public GitBlobMetadata getMetadata(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    return GitFilterHelper.getMetadata(this, cacheMetadata, objectId, () -> {
+      final ObjectLoader loader = objectId.openObject();
+      try (ObjectStream stream = loader.openStream()) {
+        final byte[] header = new byte[Constants.POINTER_MAX_SIZE];
+        int length = ByteStreams.read(stream, header, 0, header.length);
+        if (length < header.length) {
+          final Map<String, String> pointer = Pointer.parsePointer(header, 0, length);
+          if (pointer != null) {
+            final LfsReader reader = getReader(pointer);
+            final String md5 = reader.getMd5();
+            try (InputStream content = reader.openStream()) {
+              if (md5 == null) {
+                return GitFilterHelper.createMetadata(content);
+              }
+              // Storage already knows checksums: only content head is needed for binary detection.
+              return new GitBlobMetadata(reader.getSize(), md5, reader.getOid(true), GitFilterHelper.isBinary(content));
+            }
+          }
+        }
+        return GitFilterHelper.createMetadata(new TemporaryInputStream(header, length, stream));
       }
-    }
-    return loader.getSize();
+    });
   }
 
   @NotNull
@@ -12,9 +12,11 @@ import org.jetbrains.annotations.Nullable;
 import svnserver.parser.token.*;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -22,6 +24,10 @@ import java.util.Map;
 
 /**
  * Parse data from class.
+ * <p>
+ * {@link StringToken} ctor parameter is parsed without copy and is valid only until next slice is read from parser
+ * (see {@link SvnServerParser#readItemSlice()}). So message class can have only one such parameter, including
+ * parameters of nested message classes.
  *
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
@@ -34,6 +40,8 @@ public final class MessageParser {
   @NotNull
   private static final byte[] emptyBytes = {};
   @NotNull
+  private static final StringToken emptyString = new StringToken(emptyBytes);
+  @NotNull
   private static final int[] emptyInts = {};
   @NotNull
   private static final Map<Class<?>, Parser> parsers;
@@ -42,63 +50,148 @@ public final class MessageParser {
     parsers = new HashMap<>();
     parsers.put(String.class, MessageParser::parseString);
     parsers.put(byte[].class, MessageParser::parseBinary);
+    parsers.put(StringToken.class, MessageParser::parseSlice);
     parsers.put(int.class, MessageParser::parseInt);
     parsers.put(int[].class, MessageParser::parseInts);
     parsers.put(boolean.class, MessageParser::parseBool);
   }
 
+  /**
+   * Parse plan cache: reflection is used only once per message class.
+   */
+  @NotNull
+  private static final ClassValue<Parser> decoders = new ClassValue<Parser>() {
+    @Override
+    protected Parser computeValue(Class<?> type) {
+      return createParser(type);
+    }
+  };
+
   @NotNull
   public static <T> T parse(@NotNull Class<T> type, @Nullable SvnServerParser tokenParser) throws IOException {
-    Parser typeParser = parsers.get(type);
+    //noinspection unchecked
+    return (T) decoders.get(type).parse(tokenParser);
+  }
+
+  @NotNull
+  private static Parser createParser(@NotNull Class<?> type) {
+    final Parser typeParser = parsers.get(type);
     if (typeParser != null) {
-      //noinspection unchecked
-      return (T) typeParser.parse(tokenParser);
+      return typeParser;
+    }
+    if (type.isArray()) {
+      return new ArrayParser(type.getComponentType());
+    }
+    final Constructor<?>[] ctors = type.getDeclaredConstructors();
+    if (ctors.length != 1) {
+      throw new IllegalStateException("Can't find parser ctor for object: " + type.getName());
+    }
+    if (getSliceCount(type) > 1) {
+      throw new IllegalStateException("Message class can have only one StringToken parameter: " + type.getName());
     }
-    return parseObject(type, tokenParser);
+    final Constructor<?> ctor = ctors[0];
+    final MethodHandle factory;
+    try {
+      factory = MethodHandles.lookup()
+          .unreflectConstructor(ctor)
+          .asSpreader(Object[].class, ctor.getParameterCount())
+          .asType(MethodType.methodType(Object.class, Object[].class));
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+    return new ObjectParser(ctor.getParameterTypes(), factory);
   }
 
-  @SuppressWarnings("unchecked")
-  @NotNull
-  private static <T> T parseObject(Class<T> type, @Nullable SvnServerParser tokenParser) throws IOException {
+  /**
+   * Count {@link StringToken} slices in message of given type.
+   */
+  private static int getSliceCount(@NotNull Class<?> type) {
+    if (type == StringToken.class) {
+      return 1;
+    }
+    if (parsers.containsKey(type)) {
+      return 0;
+    }
+    if (type.isArray()) {
+      // Array can contain any count of slices.
+      return getSliceCount(type.getComponentType()) == 0 ? 0 : Integer.MAX_VALUE;
+    }
+    final Constructor<?>[] ctors = type.getDeclaredConstructors();
+    if (ctors.length != 1) {
+      return 0;
+    }
+    int result = 0;
+    for (Class<?> paramType : ctors[0].getParameterTypes()) {
+      result = (int) Math.min(Integer.MAX_VALUE, (long) result + getSliceCount(paramType));
+    }
+    return result;
+  }
+
+  @Nullable
+  private static SvnServerParser enterList(@Nullable SvnServerParser tokenParser) throws IOException {
     if (tokenParser != null && tokenParser.readItem(ListBeginToken.class) == null)
-      tokenParser = null;
+      return null;
+    return tokenParser;
+  }
 
-    final int depth = getDepth(tokenParser);
+  private static final class ArrayParser implements Parser {
+    @NotNull
+    private final Class<?> componentType;
 
-    if (type.isArray()) {
-      final List<Object> result = new ArrayList<>();
+    private ArrayParser(@NotNull Class<?> componentType) {
+      this.componentType = componentType;
+    }
 
+    @NotNull
+    @Override
+    public Object parse(@Nullable SvnServerParser tokenParser) throws IOException {
+      tokenParser = enterList(tokenParser);
+      final int depth = getDepth(tokenParser);
+      final List<Object> result = new ArrayList<>();
       if (tokenParser != null) {
+        final Parser elementParser = decoders.get(componentType);
         while (true) {
-          final Object element = parse(type.getComponentType(), tokenParser);
+          final Object element = elementParser.parse(tokenParser);
           if (getDepth(tokenParser) < depth)
             break;
 
           result.add(element);
         }
       }
-
-      return (T) result.toArray((Object[]) Array.newInstance(type.getComponentType(), result.size()));
+      return result.toArray((Object[]) Array.newInstance(componentType, result.size()));
     }
+  }
 
-    final Constructor<?>[] ctors = type.getDeclaredConstructors();
-    if (ctors.length != 1) {
-      throw new IllegalStateException("Can't find parser ctor for object: " + type.getName());
-    }
-    final Constructor<?> ctor = ctors[0];
-    final Parameter[] ctorParams = ctor.getParameters();
-    Object[] params = new Object[ctorParams.length];
-    for (int i = 0; i < params.length; ++i) {
-      params[i] = parse(ctorParams[i].getType(), getDepth(tokenParser) == depth ? tokenParser : null);
-    }
-    while (tokenParser != null && getDepth(tokenParser) >= depth) {
-      tokenParser.readToken();
+  private static final class ObjectParser implements Parser {
+    @NotNull
+    private final Class<?>[] paramTypes;
+    @NotNull
+    private final MethodHandle factory;
+
+    private ObjectParser(@NotNull Class<?>[] paramTypes, @NotNull MethodHandle factory) {
+      this.paramTypes = paramTypes;
+      this.factory = factory;
     }
-    try {
-      //noinspection unchecked
-      return (T) ctor.newInstance(params);
-    } catch (ReflectiveOperationException e) {
-      throw new IllegalStateException(e);
+
+    @NotNull
+    @Override
+    public Object parse(@Nullable SvnServerParser tokenParser) throws IOException {
+      tokenParser = enterList(tokenParser);
+      final int depth = getDepth(tokenParser);
+      final Object[] params = new Object[paramTypes.length];
+      for (int i = 0; i < params.length; ++i) {
+        params[i] = decoders.get(paramTypes[i]).parse(getDepth(tokenParser) == depth ? tokenParser : null);
+      }
+      while (tokenParser != null && getDepth(tokenParser) >= depth) {
+        tokenParser.readToken();
+      }
+      try {
+        return (Object) factory.invokeExact(params);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      }
     }
   }
 
@@ -120,6 +213,15 @@ public final class MessageParser {
     return token != null ? token.getData() : emptyBytes;
   }
 
+  @NotNull
+  private static StringToken parseSlice(@Nullable SvnServerParser tokenParser) throws IOException {
+    if (tokenParser == null) {
+      return emptyString;
+    }
+    final StringToken token = tokenParser.readItemSlice();
+    return token != null ? token : emptyString;
+  }
+
   private static int parseInt(@Nullable SvnServerParser tokenParser) throws IOException {
     if (tokenParser == null) {
       return 0;
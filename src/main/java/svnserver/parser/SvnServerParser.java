@@ -28,18 +28,35 @@ public final class SvnServerParser {
   private static final int DEFAULT_BUFFER_SIZE = 32 * 1024;
   // Buffer size limit for out-of-memory prevention.
   private static final int MAX_BUFFER_SIZE = 10 * 1024 * 1024;
+  // Slice buffers up to this size are reused between tokens.
+  private static final int MAX_SLICE_BUFFER_SIZE = 1024 * 1024;
+  @NotNull
+  private static final byte[] EMPTY_BUFFER = {};
   @NotNull
   private final InputStream stream;
+  private final int bufferSize;
   private int depth = 0;
 
   @NotNull
-  private final byte[] buffer;
+  private byte[] buffer;
   private int offset = 0;
   private int limit = 0;
 
+  // Second read buffer: used while the current one is referenced by slice token.
+  @Nullable
+  private byte[] spareBuffer;
+  // Buffer for slice tokens, which are not fit into read buffer.
+  @Nullable
+  private byte[] sliceBuffer;
+  // Buffer referenced by last slice token.
+  @Nullable
+  private byte[] pinned;
+  private boolean sliceMode = false;
+
   public SvnServerParser(@NotNull InputStream stream, int bufferSize) {
     this.stream = stream;
-    this.buffer = new byte[Math.max(1, bufferSize)];
+    this.bufferSize = Math.max(1, bufferSize);
+    this.buffer = new byte[this.bufferSize];
   }
 
   public SvnServerParser(@NotNull InputStream stream) {
@@ -59,6 +76,35 @@ public final class SvnServerParser {
     return depth;
   }
 
+  /**
+   * Check for already received, but not parsed data. Skips buffered whitespaces.
+   *
+   * @return True, if some already received data is not parsed yet.
+   */
+  public boolean hasBufferedData() {
+    while ((offset < limit) && isSpace(buffer[offset])) {
+      offset++;
+    }
+    return offset < limit;
+  }
+
+  /**
+   * Release read buffers while parser is idle. Buffers are allocated again on next read.
+   * <p>
+   * Does nothing, if parser has some received, but not parsed data.
+   */
+  public void releaseBuffers() {
+    if (hasBufferedData() || limit < 0) {
+      return;
+    }
+    buffer = EMPTY_BUFFER;
+    spareBuffer = null;
+    sliceBuffer = null;
+    pinned = null;
+    offset = 0;
+    limit = 0;
+  }
+
   /**
    * Чтение элемента указанного типа из потока.
    *
@@ -96,6 +142,23 @@ public final class SvnServerParser {
     return (T) token;
   }
 
+  /**
+   * Чтение строки без копирования в отдельный массив.
+   * <p>
+   * Returned token references internal parser buffer and is valid only until next {@link #readItemSlice()} call.
+   *
+   * @return Прочитанный элемент или null для конца списка.
+   */
+  @Nullable
+  public StringToken readItemSlice() throws IOException {
+    sliceMode = true;
+    try {
+      return readItem(StringToken.class);
+    } finally {
+      sliceMode = false;
+    }
+  }
+
   /**
    * Чтение элемента из потока.
    *
@@ -147,8 +210,7 @@ public final class SvnServerParser {
       if (limit < 0) {
         throw new EOFException();
       }
-      offset = 0;
-      limit = stream.read(buffer);
+      fill();
     }
   }
 
@@ -164,9 +226,31 @@ public final class SvnServerParser {
       if (limit < 0) {
         throw new EOFException();
       }
-      offset = 0;
-      limit = stream.read(buffer);
+      fill();
+    }
+  }
+
+  private void fill() throws IOException {
+    if (buffer == pinned) {
+      swapBuffer();
+    }
+    if (buffer.length == 0) {
+      buffer = new byte[bufferSize];
+    }
+    offset = 0;
+    limit = stream.read(buffer);
+  }
+
+  /**
+   * Switch to spare buffer to keep data, referenced by slice token.
+   */
+  private void swapBuffer() {
+    if (spareBuffer == null) {
+      spareBuffer = new byte[buffer.length];
     }
+    final byte[] swap = buffer;
+    buffer = spareBuffer;
+    spareBuffer = swap;
   }
 
   private static boolean isSpace(int data) {
@@ -186,25 +270,40 @@ public final class SvnServerParser {
     if (limit < 0) {
       throw new EOFException();
     }
-    final byte[] token = new byte[length];
     if (length <= limit - offset) {
-      System.arraycopy(buffer, offset, token, 0, length);
+      final StringToken token;
+      if (sliceMode) {
+        token = new StringToken(buffer, offset, length);
+        pinned = buffer;
+      } else {
+        token = new StringToken(Arrays.copyOfRange(buffer, offset, offset + length));
+      }
       offset += length;
+      return token;
+    }
+    final byte[] token;
+    if (sliceMode && length <= MAX_SLICE_BUFFER_SIZE) {
+      if (sliceBuffer == null || sliceBuffer.length < length) {
+        sliceBuffer = new byte[Math.max(length, buffer.length)];
+      }
+      token = sliceBuffer;
+      pinned = sliceBuffer;
     } else {
-      int position = limit - offset;
-      System.arraycopy(buffer, offset, token, 0, position);
-      limit = 0;
-      offset = 0;
-      while (position < length) {
-        int size = stream.read(token, position, length - position);
-        if (size < 0) {
-          limit = -1;
-          throw new EOFException();
-        }
-        position += size;
+      token = new byte[length];
+    }
+    int position = limit - offset;
+    System.arraycopy(buffer, offset, token, 0, position);
+    limit = 0;
+    offset = 0;
+    while (position < length) {
+      int size = stream.read(token, position, length - position);
+      if (size < 0) {
+        limit = -1;
+        throw new EOFException();
       }
+      position += size;
     }
-    return new StringToken(Arrays.copyOf(token, length));
+    return new StringToken(token, 0, length);
   }
 
   private static boolean isAlpha(int data) {
@@ -225,7 +324,11 @@ public final class SvnServerParser {
         throw new IOException("Unexpected character in stream: " + data + " (need 'a'..'z', 'A'..'Z', '0'..'9' or '-')");
       }
     }
-    System.arraycopy(buffer, begin, buffer, 0, limit - begin);
+    final byte[] source = buffer;
+    if (buffer == pinned) {
+      swapBuffer();
+    }
+    System.arraycopy(source, begin, buffer, 0, limit - begin);
     limit = offset - begin;
     offset = limit;
     while (limit < buffer.length) {
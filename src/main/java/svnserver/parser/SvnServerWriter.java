@@ -12,6 +12,8 @@ import org.jetbrains.annotations.Nullable;
 import svnserver.parser.token.*;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
@@ -19,16 +21,100 @@ import java.util.Map;
 
 /**
  * Интерфейс для записи данных в поток.
+ * <p>
+ * Data is flushed after every top-level item. Long responses can be corked: while writer is corked,
+ * data is sent only when output buffer is full and on {@link #uncork()}.
  *
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
 public final class SvnServerWriter {
+  /**
+   * Binary data producer.
+   */
+  @FunctionalInterface
+  public interface DataWriter {
+    void write(@NotNull OutputStream stream) throws IOException;
+  }
+
+  private static final int BUFFER_SIZE = 32 * 1024;
+  // Scratch buffer larger than this size is not kept between writes.
+  private static final int MAX_SCRATCH_SIZE = 1024 * 1024;
+
   @NotNull
-  private final OutputStream stream;
+  private final CountingOutputStream output;
+  // Buffered output stream, created on demand.
+  @Nullable
+  private OutputStream buffered;
   private int depth = 0;
+  private int corked = 0;
+  private long flushCount = 0;
+  @Nullable
+  private ScratchBuffer scratch;
 
   public SvnServerWriter(@NotNull OutputStream stream) {
-    this.stream = new BufferedOutputStream(stream);
+    this.output = new CountingOutputStream(stream);
+  }
+
+  @NotNull
+  private OutputStream stream() {
+    if (buffered == null) {
+      buffered = new BufferedOutputStream(output, BUFFER_SIZE);
+    }
+    return buffered;
+  }
+
+  /**
+   * Flush data and release output buffers while writer is idle. Buffers are allocated again on next write.
+   */
+  public void releaseBuffers() throws IOException {
+    if (buffered != null) {
+      flush();
+      buffered = null;
+    }
+    scratch = null;
+  }
+
+  /**
+   * Suppress flush after top-level items until matching {@link #uncork()} call.
+   */
+  public void cork() {
+    corked++;
+  }
+
+  public void uncork() throws IOException {
+    if (corked <= 0) {
+      throw new IllegalStateException("Writer is not corked.");
+    }
+    corked--;
+    autoFlush();
+  }
+
+  public void flush() throws IOException {
+    flushCount++;
+    if (buffered != null) {
+      buffered.flush();
+    }
+  }
+
+  private void autoFlush() throws IOException {
+    if (depth == 0 && corked == 0) {
+      flush();
+    }
+  }
+
+  /**
+   * @return Number of write calls to underlying stream (roughly, syscalls count).
+   */
+  public long getWriteCount() {
+    return output.writeCount;
+  }
+
+  public long getFlushCount() {
+    return flushCount;
+  }
+
+  public long getBytesWritten() {
+    return output.bytesWritten;
   }
 
   @NotNull
@@ -43,8 +129,8 @@ public final class SvnServerWriter {
 
   @NotNull
   public SvnServerWriter word(@NotNull String word) throws IOException {
-    WordToken.write(stream, word);
-    if (depth == 0) stream.flush();
+    WordToken.write(stream(), word);
+    autoFlush();
     return this;
   }
 
@@ -72,21 +158,60 @@ public final class SvnServerWriter {
 
   @NotNull
   public SvnServerWriter binary(@NotNull byte[] data, int offset, int length) throws IOException {
-    StringToken.write(stream, data, offset, length);
-    if (depth == 0) stream.flush();
+    StringToken.write(stream(), data, offset, length);
+    autoFlush();
+    return this;
+  }
+
+  /**
+   * Write binary string of known length directly to output stream.
+   *
+   * @param length Exact data length.
+   * @param data   Data producer.
+   */
+  @NotNull
+  public SvnServerWriter binary(int length, @NotNull DataWriter data) throws IOException {
+    StringToken.writeHeader(stream(), length);
+    final CountingOutputStream counter = new CountingOutputStream(stream());
+    data.write(counter);
+    if (counter.bytesWritten != length) {
+      throw new IllegalStateException("Binary data length mismatch: expected " + length + ", but written " + counter.bytesWritten);
+    }
+    stream().write(' ');
+    autoFlush();
     return this;
   }
 
+  /**
+   * Write binary string of unknown length using reusable per-writer scratch buffer.
+   *
+   * @param data Data producer.
+   */
+  @NotNull
+  public SvnServerWriter binary(@NotNull DataWriter data) throws IOException {
+    final ScratchBuffer buffer = scratch != null ? scratch : new ScratchBuffer();
+    scratch = null;
+    try {
+      data.write(buffer);
+      return binary(buffer.array(), 0, buffer.size());
+    } finally {
+      if (buffer.array().length <= MAX_SCRATCH_SIZE) {
+        buffer.reset();
+        scratch = buffer;
+      }
+    }
+  }
+
   @NotNull
   public SvnServerWriter number(long number) throws IOException {
-    NumberToken.write(stream, number);
-    if (depth == 0) stream.flush();
+    NumberToken.write(stream(), number);
+    autoFlush();
     return this;
   }
 
   @NotNull
   public SvnServerWriter separator() throws IOException {
-    stream.write('\n');
+    stream().write('\n');
     return this;
   }
 
@@ -97,7 +222,7 @@ public final class SvnServerWriter {
 
   @NotNull
   public SvnServerWriter write(@NotNull SvnServerToken token) throws IOException {
-    token.write(stream);
+    token.write(stream());
     if (token.equals(ListBeginToken.instance)) {
       depth++;
     } else if (token.equals(ListEndToken.instance)) {
@@ -108,7 +233,7 @@ public final class SvnServerWriter {
     }
     if (depth == 0) {
       separator();
-      stream.flush();
+      autoFlush();
     }
     return this;
   }
@@ -127,4 +252,38 @@ public final class SvnServerWriter {
     listEnd();
     return this;
   }
+
+  private static final class ScratchBuffer extends ByteArrayOutputStream {
+    private ScratchBuffer() {
+      super(BUFFER_SIZE);
+    }
+
+    @NotNull
+    private byte[] array() {
+      return buf;
+    }
+  }
+
+  private static final class CountingOutputStream extends FilterOutputStream {
+    private long writeCount = 0;
+    private long bytesWritten = 0;
+
+    private CountingOutputStream(@NotNull OutputStream stream) {
+      super(stream);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      writeCount++;
+      bytesWritten++;
+      out.write(b);
+    }
+
+    @Override
+    public void write(@NotNull byte[] b, int off, int len) throws IOException {
+      writeCount++;
+      bytesWritten += len;
+      out.write(b, off, len);
+    }
+  }
 }
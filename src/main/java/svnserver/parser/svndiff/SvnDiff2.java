@@ -0,0 +1,202 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.parser.svndiff;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import org.jetbrains.annotations.NotNull;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * svndiff2 window format.
+ * <p>
+ * Same as svndiff1, but instructions and new data sections are compressed by LZ4 instead of zlib:
+ * <pre>
+ *   section: original-length:varint ( lz4-block | original-data )
+ * </pre>
+ * Original data is stored as is, when compression doesn't reduce section size.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+final class SvnDiff2 {
+  @NotNull
+  static final byte[] HEADER = {'S', 'V', 'N', 2};
+  // Sanity limit for decoded section: windows are about 100KB.
+  private static final int MAX_SECTION_SIZE = 64 * 1024 * 1024;
+  @NotNull
+  private static final LZ4Factory lz4 = LZ4Factory.fastestInstance();
+
+  private SvnDiff2() {
+  }
+
+  static void writeTo(@NotNull SVNDiffWindow window, @NotNull OutputStream stream, boolean writeHeader) throws IOException {
+    if (writeHeader) {
+      stream.write(HEADER);
+    }
+    if (!window.hasInstructions()) {
+      return;
+    }
+    // Take uncompressed sections from svndiff0 representation.
+    final Buffer raw = new Buffer(window.getInstructionsLength() + window.getNewDataLength() + 32);
+    window.writeTo(raw, false, false);
+    final int sections = raw.size() - window.getInstructionsLength() - window.getNewDataLength();
+    final LZ4Compressor compressor = lz4.fastCompressor();
+    final byte[] instructions = compress(compressor, raw.array(), sections, window.getInstructionsLength());
+    final byte[] newData = compress(compressor, raw.array(), sections + window.getInstructionsLength(), window.getNewDataLength());
+
+    writeVarInt(stream, window.getSourceViewOffset());
+    writeVarInt(stream, window.getSourceViewLength());
+    writeVarInt(stream, window.getTargetViewLength());
+    writeVarInt(stream, instructions.length);
+    writeVarInt(stream, newData.length);
+    stream.write(instructions);
+    stream.write(newData);
+  }
+
+  @NotNull
+  private static byte[] compress(@NotNull LZ4Compressor compressor, @NotNull byte[] data, int offset, int length) throws IOException {
+    final Buffer section = new Buffer(compressor.maxCompressedLength(length) + 10);
+    writeVarInt(section, length);
+    final int header = section.size();
+    final int compressed = compressor.compress(data, offset, length, section.array(), header, section.array().length - header);
+    if (compressed < length) {
+      return section.toByteArray(header + compressed);
+    }
+    section.write(data, offset, length);
+    return section.toByteArray();
+  }
+
+  /**
+   * Convert svndiff2 window to svndiff0 window.
+   *
+   * @return Count of consumed bytes or 0, if window is incomplete.
+   */
+  static int decodeWindow(@NotNull byte[] data, int offset, int length, @NotNull OutputStream output) throws IOException, SVNException {
+    final Cursor cursor = new Cursor(data, offset, length);
+    final long sourceViewOffset = cursor.readVarInt();
+    final long sourceViewLength = cursor.readVarInt();
+    final long targetViewLength = cursor.readVarInt();
+    final long instructionsLength = cursor.readVarInt();
+    final long newDataLength = cursor.readVarInt();
+    if (newDataLength < 0) {
+      return 0;
+    }
+    if (instructionsLength > MAX_SECTION_SIZE || newDataLength > MAX_SECTION_SIZE) {
+      throw corrupted("Svndiff section is too large");
+    }
+    final int windowSize = cursor.position - offset + (int) (instructionsLength + newDataLength);
+    if (windowSize > length) {
+      return 0;
+    }
+    final byte[] instructions = decompress(data, cursor.position, (int) instructionsLength);
+    final byte[] newData = decompress(data, cursor.position + (int) instructionsLength, (int) newDataLength);
+    writeVarInt(output, sourceViewOffset);
+    writeVarInt(output, sourceViewLength);
+    writeVarInt(output, targetViewLength);
+    writeVarInt(output, instructions.length);
+    writeVarInt(output, newData.length);
+    output.write(instructions);
+    output.write(newData);
+    return windowSize;
+  }
+
+  @NotNull
+  private static byte[] decompress(@NotNull byte[] data, int offset, int length) throws SVNException {
+    final Cursor cursor = new Cursor(data, offset, length);
+    final long originalLength = cursor.readVarInt();
+    if (originalLength < 0 || originalLength > MAX_SECTION_SIZE) {
+      throw corrupted("Invalid svndiff section length");
+    }
+    final int header = cursor.position - offset;
+    final byte[] result = new byte[(int) originalLength];
+    if (length - header == originalLength) {
+      System.arraycopy(data, cursor.position, result, 0, result.length);
+      return result;
+    }
+    try {
+      if (lz4.safeDecompressor().decompress(data, cursor.position, length - header, result, 0) != result.length) {
+        throw corrupted("Decompressed svndiff section length mismatch");
+      }
+    } catch (LZ4Exception e) {
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.SVNDIFF_CORRUPT_WINDOW, e.getMessage()), e);
+    }
+    return result;
+  }
+
+  @NotNull
+  private static SVNException corrupted(@NotNull String message) {
+    return new SVNException(SVNErrorMessage.create(SVNErrorCode.SVNDIFF_CORRUPT_WINDOW, message));
+  }
+
+  static void writeVarInt(@NotNull OutputStream stream, long value) throws IOException {
+    int shift = 0;
+    while ((value >>> (shift + 7)) != 0) {
+      shift += 7;
+    }
+    for (; shift > 0; shift -= 7) {
+      stream.write((int) ((value >>> shift) & 0x7F) | 0x80);
+    }
+    stream.write((int) (value & 0x7F));
+  }
+
+  private static final class Cursor {
+    @NotNull
+    private final byte[] data;
+    private final int limit;
+    private int position;
+
+    private Cursor(@NotNull byte[] data, int offset, int length) {
+      this.data = data;
+      this.position = offset;
+      this.limit = offset + length;
+    }
+
+    /**
+     * @return Value or -1 if data is incomplete.
+     */
+    private long readVarInt() throws SVNException {
+      long result = 0;
+      for (int i = 0; i < 10; ++i) {
+        if (position >= limit) {
+          return -1;
+        }
+        final int b = data[position++];
+        result = (result << 7) | (b & 0x7F);
+        if ((b & 0x80) == 0) {
+          return result;
+        }
+      }
+      throw corrupted("Invalid svndiff integer");
+    }
+  }
+
+  private static final class Buffer extends ByteArrayOutputStream {
+    private Buffer(int size) {
+      super(size);
+    }
+
+    @NotNull
+    private byte[] array() {
+      return buf;
+    }
+
+    @NotNull
+    private byte[] toByteArray(int size) {
+      count = size;
+      return toByteArray();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.parser.svndiff;
+
+import org.jetbrains.annotations.NotNull;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Svndiff format of delta windows.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public enum SvnDiffCodec {
+  /**
+   * svndiff0: without compression.
+   */
+  None {
+    @Override
+    public void writeTo(@NotNull SVNDiffWindow window, @NotNull OutputStream stream, boolean writeHeader) throws IOException {
+      window.writeTo(stream, writeHeader, false);
+    }
+  },
+  /**
+   * svndiff1: zlib compression.
+   */
+  Zlib {
+    @Override
+    public void writeTo(@NotNull SVNDiffWindow window, @NotNull OutputStream stream, boolean writeHeader) throws IOException {
+      window.writeTo(stream, writeHeader, true);
+    }
+  },
+  /**
+   * svndiff2: LZ4 compression (Subversion 1.10+).
+   */
+  Lz4 {
+    @Override
+    public void writeTo(@NotNull SVNDiffWindow window, @NotNull OutputStream stream, boolean writeHeader) throws IOException {
+      SvnDiff2.writeTo(window, stream, writeHeader);
+    }
+  };
+
+  /**
+   * Write delta window.
+   *
+   * @param window      Delta window.
+   * @param stream      Output stream.
+   * @param writeHeader Write svndiff header before window (first window of stream).
+   */
+  public abstract void writeTo(@NotNull SVNDiffWindow window, @NotNull OutputStream stream, boolean writeHeader) throws IOException;
+}
@@ -0,0 +1,90 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.parser.svndiff;
+
+import org.jetbrains.annotations.NotNull;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.delta.SVNDeltaReader;
+import org.tmatesoft.svn.core.io.ISVNDeltaConsumer;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Svndiff stream reader.
+ * <p>
+ * svndiff0 and svndiff1 streams are passed to {@link SVNDeltaReader} as is. svndiff2 windows are
+ * decompressed to svndiff0, because SVNKit doesn't support LZ4 compression.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class SvnDiffReader {
+  @NotNull
+  private final SVNDeltaReader reader = new SVNDeltaReader();
+  @NotNull
+  private final ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+  @NotNull
+  private byte[] buffer = new byte[SvnDiff2.HEADER.length];
+  private int length = 0;
+  private boolean headerRead = false;
+  private boolean svndiff2 = false;
+
+  public void nextWindow(@NotNull byte[] data, int offset, int length, @NotNull String path, @NotNull ISVNDeltaConsumer consumer) throws SVNException {
+    if (headerRead && !svndiff2) {
+      reader.nextWindow(data, offset, length, path, consumer);
+      return;
+    }
+    append(data, offset, length);
+    if (!headerRead) {
+      if (this.length < SvnDiff2.HEADER.length) {
+        return;
+      }
+      headerRead = true;
+      svndiff2 = Arrays.equals(Arrays.copyOf(buffer, SvnDiff2.HEADER.length), SvnDiff2.HEADER);
+      if (!svndiff2) {
+        reader.nextWindow(buffer, 0, this.length, path, consumer);
+        this.length = 0;
+        return;
+      }
+      reader.nextWindow(SVNDiffWindow.SVN_HEADER, 0, SVNDiffWindow.SVN_HEADER.length, path, consumer);
+      consume(SvnDiff2.HEADER.length);
+    }
+    try {
+      int position = 0;
+      while (true) {
+        final int windowSize = SvnDiff2.decodeWindow(buffer, position, this.length - position, decoded);
+        if (windowSize == 0) {
+          break;
+        }
+        position += windowSize;
+        reader.nextWindow(decoded.toByteArray(), 0, decoded.size(), path, consumer);
+        decoded.reset();
+      }
+      consume(position);
+    } catch (IOException e) {
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e.getMessage()), e);
+    }
+  }
+
+  private void append(@NotNull byte[] data, int offset, int length) {
+    if (this.length + length > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, this.length + length));
+    }
+    System.arraycopy(data, offset, buffer, this.length, length);
+    this.length += length;
+  }
+
+  private void consume(int size) {
+    System.arraycopy(buffer, size, buffer, 0, length - size);
+    length -= size;
+  }
+}
@@ -19,72 +19,119 @@ import java.util.Arrays;
  * Ключевое слово.
  * <p>
  * Бинарная строка или текст известной длины.
+ * <p>
+ * Token can reference slice of shared buffer (see {@link svnserver.parser.SvnServerParser#readItemSlice()}).
  *
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
 public final class StringToken implements TextToken {
   @NotNull
   private final byte[] data;
+  private final int offset;
+  private final int length;
 
   public StringToken(@NotNull byte[] data) {
+    this(data, 0, data.length);
+  }
+
+  public StringToken(@NotNull byte[] data, int offset, int length) {
     this.data = data;
+    this.offset = offset;
+    this.length = length;
   }
 
   public StringToken(@NotNull String text) {
-    this.data = text.getBytes(StandardCharsets.UTF_8);
+    this(text.getBytes(StandardCharsets.UTF_8));
   }
 
   @Override
   @NotNull
   public String getText() {
-    return new String(data, StandardCharsets.UTF_8);
+    return new String(data, offset, length, StandardCharsets.UTF_8);
   }
 
+  /**
+   * Token data. Returns copy, if token is a slice of bigger array.
+   */
   @NotNull
   public byte[] getData() {
+    if (offset == 0 && length == data.length) {
+      return data;
+    }
+    return Arrays.copyOfRange(data, offset, offset + length);
+  }
+
+  /**
+   * Backing array without copy. Token data is placed in range [getOffset(), getOffset() + getLength()).
+   */
+  @NotNull
+  public byte[] getArray() {
     return data;
   }
 
+  public int getOffset() {
+    return offset;
+  }
+
+  public int getLength() {
+    return length;
+  }
+
   @Override
   public void write(@NotNull OutputStream stream) throws IOException {
-    write(stream, data, 0, data.length);
+    write(stream, data, offset, length);
   }
 
   public static void write(@NotNull OutputStream stream, @NotNull byte[] data, int offset, int length) throws IOException {
-    stream.write(Long.toString(length, 10).getBytes(StandardCharsets.ISO_8859_1));
-    stream.write(':');
+    writeHeader(stream, length);
     stream.write(data, offset, length);
     stream.write(' ');
   }
 
+  /**
+   * Write string length prefix. Must be followed by exactly {@code length} bytes of data and space.
+   */
+  public static void writeHeader(@NotNull OutputStream stream, int length) throws IOException {
+    stream.write(Long.toString(length, 10).getBytes(StandardCharsets.ISO_8859_1));
+    stream.write(':');
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
     if (o == null || getClass() != o.getClass()) return false;
     final StringToken other = (StringToken) o;
-    return Arrays.equals(data, other.data);
+    if (length != other.length) return false;
+    for (int i = 0; i < length; ++i) {
+      if (data[offset + i] != other.data[other.offset + i]) return false;
+    }
+    return true;
   }
 
   @Override
   public int hashCode() {
-    return Arrays.hashCode(data);
+    int result = 1;
+    for (int i = offset; i < offset + length; ++i) {
+      result = 31 * result + data[i];
+    }
+    return result;
   }
 
   @Override
   public String toString() {
     final String value;
-    if (isUtf(data)) {
-      value = '\"' + new String(data, StandardCharsets.UTF_8) + '\"';
+    if (isUtf(data, offset, offset + length)) {
+      value = '\"' + getText() + '\"';
     } else {
-      value = "0x" + StringHelper.toHex(data);
+      value = "0x" + StringHelper.toHex(getData());
     }
     return "String{" + value + '}';
   }
 
   @SuppressWarnings("MagicNumber")
-  private static boolean isUtf(byte[] data) {
-    int i = 0;
-    while (i < data.length) {
+  private static boolean isUtf(byte[] data, int from, int to) {
+    int i = from;
+    while (i < to) {
       int continuationBytes;
       //noinspection IfStatementWithTooManyBranches
       if (data[i] <= 0x7F)
@@ -98,7 +145,7 @@ public final class StringToken implements TextToken {
       else
         return false;
       i += 1;
-      while (i < data.length && continuationBytes > 0
+      while (i < to && continuationBytes > 0
           && data[i] >= 0x80
           && data[i] <= 0xBF) {
         i += 1;
@@ -23,6 +23,9 @@ import java.util.Map;
  * @author a.navrotskiy
  */
 public interface VcsFile extends VcsEntry {
+  /**
+   * @return File properties. Map can be shared between files and must not be modified.
+   */
   @NotNull
   Map<String, String> getProperties() throws IOException, SVNException;
 
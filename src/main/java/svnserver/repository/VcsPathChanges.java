@@ -0,0 +1,61 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Sorted revisions of path changes.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public interface VcsPathChanges {
+  @NotNull
+  VcsPathChanges empty = new VcsPathChanges() {
+    @Override
+    public int size() {
+      return 0;
+    }
+
+    @Override
+    public int get(int index) {
+      throw new IndexOutOfBoundsException();
+    }
+  };
+
+  /**
+   * @return Count of changes.
+   */
+  int size();
+
+  /**
+   * @param index Change index.
+   * @return Change revision (in ascending order).
+   */
+  int get(int index);
+
+  /**
+   * Find first change at or after revision.
+   *
+   * @param revision Revision.
+   * @return Change index or {@link #size()}, if there is no such change.
+   */
+  default int ceilingIndex(int revision) {
+    int low = 0;
+    int high = size() - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      if (get(mid) < revision) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+}
@@ -83,6 +83,17 @@ public interface VcsRepository extends AutoCloseable {
    */
   int getLastChange(@NotNull String nodePath, int beforeRevision);
 
+  /**
+   * Get file changes since its last creation.
+   *
+   * @param nodePath       File path.
+   * @param beforeRevision Target revision.
+   * @return Changes up to target revision, starting from revision, where file was created.
+   * Empty, if file not exists in target revision.
+   */
+  @NotNull
+  VcsPathChanges getPathChanges(@NotNull String nodePath, int beforeRevision);
+
   /**
    * Run some work with blocking lock modification.
    */
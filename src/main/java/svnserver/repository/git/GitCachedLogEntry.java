@@ -0,0 +1,90 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNLogEntryPath;
+import org.tmatesoft.svn.core.SVNNodeKind;
+import svnserver.repository.VcsCopyFrom;
+import svnserver.repository.VcsLogEntry;
+import svnserver.repository.VcsSupplier;
+import svnserver.repository.git.cache.CacheChange;
+
+import java.io.IOException;
+
+/**
+ * Git modification type from revision cache.
+ * <p>
+ * When cached flags are not enough (see {@link CacheChange#needsCompare()}), entries are compared on first request.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+final class GitCachedLogEntry implements VcsLogEntry {
+  @NotNull
+  private final CacheChange change;
+  @Nullable
+  private final VcsCopyFrom copyFrom;
+  @NotNull
+  private final VcsSupplier<GitLogPair> pairLoader;
+  @Nullable
+  private GitLogPair pair;
+
+  GitCachedLogEntry(@NotNull CacheChange change, @Nullable VcsCopyFrom copyFrom, @NotNull VcsSupplier<GitLogPair> pairLoader) {
+    this.change = change;
+    this.copyFrom = copyFrom;
+    this.pairLoader = pairLoader;
+  }
+
+  @Override
+  public char getChange() throws IOException, SVNException {
+    final char result = change.getChange();
+    if (result == SVNLogEntryPath.TYPE_MODIFIED || result == 0) {
+      return isModified() ? SVNLogEntryPath.TYPE_MODIFIED : 0;
+    }
+    return result;
+  }
+
+  @NotNull
+  @Override
+  public SVNNodeKind getKind() {
+    return change.getKind();
+  }
+
+  @Nullable
+  @Override
+  public VcsCopyFrom getCopyFrom() {
+    return copyFrom;
+  }
+
+  @Override
+  public boolean isContentModified() throws IOException, SVNException {
+    return change.needsCompare() ? getPair().isContentModified() : change.isContentModified();
+  }
+
+  @Override
+  public boolean isPropertyModified() throws IOException, SVNException {
+    // Without mode, filter or upstream properties change only detected file type can change properties:
+    // it is ignored like in GitLogPair.isModified().
+    return change.needsCompare() && getPair().isPropertyModified();
+  }
+
+  @Override
+  public boolean isModified() throws IOException, SVNException {
+    return change.needsCompare() ? getPair().isModified() : change.isModified();
+  }
+
+  @NotNull
+  private GitLogPair getPair() throws IOException, SVNException {
+    if (pair == null) {
+      pair = pairLoader.get();
+    }
+    return pair;
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import svnserver.context.Shared;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bounded cache of parsed commits.
+ * <p>
+ * Revisions keep only commit ids, commit bodies are loaded on demand. Commit is immutable and identified by its hash,
+ * so cache is shared between repositories.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class GitCommitCache implements Shared {
+  public static final long DEFAULT_SIZE = 10000;
+
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(GitCommitCache.class);
+  @NotNull
+  private final Cache<ObjectId, RevCommit> cache;
+
+  public GitCommitCache() {
+    this(DEFAULT_SIZE);
+  }
+
+  public GitCommitCache(long maximumSize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
+  }
+
+  @NotNull
+  public RevCommit load(@NotNull Repository repository, @NotNull ObjectId commitId) throws IOException {
+    try {
+      return cache.get(commitId.copy(), () -> {
+        try (RevWalk walk = new RevWalk(repository)) {
+          return walk.parseCommit(commitId);
+        }
+      });
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @NotNull
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  @Override
+  public void close() {
+    final CacheStats stats = cache.stats();
+    log.info("Commit cache: {} hits, {} misses ({}% hit rate)", stats.hitCount(), stats.missCount(), Math.round(stats.hitRate() * 100));
+  }
+}
@@ -40,6 +40,12 @@ class GitEntryImpl implements GitEntry {
     this.props = GitProperty.joinProperties(parentProps, name, fileMode, props);
   }
 
+  GitEntryImpl(@NotNull GitEntryImpl entry) {
+    this.parentPath = entry.parentPath;
+    this.name = entry.name;
+    this.props = entry.props;
+  }
+
   @NotNull
   @Override
   public GitProperty[] getRawProperties() {
@@ -0,0 +1,108 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import svnserver.context.Shared;
+
+/**
+ * Bounded cache of resolved revision paths.
+ * <p>
+ * Resolved file keeps computed properties and filter, so repeated lookups of same path (and of its parents)
+ * don't walk revision tree from root.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class GitFileCache implements Shared {
+  public static final long DEFAULT_SIZE = 10000;
+
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(GitFileCache.class);
+  @NotNull
+  private final Cache<FileKey, GitFileTreeEntry> cache;
+
+  public GitFileCache() {
+    this(DEFAULT_SIZE);
+  }
+
+  public GitFileCache(long maximumSize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * @return Copy of cached file: copy has own child entries cache, so cached instance doesn't hold child entries
+   * loaded by caller.
+   */
+  @Nullable
+  GitFileTreeEntry get(@NotNull GitRepository repo, int revision, @NotNull String fullPath) {
+    final GitFileTreeEntry file = cache.getIfPresent(new FileKey(repo, revision, fullPath));
+    return file == null ? null : file.copy();
+  }
+
+  void put(@NotNull GitRepository repo, int revision, @NotNull String fullPath, @NotNull GitFileTreeEntry file) {
+    cache.put(new FileKey(repo, revision, fullPath), file.copy());
+  }
+
+  /**
+   * Remove files of closed repository.
+   */
+  void invalidate(@NotNull GitRepository repo) {
+    cache.asMap().keySet().removeIf(key -> key.repo == repo);
+  }
+
+  long size() {
+    return cache.size();
+  }
+
+  @NotNull
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  @Override
+  public void close() {
+    final CacheStats stats = cache.stats();
+    log.info("File cache: {} hits, {} misses ({}% hit rate)", stats.hitCount(), stats.missCount(), Math.round(stats.hitRate() * 100));
+  }
+
+  private static final class FileKey {
+    @NotNull
+    private final GitRepository repo;
+    private final int revision;
+    @NotNull
+    private final String fullPath;
+
+    private FileKey(@NotNull GitRepository repo, int revision, @NotNull String fullPath) {
+      this.repo = repo;
+      this.revision = revision;
+      this.fullPath = fullPath;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final FileKey other = (FileKey) o;
+      return repo == other.repo && revision == other.revision && fullPath.equals(other.fullPath);
+    }
+
+    @Override
+    public int hashCode() {
+      return (System.identityHashCode(repo) * 31 + revision) * 31 + fullPath.hashCode();
+    }
+  }
+}
@@ -38,6 +38,9 @@ final class GitFileTreeEntry extends GitEntryImpl implements GitFile {
   private final GitFilter filter;
   @NotNull
   private final GitTreeEntry treeEntry;
+  // Parent directory properties: key for effective file properties.
+  @NotNull
+  private final GitProperty[] parentProps;
 
   private final int revision;
 
@@ -52,20 +55,42 @@ final class GitFileTreeEntry extends GitEntryImpl implements GitFile {
     this.repo = repo;
     this.revision = revision;
     this.treeEntry = treeEntry;
+    this.parentProps = parentProps;
     this.entriesCache = entriesCache;
     this.filter = repo.getFilter(treeEntry.getFileMode(), this.getRawProperties());
   }
 
+  /**
+   * Copy file with computed properties and filter, but without loaded child entries: copy loads them through tree cache.
+   */
+  private GitFileTreeEntry(@NotNull GitFileTreeEntry file) {
+    super(file);
+    this.repo = file.repo;
+    this.revision = file.revision;
+    this.treeEntry = file.treeEntry;
+    this.parentProps = file.parentProps;
+    this.entriesCache = new EntriesCache(file.repo, file.treeEntry);
+    this.filter = file.filter;
+  }
+
   @NotNull
-  public static GitFile create(@NotNull GitRepository repo, @NotNull RevTree tree, int revision) throws IOException, SVNException {
+  public static GitFileTreeEntry create(@NotNull GitRepository repo, @NotNull RevTree tree, int revision) throws IOException, SVNException {
     return create(repo, PropertyMapping.getRootProperties(), "", new GitTreeEntry(repo.getRepository(), FileMode.TREE, tree, ""), revision);
   }
 
   @NotNull
-  private static GitFile create(@NotNull GitRepository repo, @NotNull GitProperty[] parentProps, @NotNull String parentPath, @NotNull GitTreeEntry treeEntry, int revision) throws IOException, SVNException {
+  private static GitFileTreeEntry create(@NotNull GitRepository repo, @NotNull GitProperty[] parentProps, @NotNull String parentPath, @NotNull GitTreeEntry treeEntry, int revision) throws IOException, SVNException {
     return new GitFileTreeEntry(repo, parentProps, parentPath, treeEntry, revision, new EntriesCache(repo, treeEntry));
   }
 
+  /**
+   * Copy for sharing: child entries, loaded by {@link #getEntries()}, are not shared.
+   */
+  @NotNull
+  GitFileTreeEntry copy() {
+    return new GitFileTreeEntry(this);
+  }
+
   @NotNull
   @Override
   public GitRepository getRepo() {
@@ -100,6 +125,16 @@ final class GitFileTreeEntry extends GitEntryImpl implements GitFile {
   @NotNull
   @Override
   public Map<String, String> getProperties() throws IOException, SVNException {
+    final FileMode fileMode = getFileMode();
+    if (fileMode.getObjectType() != Constants.OBJ_BLOB) {
+      return createProperties(false);
+    }
+    final boolean binary = !fileMode.equals(FileMode.SYMLINK) && repo.isObjectBinary(filter, getObjectId());
+    return repo.getPropertyMapCache().get(parentProps, getFileName(), fileMode, binary, () -> createProperties(binary));
+  }
+
+  @NotNull
+  private Map<String, String> createProperties(boolean binary) {
     final Map<String, String> props = getUpstreamProperties();
     final FileMode fileMode = getFileMode();
     if (fileMode.equals(FileMode.SYMLINK)) {
@@ -110,7 +145,7 @@ final class GitFileTreeEntry extends GitEntryImpl implements GitFile {
       if (fileMode.equals(FileMode.EXECUTABLE_FILE)) {
         props.put(SVNProperty.EXECUTABLE, "*");
       }
-      if (fileMode.getObjectType() == Constants.OBJ_BLOB && repo.isObjectBinary(filter, getObjectId())) {
+      if (binary) {
         props.remove(SVNProperty.EOL_STYLE);
         props.put(SVNProperty.MIME_TYPE, SVNFileUtil.BINARY_MIME_TYPE);
       }
@@ -156,13 +191,9 @@ final class GitFileTreeEntry extends GitEntryImpl implements GitFile {
   }
 
   @Nullable
-  public GitFile getEntry(@NotNull String name) throws IOException, SVNException {
-    for (GitTreeEntry entry : entriesCache.get()) {
-      if (entry.getFileName().equals(name)) {
-        return create(repo, getRawProperties(), getFullPath(), entry, revision);
-      }
-    }
-    return null;
+  public GitFileTreeEntry getEntry(@NotNull String name) throws IOException, SVNException {
+    final GitTreeEntry entry = entriesCache.get().getEntry(name);
+    return entry == null ? null : create(repo, getRawProperties(), getFullPath(), entry, revision);
   }
 
   @Nullable
@@ -197,7 +228,7 @@ final class GitFileTreeEntry extends GitEntryImpl implements GitFile {
   private static class EntriesCache implements VcsSupplier<Iterable<GitTreeEntry>> {
     private final GitRepository repo;
     private final GitTreeEntry treeEntry;
-    public Iterable<GitTreeEntry> rawEntriesCache;
+    private volatile GitTree rawEntriesCache;
 
     public EntriesCache(GitRepository repo, GitTreeEntry treeEntry) {
       this.repo = repo;
@@ -205,11 +236,13 @@ final class GitFileTreeEntry extends GitEntryImpl implements GitFile {
     }
 
     @Override
-    public Iterable<GitTreeEntry> get() throws SVNException, IOException {
-      if (rawEntriesCache == null) {
-        rawEntriesCache = repo.loadTree(treeEntry);
+    public GitTree get() throws SVNException, IOException {
+      GitTree result = rawEntriesCache;
+      if (result == null) {
+        result = repo.loadTree(treeEntry);
+        rawEntriesCache = result;
       }
-      return rawEntriesCache;
+      return result;
     }
   }
 }
@@ -0,0 +1,43 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.jetbrains.annotations.NotNull;
+import svnserver.context.Shared;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Fork/join pool for parallel revision indexing.
+ * <p>
+ * Registered only when parallel indexing is enabled and shared between all repositories.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class GitIndexingPool implements Shared {
+  @NotNull
+  private final ForkJoinPool pool;
+
+  public GitIndexingPool() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  public GitIndexingPool(int parallelism) {
+    this.pool = new ForkJoinPool(parallelism);
+  }
+
+  @NotNull
+  public ForkJoinPool getPool() {
+    return pool;
+  }
+
+  @Override
+  public void close() {
+    pool.shutdownNow();
+  }
+}
@@ -43,7 +43,7 @@ public final class GitLogPair {
     return newEntry;
   }
 
-  boolean isContentModified() throws IOException, SVNException {
+  public boolean isContentModified() throws IOException, SVNException {
     if (newEntry == null || newEntry.isDirectory())
       return false;
 
@@ -63,7 +63,7 @@ public final class GitLogPair {
     return filter == null ? null : filter.getName();
   }
 
-  boolean isPropertyModified() throws IOException, SVNException {
+  public boolean isPropertyModified() throws IOException, SVNException {
     if ((newEntry == null) || (oldEntry == null)) return false;
     final Map<String, String> newProps = newEntry.getProperties();
     final Map<String, String> oldProps = oldEntry.getProperties();
@@ -0,0 +1,201 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.context.Shared;
+import svnserver.repository.VcsSupplier;
+import svnserver.repository.git.prop.GitProperty;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of parsed properties.
+ * <p>
+ * Directory properties are cached by tree id, property file content (.gitattributes, .gitignore, etc) is cached
+ * by file name and blob id. Objects are immutable, so cache is shared between repositories. Cache size is limited
+ * by estimated memory usage; identical property arrays are interned.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class GitPropertyCache implements Shared {
+  public static final long DEFAULT_SIZE = 32 * 1024 * 1024;
+  // Rough memory estimation: cache entry with key and object id, array reference and parsed property.
+  private static final int ENTRY_SIZE = 128;
+  private static final int REFERENCE_SIZE = 8;
+  private static final int PROPERTY_SIZE = 256;
+
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(GitPropertyCache.class);
+  @NotNull
+  private static final Properties empty = new Properties(GitProperty.emptyArray);
+  @NotNull
+  private final Cache<PropertyKey, Properties> cache;
+  @NotNull
+  private final Interner<Properties> interner = Interners.newWeakInterner();
+  @NotNull
+  private final AtomicLong estimatedBytes = new AtomicLong();
+
+  public GitPropertyCache() {
+    this(DEFAULT_SIZE);
+  }
+
+  /**
+   * @param maximumSize Maximum estimated size of cached properties in bytes.
+   */
+  public GitPropertyCache(long maximumSize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(maximumSize)
+        .weigher((PropertyKey key, Properties value) -> weight(value))
+        .removalListener(notification -> estimatedBytes.addAndGet(-weight(notification.getValue())))
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Get directory properties.
+   *
+   * @param treeId Tree id.
+   * @param loader Properties loader.
+   */
+  @NotNull
+  GitProperty[] getDirectory(@NotNull ObjectId treeId, @NotNull VcsSupplier<GitProperty[]> loader) throws IOException, SVNException {
+    return get(new PropertyKey(null, treeId.copy()), loader);
+  }
+
+  /**
+   * Get properties of property file.
+   *
+   * @param fileName Property file name.
+   * @param blobId   Property file content id.
+   * @param loader   Properties loader.
+   */
+  @NotNull
+  GitProperty[] getFile(@NotNull String fileName, @NotNull ObjectId blobId, @NotNull VcsSupplier<GitProperty[]> loader) throws IOException, SVNException {
+    return get(new PropertyKey(fileName, blobId.copy()), loader);
+  }
+
+  @NotNull
+  private GitProperty[] get(@NotNull PropertyKey key, @NotNull VcsSupplier<GitProperty[]> loader) throws IOException, SVNException {
+    try {
+      return cache.get(key, () -> {
+        final Properties result = intern(loader.get());
+        estimatedBytes.addAndGet(weight(result));
+        return result;
+      }).props;
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof SVNException) {
+        throw (SVNException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @NotNull
+  private Properties intern(@NotNull GitProperty[] props) {
+    return props.length == 0 ? empty : interner.intern(new Properties(props));
+  }
+
+  private static int weight(@Nullable Properties value) {
+    return value == null ? 0 : ENTRY_SIZE + value.props.length * (REFERENCE_SIZE + PROPERTY_SIZE);
+  }
+
+  public long getEntryCount() {
+    return cache.size();
+  }
+
+  /**
+   * @return Estimated memory usage of cached properties in bytes.
+   */
+  public long getEstimatedBytes() {
+    return estimatedBytes.get();
+  }
+
+  @NotNull
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  @Override
+  public void close() {
+    final CacheStats stats = cache.stats();
+    log.info("Property cache: {} entries, ~{} bytes, {} hits, {} misses ({}% hit rate)", getEntryCount(), getEstimatedBytes(), stats.hitCount(), stats.missCount(), Math.round(stats.hitRate() * 100));
+  }
+
+  private static final class PropertyKey {
+    // Property file name or null for directory.
+    @Nullable
+    private final String fileName;
+    @NotNull
+    private final ObjectId objectId;
+
+    private PropertyKey(@Nullable String fileName, @NotNull ObjectId objectId) {
+      this.fileName = fileName;
+      this.objectId = objectId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final PropertyKey other = (PropertyKey) o;
+      return Objects.equals(fileName, other.fileName) && objectId.equals(other.objectId);
+    }
+
+    @Override
+    public int hashCode() {
+      return objectId.hashCode() * 31 + Objects.hashCode(fileName);
+    }
+  }
+
+  private static final class Properties {
+    @NotNull
+    private final GitProperty[] props;
+    private final int hash;
+
+    private Properties(@NotNull GitProperty[] props) {
+      this.props = props;
+      this.hash = Arrays.hashCode(props);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final Properties other = (Properties) o;
+      return hash == other.hash && Arrays.equals(props, other.props);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
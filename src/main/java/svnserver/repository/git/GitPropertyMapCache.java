@@ -0,0 +1,138 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.eclipse.jgit.lib.FileMode;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.context.Shared;
+import svnserver.repository.VcsSupplier;
+import svnserver.repository.git.prop.GitProperty;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bounded cache of effective file properties.
+ * <p>
+ * File properties depend only on inherited properties of parent directory, file name, file mode and binary flag.
+ * Parent properties are compared by identity: same directory instance is used for all its files. Equal property
+ * maps are interned, so files with same attributes share one immutable map.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class GitPropertyMapCache implements Shared {
+  public static final long DEFAULT_SIZE = 100000;
+
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(GitPropertyMapCache.class);
+  @NotNull
+  private final Cache<MapKey, Map<String, String>> cache;
+  @NotNull
+  private final Interner<Map<String, String>> interner = Interners.newWeakInterner();
+
+  public GitPropertyMapCache() {
+    this(DEFAULT_SIZE);
+  }
+
+  public GitPropertyMapCache(long maximumSize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Get effective file properties.
+   *
+   * @param parentProps Inherited properties of parent directory.
+   * @param fileName    File name.
+   * @param fileMode    File mode.
+   * @param binary      Binary file flag.
+   * @param loader      Properties loader.
+   * @return Immutable properties map.
+   */
+  @NotNull
+  Map<String, String> get(@NotNull GitProperty[] parentProps, @NotNull String fileName, @NotNull FileMode fileMode, boolean binary, @NotNull VcsSupplier<Map<String, String>> loader) throws IOException, SVNException {
+    try {
+      return cache.get(new MapKey(parentProps, fileName, fileMode.getBits(), binary), () -> {
+        final Map<String, String> props = loader.get();
+        return props.isEmpty() ? Collections.emptyMap() : interner.intern(Collections.unmodifiableMap(props));
+      });
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof SVNException) {
+        throw (SVNException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @NotNull
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  @Override
+  public void close() {
+    final CacheStats stats = cache.stats();
+    log.info("Property map cache: {} hits, {} misses ({}% hit rate)", stats.hitCount(), stats.missCount(), Math.round(stats.hitRate() * 100));
+  }
+
+  private static final class MapKey {
+    @NotNull
+    private final GitProperty[] parentProps;
+    @NotNull
+    private final String fileName;
+    private final int fileMode;
+    private final boolean binary;
+
+    private MapKey(@NotNull GitProperty[] parentProps, @NotNull String fileName, int fileMode, boolean binary) {
+      this.parentProps = parentProps;
+      this.fileName = fileName;
+      this.fileMode = fileMode;
+      this.binary = binary;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final MapKey other = (MapKey) o;
+      return parentProps == other.parentProps
+          && fileMode == other.fileMode
+          && binary == other.binary
+          && fileName.equals(other.fileName);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = System.identityHashCode(parentProps);
+      result = 31 * result + fileName.hashCode();
+      result = 31 * result + fileMode;
+      result = 31 * result + (binary ? 1 : 0);
+      return result;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import svnserver.context.Shared;
+import svnserver.context.SharedContext;
+
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Background branch watcher.
+ * <p>
+ * Periodically checks registered repositories and indexes new revisions when branch is moved, so client
+ * connections can use loaded revisions without updating them.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class GitRefWatcher implements Shared {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(GitRefWatcher.class);
+  @NotNull
+  private final Set<GitRepository> repositories = new CopyOnWriteArraySet<>();
+  @NotNull
+  private final ScheduledExecutorService executor;
+  private final long intervalMs;
+
+  public GitRefWatcher(long intervalMs) {
+    this.intervalMs = intervalMs;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "GitRefWatcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @Override
+  public void ready(@NotNull SharedContext context) {
+    executor.scheduleWithFixedDelay(this::check, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  void register(@NotNull GitRepository repository) {
+    repositories.add(repository);
+  }
+
+  void unregister(@NotNull GitRepository repository) {
+    repositories.remove(repository);
+  }
+
+  private void check() {
+    for (GitRepository repository : repositories) {
+      try {
+        repository.updateRevisions();
+      } catch (Throwable e) {
+        log.warn("[{}]: can't update revisions", repository.getContext().getName(), e);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    executor.shutdownNow();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+  }
+}
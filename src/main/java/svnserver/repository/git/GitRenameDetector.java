@@ -0,0 +1,296 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.SimilarityIndex;
+import org.eclipse.jgit.lib.*;
+import org.eclipse.jgit.storage.pack.PackConfig;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import svnserver.StringHelper;
+import svnserver.context.Shared;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Bounded file rename detection.
+ * <p>
+ * Files with equal content are matched by object id first. Remaining added and deleted files are compared by content
+ * only while candidate pair count is under limit. Content comparison runs on {@link GitIndexingPool} (when available)
+ * and is aborted by timeout: in this case only renames with equal content are reported. Files larger than big file
+ * threshold are never compared by content.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class GitRenameDetector implements Shared {
+  public static final int DEFAULT_CANDIDATE_LIMIT = 400 * 400;
+  public static final long DEFAULT_TIMEOUT = 30 * 1000;
+  public static final long DEFAULT_BIG_FILE_THRESHOLD = PackConfig.DEFAULT_BIG_FILE_THRESHOLD;
+  // Minimal content similarity score (in percents) for rename.
+  private static final int RENAME_SCORE = 60;
+  private static final int SCORE_CACHE_SIZE = 100000;
+
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(GitRenameDetector.class);
+  @NotNull
+  private final Cache<BlobPair, Integer> scoreCache = CacheBuilder.newBuilder()
+      .maximumSize(SCORE_CACHE_SIZE)
+      .recordStats()
+      .build();
+  private final int candidateLimit;
+  private final long timeout;
+  private final long bigFileThreshold;
+
+  public GitRenameDetector() {
+    this(DEFAULT_CANDIDATE_LIMIT, DEFAULT_TIMEOUT, DEFAULT_BIG_FILE_THRESHOLD);
+  }
+
+  /**
+   * @param candidateLimit   Maximum count of added and deleted file pairs for content comparison (0 - disable content comparison).
+   * @param timeout          Content comparison timeout in milliseconds.
+   * @param bigFileThreshold Maximum file size in bytes for content comparison.
+   */
+  public GitRenameDetector(int candidateLimit, long timeout, long bigFileThreshold) {
+    this.candidateLimit = candidateLimit;
+    this.timeout = timeout;
+    this.bigFileThreshold = bigFileThreshold;
+  }
+
+  /**
+   * Detect renamed files.
+   *
+   * @param repository   Repository.
+   * @param oldTree      Old tree.
+   * @param newTree      New tree.
+   * @param indexingPool Pool for content comparison (null - compare on current thread).
+   * @param name         Repository name for logging.
+   * @return Map of new file path to old file path.
+   */
+  @NotNull
+  public Map<String, String> detectRenames(@NotNull Repository repository, @NotNull ObjectId oldTree, @NotNull ObjectId newTree, @Nullable GitIndexingPool indexingPool, @NotNull String name) throws IOException {
+    final List<DiffEntry> added = new ArrayList<>();
+    final List<DiffEntry> deleted = new ArrayList<>();
+    try (TreeWalk tw = new TreeWalk(repository)) {
+      tw.setRecursive(true);
+      tw.addTree(oldTree);
+      tw.addTree(newTree);
+      for (DiffEntry entry : DiffEntry.scan(tw)) {
+        if (entry.getChangeType() == DiffEntry.ChangeType.ADD) {
+          added.add(entry);
+        } else if (entry.getChangeType() == DiffEntry.ChangeType.DELETE) {
+          deleted.add(entry);
+        }
+      }
+    }
+    if (added.isEmpty() || deleted.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    // Exact renames.
+    final Map<ObjectId, DiffEntry> deletedById = new HashMap<>();
+    for (DiffEntry entry : deleted) {
+      deletedById.putIfAbsent(entry.getOldId().toObjectId(), entry);
+    }
+    final Map<String, String> result = new HashMap<>();
+    final Set<DiffEntry> matched = new HashSet<>();
+    final List<DiffEntry> addedLeft = new ArrayList<>();
+    for (DiffEntry entry : added) {
+      final DiffEntry source = deletedById.get(entry.getNewId().toObjectId());
+      if (source != null && sameType(source.getOldMode(), entry.getNewMode())) {
+        result.put(StringHelper.normalize(entry.getNewPath()), StringHelper.normalize(source.getOldPath()));
+        matched.add(source);
+      } else if (isFile(entry.getNewMode())) {
+        addedLeft.add(entry);
+      }
+    }
+    final List<DiffEntry> deletedLeft = new ArrayList<>();
+    for (DiffEntry entry : deleted) {
+      if (!matched.contains(entry) && isFile(entry.getOldMode())) {
+        deletedLeft.add(entry);
+      }
+    }
+    if (addedLeft.isEmpty() || deletedLeft.isEmpty()) {
+      return result;
+    }
+    final long candidates = (long) addedLeft.size() * deletedLeft.size();
+    if (candidates > candidateLimit) {
+      log.info("[{}]: too many rename candidates ({} added, {} deleted files), content rename detection skipped", name, addedLeft.size(), deletedLeft.size());
+      return result;
+    }
+
+    // Content renames.
+    final long deadline = System.currentTimeMillis() + timeout;
+    final AtomicBoolean timedOut = new AtomicBoolean(false);
+    final ContentSource source = new ContentSource(repository);
+    final DiffEntry[] sources = new DiffEntry[addedLeft.size()];
+    final IntConsumer compare = index -> {
+      final DiffEntry entry = addedLeft.get(index);
+      int bestScore = RENAME_SCORE - 1;
+      for (DiffEntry candidate : deletedLeft) {
+        if (timedOut.get() || System.currentTimeMillis() >= deadline) {
+          timedOut.set(true);
+          return;
+        }
+        final int score = score(source, candidate.getOldId().toObjectId(), entry.getNewId().toObjectId());
+        if (score > bestScore) {
+          bestScore = score;
+          sources[index] = candidate;
+        }
+      }
+    };
+    try {
+      if (indexingPool != null) {
+        indexingPool.getPool().submit(() -> IntStream.range(0, sources.length).parallel().forEach(compare)).get();
+      } else {
+        IntStream.range(0, sources.length).forEach(compare);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return result;
+    } catch (ExecutionException | RejectedExecutionException e) {
+      log.warn("[{}]: content rename detection failed", name, e);
+      return result;
+    }
+    if (timedOut.get()) {
+      log.warn("[{}]: content rename detection timed out ({} added, {} deleted files), only exact renames recorded", name, addedLeft.size(), deletedLeft.size());
+      return result;
+    }
+    for (int i = 0; i < sources.length; ++i) {
+      if (sources[i] != null) {
+        result.put(StringHelper.normalize(addedLeft.get(i).getNewPath()), StringHelper.normalize(sources[i].getOldPath()));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Content similarity score.
+   *
+   * @return Score in percents.
+   */
+  private int score(@NotNull ContentSource source, @NotNull ObjectId oldId, @NotNull ObjectId newId) {
+    final BlobPair key = new BlobPair(oldId, newId);
+    final Integer cached = scoreCache.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    final int score;
+    final long oldSize = source.getSize(oldId);
+    final long newSize = source.getSize(newId);
+    if (oldSize < 0 || newSize < 0) {
+      score = 0;
+    } else if (Math.max(oldSize, newSize) > bigFileThreshold) {
+      // Similarity index of big file takes too much time and memory.
+      score = 0;
+    } else if (Math.min(oldSize, newSize) * 100 < Math.max(oldSize, newSize) * RENAME_SCORE) {
+      // Size difference is too big.
+      score = 0;
+    } else {
+      final SimilarityIndex oldIndex = source.getIndex(oldId);
+      final SimilarityIndex newIndex = source.getIndex(newId);
+      score = oldIndex == null || newIndex == null ? 0 : oldIndex.score(newIndex, 100);
+    }
+    scoreCache.put(key, score);
+    return score;
+  }
+
+  private static boolean sameType(@NotNull FileMode a, @NotNull FileMode b) {
+    return (a.getBits() & FileMode.TYPE_MASK) == (b.getBits() & FileMode.TYPE_MASK);
+  }
+
+  private static boolean isFile(@NotNull FileMode mode) {
+    return (mode.getBits() & FileMode.TYPE_MASK) == FileMode.TYPE_FILE;
+  }
+
+  @NotNull
+  public CacheStats getStats() {
+    return scoreCache.stats();
+  }
+
+  /**
+   * Blob sizes and similarity indexes, shared between comparisons of single commit.
+   */
+  private static final class ContentSource {
+    @NotNull
+    private final Repository repository;
+    @NotNull
+    private final Map<ObjectId, Long> sizes = new ConcurrentHashMap<>();
+    @NotNull
+    private final Map<ObjectId, Optional<SimilarityIndex>> indexes = new ConcurrentHashMap<>();
+
+    private ContentSource(@NotNull Repository repository) {
+      this.repository = repository;
+    }
+
+    private long getSize(@NotNull ObjectId objectId) {
+      return sizes.computeIfAbsent(objectId, id -> {
+        try (ObjectReader reader = repository.newObjectReader()) {
+          return reader.getObjectSize(id, Constants.OBJ_BLOB);
+        } catch (IOException e) {
+          return -1L;
+        }
+      });
+    }
+
+    @Nullable
+    private SimilarityIndex getIndex(@NotNull ObjectId objectId) {
+      return indexes.computeIfAbsent(objectId, id -> {
+        try (ObjectReader reader = repository.newObjectReader()) {
+          return Optional.of(SimilarityIndex.create(reader.open(id, Constants.OBJ_BLOB)));
+        } catch (IOException | SimilarityIndex.TableFullException e) {
+          return Optional.empty();
+        }
+      }).orElse(null);
+    }
+  }
+
+  private static final class BlobPair {
+    @NotNull
+    private final ObjectId oldId;
+    @NotNull
+    private final ObjectId newId;
+
+    private BlobPair(@NotNull ObjectId oldId, @NotNull ObjectId newId) {
+      this.oldId = oldId;
+      this.newId = newId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final BlobPair other = (BlobPair) o;
+      return oldId.equals(other.oldId) && newId.equals(other.newId);
+    }
+
+    @Override
+    public int hashCode() {
+      return oldId.hashCode() * 31 + newId.hashCode();
+    }
+  }
+
+  @Override
+  public void close() {
+    final CacheStats stats = scoreCache.stats();
+    log.info("Rename score cache: {} hits, {} misses ({}% hit rate)", stats.hitCount(), stats.missCount(), Math.round(stats.hitRate() * 100));
+  }
+}
@@ -8,17 +8,14 @@
 package svnserver.repository.git;
 
 import com.sun.nio.sctp.InvalidStreamException;
-import org.eclipse.jgit.diff.DiffEntry;
-import org.eclipse.jgit.diff.RenameDetector;
 import org.eclipse.jgit.lib.*;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
-import org.eclipse.jgit.treewalk.TreeWalk;
-import org.eclipse.jgit.util.IntList;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.mapdb.DB;
 import org.mapdb.HTreeMap;
 import org.mapdb.Serializer;
 import org.slf4j.Logger;
@@ -26,8 +23,6 @@ import org.slf4j.LoggerFactory;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
-import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
-import svnserver.StringHelper;
 import svnserver.auth.User;
 import svnserver.context.LocalContext;
 import svnserver.context.SharedContext;
@@ -48,13 +43,18 @@ import svnserver.repository.locks.LockManagerWrite;
 import svnserver.repository.locks.LockWorker;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
 import java.util.function.BiFunction;
+import java.util.stream.IntStream;
 
 /**
  * Implementation for Git repository.
@@ -63,7 +63,10 @@ import java.util.function.BiFunction;
  */
 public class GitRepository implements VcsRepository {
   private static final int REPORT_DELAY = 2500;
-  private static final int MARK_NO_FILE = -1;
+  // Save revision index snapshot after this count of new revisions.
+  private static final int SNAPSHOT_INTERVAL = 1000;
+  // Minimal count of new revisions for parallel revision changes computation.
+  private static final int PARALLEL_INDEXING_THRESHOLD = 16;
 
   @NotNull
   private static final Logger log = LoggerFactory.getLogger(GitRepository.class);
@@ -75,16 +78,25 @@ public class GitRepository implements VcsRepository {
   private final Repository repository;
   @NotNull
   private final GitPusher pusher;
+  // Published revision list: read without locking.
   @NotNull
-  private final List<GitRevision> revisions = new ArrayList<>();
+  private volatile GitRevisionList revisions = GitRevisionList.empty;
+  // Loaded, but not published yet revisions.
   @NotNull
-  private final TreeMap<Long, GitRevision> revisionByDate = new TreeMap<>();
+  private final List<GitRevision> unpublished = new ArrayList<>();
+  // Append-only: contains only revisions from published or unpublished lists.
   @NotNull
-  private final TreeMap<ObjectId, GitRevision> revisionByHash = new TreeMap<>();
+  private final Map<ObjectId, GitRevision> revisionByHash = new ConcurrentHashMap<>();
   @NotNull
-  private final Map<String, IntList> lastUpdates = new ConcurrentHashMap<>();
+  private PathHistoryIndex pathHistory = new PathHistoryIndex();
+  // Guards path history: readers use optimistic read.
   @NotNull
-  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final StampedLock historyLock = new StampedLock();
+  // Revision count in last saved or loaded index snapshot.
+  private int snapshotRevisions = 0;
+  // Lock for revision list writers.
+  @NotNull
+  private final Lock lock = new ReentrantLock();
   // Lock for prevent concurrent pushes.
   @NotNull
   private final Object pushLock = new Object();
@@ -97,15 +109,23 @@ public class GitRepository implements VcsRepository {
   @NotNull
   private final LocalContext context;
   @NotNull
-  private final HTreeMap<String, Boolean> binaryCache;
-  @NotNull
   private final HTreeMap<String, byte[]> revisionCache;
   @NotNull
+  private final HTreeMap<String, byte[]> indexCache;
+  @NotNull
   private final Map<String, GitFilter> gitFilters;
   @NotNull
-  private final Map<ObjectId, GitProperty[]> directoryPropertyCache = new ConcurrentHashMap<>();
+  private final GitCommitCache commitCache;
+  @NotNull
+  private final GitTreeCache treeCache;
+  @NotNull
+  private final GitFileCache fileCache;
+  @NotNull
+  private final GitRenameDetector renameDetector;
   @NotNull
-  private final Map<ObjectId, GitProperty[]> filePropertyCache = new ConcurrentHashMap<>();
+  private final GitPropertyCache propertyCache;
+  @NotNull
+  private final GitPropertyMapCache propertyMapCache;
   private final boolean renameDetection;
 
   public GitRepository(@NotNull LocalContext context,
@@ -117,9 +137,16 @@ public class GitRepository implements VcsRepository {
     this.context = context;
     final SharedContext shared = context.getShared();
     shared.getOrCreate(GitSubmodules.class, GitSubmodules::new).register(repository);
+    this.commitCache = shared.getOrCreate(GitCommitCache.class, GitCommitCache::new);
+    this.treeCache = shared.getOrCreate(GitTreeCache.class, GitTreeCache::new);
+    this.fileCache = shared.getOrCreate(GitFileCache.class, GitFileCache::new);
+    this.propertyCache = shared.getOrCreate(GitPropertyCache.class, GitPropertyCache::new);
+    this.propertyMapCache = shared.getOrCreate(GitPropertyMapCache.class, GitPropertyMapCache::new);
+    this.renameDetector = shared.getOrCreate(GitRenameDetector.class, GitRenameDetector::new);
     this.repository = repository;
-    this.binaryCache = shared.getCacheDB().hashMap("cache.binary", Serializer.STRING, Serializer.BOOLEAN).createOrOpen();
-    this.revisionCache = context.getShared().getCacheDB().hashMap(String.format("cache-revision.%s.%s", context.getName(), renameDetection ? "1" : "0"), Serializer.STRING, Serializer.BYTE_ARRAY).createOrOpen();
+    this.revisionCache = context.getShared().getCacheDB().hashMap(String.format("cache-revision-v2.%s.%s", context.getName(), renameDetection ? "1" : "0"), Serializer.STRING, Serializer.BYTE_ARRAY).createOrOpen();
+    migrateRevisionCache(shared.getCacheDB(), String.format("cache-revision.%s.%s", context.getName(), renameDetection ? "1" : "0"));
+    this.indexCache = context.getShared().getCacheDB().hashMap(String.format("cache-index.%s.%s", context.getName(), renameDetection ? "1" : "0"), Serializer.STRING, Serializer.BYTE_ARRAY).createOrOpen();
     this.pusher = pusher;
     this.renameDetection = renameDetection;
     this.lockManagerFactory = lockManagerFactory;
@@ -130,6 +157,11 @@ public class GitRepository implements VcsRepository {
     final String repositoryId = loadRepositoryId(repository, svnBranch);
     this.uuid = UUID.nameUUIDFromBytes((repositoryId + "\0" + gitBranch).getBytes(StandardCharsets.UTF_8)).toString();
 
+    final GitRefWatcher refWatcher = shared.get(GitRefWatcher.class);
+    if (refWatcher != null) {
+      refWatcher.register(this);
+    }
+
     log.info("[{}]: registered branch: {}", context.getName(), gitBranch);
   }
 
@@ -141,7 +173,47 @@ public class GitRepository implements VcsRepository {
 
   @Override
   public void close() {
+    final GitRefWatcher refWatcher = context.getShared().get(GitRefWatcher.class);
+    if (refWatcher != null) {
+      refWatcher.unregister(this);
+    }
+    lock.lock();
+    try {
+      if (revisions.size() > snapshotRevisions) {
+        saveSnapshot();
+      }
+    } finally {
+      lock.unlock();
+    }
     context.getShared().sure(GitSubmodules.class).unregister(repository);
+    fileCache.invalidate(this);
+  }
+
+  /**
+   * Convert revision cache entries from legacy Kryo format.
+   * <p>
+   * Legacy map is cleared after conversion, so conversion is done only once.
+   */
+  private void migrateRevisionCache(@NotNull DB db, @NotNull String legacyName) throws IOException {
+    if (!db.exists(legacyName)) {
+      return;
+    }
+    final HTreeMap<String, byte[]> legacyCache = db.hashMap(legacyName, Serializer.STRING, Serializer.BYTE_ARRAY).createOrOpen();
+    if (legacyCache.isEmpty()) {
+      return;
+    }
+    final long beginTime = System.currentTimeMillis();
+    int migrated = 0;
+    for (Map.Entry<String, byte[]> entry : legacyCache.getEntries()) {
+      final CacheRevision cacheRevision = CacheRevision.deserializeLegacy(entry.getValue());
+      if (cacheRevision != null) {
+        revisionCache.putIfAbsent(entry.getKey(), CacheRevision.serialize(cacheRevision));
+        migrated++;
+      }
+    }
+    legacyCache.clear();
+    db.commit();
+    log.info("[{}]: {} cached revisions converted to binary format: {} ms", context.getName(), migrated, System.currentTimeMillis() - beginTime);
   }
 
   @NotNull
@@ -170,31 +242,31 @@ public class GitRepository implements VcsRepository {
    */
   private void loadRevisions() throws IOException, SVNException {
     // Fast check.
-    lock.readLock().lock();
-    try {
-      final int lastRevision = revisions.size() - 1;
-      final ObjectId lastCommitId;
-      if (lastRevision >= 0) {
-        lastCommitId = revisions.get(lastRevision).getCacheCommit();
-        final Ref head = repository.getRef(svnBranch);
-        if (head.getObjectId().equals(lastCommitId)) {
-          return;
-        }
+    final GitRevisionList published = revisions;
+    if (!published.isEmpty()) {
+      final Ref head = repository.getRef(svnBranch);
+      if (head.getObjectId().equals(published.getLast().getCacheCommit())) {
+        return;
       }
-    } finally {
-      lock.readLock().unlock();
     }
     // Real loading.
-    lock.writeLock().lock();
+    lock.lock();
     try {
-      final int lastRevision = revisions.size() - 1;
-      final ObjectId lastCommitId = lastRevision < 0 ? null : revisions.get(lastRevision).getCacheCommit();
+      final RevisionIndexSnapshot snapshot = revisions.isEmpty() ? RevisionIndexSnapshot.deserialize(indexCache.get(svnBranch)) : null;
+      final ObjectId lastCommitId;
+      if (snapshot != null) {
+        lastCommitId = snapshot.getLastCacheCommit();
+      } else {
+        lastCommitId = revisions.isEmpty() ? null : revisions.getLast().getCacheCommit();
+      }
       final Ref head = repository.getRef(svnBranch);
       final List<RevCommit> newRevs = new ArrayList<>();
       final RevWalk revWalk = new RevWalk(repository);
       ObjectId objectId = head.getObjectId();
+      boolean found = false;
       while (true) {
         if (objectId.equals(lastCommitId)) {
+          found = true;
           break;
         }
         final RevCommit commit = revWalk.parseCommit(objectId);
@@ -202,27 +274,172 @@ public class GitRepository implements VcsRepository {
         if (commit.getParentCount() == 0) break;
         objectId = commit.getParent(0);
       }
+      if (snapshot != null) {
+        if (!found) {
+          log.warn("[{}]: revision index snapshot doesn't match cache branch, ignoring it", context.getName());
+        } else if (!loadSnapshot(snapshot)) {
+          // Snapshot is broken and removed: load revisions from scratch.
+          loadRevisions();
+          return;
+        }
+      }
       if (newRevs.isEmpty()) {
         return;
       }
+      final GitIndexingPool indexingPool = context.getShared().get(GitIndexingPool.class);
+      if (indexingPool != null && newRevs.size() >= PARALLEL_INDEXING_THRESHOLD) {
+        prepareCacheRevisions(indexingPool, newRevs);
+      }
       final long beginTime = System.currentTimeMillis();
       int processed = 0;
       long reportTime = beginTime;
       log.info("[{}]: loading cached revision changes: {} revisions", context.getName(), newRevs.size());
-      for (int i = newRevs.size() - 1; i >= 0; i--) {
-        loadRevisionInfo(newRevs.get(i));
-        processed++;
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - reportTime > REPORT_DELAY) {
-          log.info("[{}]: processed cached revision: {}/{} ({} rev/sec)", context.getName(), newRevs.size() - i, newRevs.size(), 1000.0f * processed / (currentTime - reportTime));
-          reportTime = currentTime;
-          processed = 0;
+      try {
+        for (int i = newRevs.size() - 1; i >= 0; i--) {
+          loadRevisionInfo(newRevs.get(i));
+          processed++;
+          long currentTime = System.currentTimeMillis();
+          if (currentTime - reportTime > REPORT_DELAY) {
+            log.info("[{}]: processed cached revision: {}/{} ({} rev/sec)", context.getName(), newRevs.size() - i, newRevs.size(), 1000.0f * processed / (currentTime - reportTime));
+            reportTime = currentTime;
+            processed = 0;
+          }
         }
+      } finally {
+        publishRevisions();
       }
       final long endTime = System.currentTimeMillis();
       log.info("[{}]: {} cached revision loaded: {} ms", context.getName(), newRevs.size(), endTime - beginTime);
+      log.info("[{}]: path history index: {} paths, {} changes, {} KB", context.getName(), pathHistory.getNodeCount(), pathHistory.getChangeCount(), pathHistory.getMemoryUsage() / 1024);
+      final int pending = revisions.size() - snapshotRevisions;
+      if (pending >= SNAPSHOT_INTERVAL || pending * 10 >= revisions.size()) {
+        saveSnapshot();
+      }
     } finally {
-      lock.writeLock().unlock();
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Make loaded revisions visible for readers.
+   * <p>
+   * Called under lock.
+   */
+  private void publishRevisions() {
+    revisions = revisions.append(unpublished);
+    unpublished.clear();
+  }
+
+  /**
+   * Get last loaded revision, including unpublished ones.
+   * <p>
+   * Called under lock.
+   */
+  @Nullable
+  private GitRevision getLastLoadedRevision() {
+    if (!unpublished.isEmpty()) {
+      return unpublished.get(unpublished.size() - 1);
+    }
+    return revisions.isEmpty() ? null : revisions.getLast();
+  }
+
+  /**
+   * Compute missing revision changes concurrently.
+   * <p>
+   * Tree diffs of different commits are independent, so they are computed on fork/join pool and stored in
+   * revision cache. Revisions are still applied sequentially by {@link #loadRevisionInfo(RevCommit)}, which also
+   * recomputes changes failed here.
+   *
+   * @param indexingPool Indexing pool.
+   * @param newRevs      New cache commits (newest first).
+   */
+  private void prepareCacheRevisions(@NotNull GitIndexingPool indexingPool, @NotNull List<RevCommit> newRevs) {
+    final int firstRevision = revisions.size();
+    final long beginTime = System.currentTimeMillis();
+    final AtomicInteger computed = new AtomicInteger();
+    final AtomicInteger processed = new AtomicInteger();
+    final AtomicLong reportTime = new AtomicLong(beginTime);
+    log.info("[{}]: computing revision changes in parallel: {} revisions", context.getName(), newRevs.size());
+    try {
+      indexingPool.getPool().submit(() -> IntStream.range(0, newRevs.size()).parallel().forEach(i -> {
+        final RevCommit commit = newRevs.get(i);
+        if (!revisionCache.containsKey(commit.name())) {
+          try (ObjectReader reader = repository.newObjectReader()) {
+            loadCacheRevision(reader, commit, firstRevision + newRevs.size() - 1 - i);
+            computed.incrementAndGet();
+          } catch (IOException | SVNException | RuntimeException e) {
+            log.warn("[{}]: can't compute revision changes for commit {}", context.getName(), commit.name(), e);
+          }
+        }
+        final int count = processed.incrementAndGet();
+        final long lastReport = reportTime.get();
+        final long currentTime = System.currentTimeMillis();
+        if (currentTime - lastReport > REPORT_DELAY && reportTime.compareAndSet(lastReport, currentTime)) {
+          log.info("[{}]: computed revision changes: {}/{} ({} rev/sec)", context.getName(), count, newRevs.size(), 1000.0f * count / (currentTime - beginTime));
+        }
+      })).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | RejectedExecutionException e) {
+      log.warn("[{}]: parallel revision changes computation failed", context.getName(), e);
+    }
+    final long time = Math.max(System.currentTimeMillis() - beginTime, 1);
+    log.info("[{}]: {} revision changes computed: {} ms ({} rev/sec)", context.getName(), computed.get(), time, 1000.0f * computed.get() / time);
+  }
+
+  /**
+   * Restore revision index from snapshot.
+   * <p>
+   * Called with empty revision list under lock.
+   *
+   * @return false, if snapshot can't be used and was removed.
+   */
+  private boolean loadSnapshot(@NotNull RevisionIndexSnapshot snapshot) {
+    final long beginTime = System.currentTimeMillis();
+    final List<RevisionIndexSnapshot.Entry> entries = snapshot.getEntries();
+    // Commit bodies are loaded lazily: check only the latest commit.
+    final ObjectId lastCommit = entries.get(entries.size() - 1).getSvnCommit();
+    if (lastCommit != null && !repository.hasObject(lastCommit)) {
+      log.warn("[{}]: revision index snapshot refers to missing commit {}, ignoring it", context.getName(), lastCommit.name());
+      indexCache.remove(svnBranch);
+      return false;
+    }
+    ObjectId oldCommit = null;
+    for (int revisionId = 0; revisionId < entries.size(); ++revisionId) {
+      final RevisionIndexSnapshot.Entry entry = entries.get(revisionId);
+      final Map<String, VcsCopyFrom> copyFroms = new HashMap<>();
+      for (Map.Entry<String, String> rename : entry.getRenames().entrySet()) {
+        copyFroms.put(rename.getKey(), new VcsCopyFrom(revisionId - 1, rename.getValue()));
+      }
+      addRevision(new GitRevision(this, entry.getCacheCommit(), revisionId, copyFroms, oldCommit, entry.getSvnCommit(), entry.getCommitTime()));
+      oldCommit = entry.getSvnCommit();
+    }
+    final long stamp = historyLock.writeLock();
+    try {
+      pathHistory = snapshot.getPathHistory();
+    } finally {
+      historyLock.unlockWrite(stamp);
+    }
+    publishRevisions();
+    snapshotRevisions = revisions.size();
+    log.info("[{}]: revision index snapshot loaded: {} revisions, {} ms", context.getName(), snapshotRevisions, System.currentTimeMillis() - beginTime);
+    return true;
+  }
+
+  /**
+   * Save revision index snapshot.
+   * <p>
+   * Called under lock.
+   */
+  private void saveSnapshot() {
+    if (revisions.isEmpty()) {
+      return;
+    }
+    try {
+      indexCache.put(svnBranch, RevisionIndexSnapshot.serialize(revisions.asList(), pathHistory));
+      snapshotRevisions = revisions.size();
+    } catch (IOException e) {
+      log.warn("[{}]: can't save revision index snapshot", context.getName(), e);
     }
   }
 
@@ -251,22 +468,17 @@ public class GitRepository implements VcsRepository {
    */
   public boolean cacheRevisions() throws IOException {
     // Fast check.
-    lock.readLock().lock();
-    try {
-      final int lastRevision = revisions.size() - 1;
-      if (lastRevision >= 0) {
-        final ObjectId lastCommitId = revisions.get(lastRevision).getGitNewCommit();
-        final Ref master = repository.getRef(gitBranch);
-        if ((master == null) || (master.getObjectId().equals(lastCommitId))) {
-          return false;
-        }
+    final GitRevisionList published = revisions;
+    if (!published.isEmpty()) {
+      final ObjectId lastCommitId = published.getLast().getGitNewCommitId();
+      final Ref master = repository.getRef(gitBranch);
+      if ((master == null) || (master.getObjectId().equals(lastCommitId))) {
+        return false;
       }
-    } finally {
-      lock.readLock().unlock();
     }
     // Real update.
     final ObjectInserter inserter = repository.newObjectInserter();
-    lock.writeLock().lock();
+    lock.lock();
     try {
       final Ref master = repository.getRef(gitBranch);
       final List<RevCommit> newRevs = new ArrayList<>();
@@ -287,7 +499,7 @@ public class GitRepository implements VcsRepository {
         long reportTime = beginTime;
         log.info("[{}]: Loading revision changes: {} revision", context.getName(), newRevs.size());
         int revisionId = revisions.size();
-        ObjectId cacheId = revisions.get(revisions.size() - 1).getCacheCommit();
+        ObjectId cacheId = revisions.getLast().getCacheCommit();
         for (int i = newRevs.size() - 1; i >= 0; i--) {
           final RevCommit revCommit = newRevs.get(i);
           cacheId = LayoutHelper.createCacheCommit(inserter, cacheId, revCommit, revisionId, Collections.emptyMap());
@@ -315,7 +527,7 @@ public class GitRepository implements VcsRepository {
       }
       return !newRevs.isEmpty();
     } finally {
-      lock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
@@ -342,6 +554,17 @@ public class GitRepository implements VcsRepository {
     return result;
   }
 
+  /**
+   * Get cached revision information without indexing.
+   *
+   * @param cacheCommit Cache commit id.
+   * @return Revision cache or null, if it is absent.
+   */
+  @Nullable
+  CacheRevision getCachedRevision(@NotNull ObjectId cacheCommit) {
+    return CacheRevision.deserialize(revisionCache.get(cacheCommit.name()));
+  }
+
   @NotNull
   private GitFile getSubversionTree(@NotNull ObjectReader reader, @Nullable RevCommit commit, int revisionId) throws IOException, SVNException {
     final RevCommit revCommit = LayoutHelper.loadOriginalCommit(reader, commit);
@@ -351,8 +574,31 @@ public class GitRepository implements VcsRepository {
     return GitFileTreeEntry.create(this, revCommit.getTree(), revisionId);
   }
 
+  /**
+   * Check, if loaded revisions match current branch state.
+   *
+   * @return false, if branch is moved and revisions should be updated.
+   */
+  boolean isUpToDate() throws IOException {
+    final GitRevisionList published = revisions;
+    if (published.isEmpty()) {
+      return false;
+    }
+    final GitRevision last = published.getLast();
+    final Ref head = repository.getRef(svnBranch);
+    if (head == null || !head.getObjectId().equals(last.getCacheCommit())) {
+      return false;
+    }
+    final Ref master = repository.getRef(gitBranch);
+    return master == null || master.getObjectId().equals(last.getGitNewCommitId());
+  }
+
   @Override
   public void updateRevisions() throws IOException, SVNException {
+    // Nothing changed: skip locks validation and cache commit.
+    if (isUpToDate()) {
+      return;
+    }
     while (true) {
       loadRevisions();
       if (!cacheRevisions()) {
@@ -372,34 +618,32 @@ public class GitRepository implements VcsRepository {
 
   private void loadRevisionInfo(@NotNull RevCommit commit) throws IOException, SVNException {
     final ObjectReader reader = repository.newObjectReader();
-    final CacheRevision cacheRevision = loadCacheRevision(reader, commit, revisions.size());
-    final int revisionId = revisions.size();
+    final int revisionId = revisions.size() + unpublished.size();
+    final CacheRevision cacheRevision = loadCacheRevision(reader, commit, revisionId);
     final Map<String, VcsCopyFrom> copyFroms = new HashMap<>();
     for (Map.Entry<String, String> entry : cacheRevision.getRenames().entrySet()) {
       copyFroms.put(entry.getKey(), new VcsCopyFrom(revisionId - 1, entry.getValue()));
     }
-    final RevCommit oldCommit = revisions.isEmpty() ? null : revisions.get(revisions.size() - 1).getGitNewCommit();
-    final RevCommit svnCommit = cacheRevision.getGitCommitId() != null ? new RevWalk(reader).parseCommit(cacheRevision.getGitCommitId()) : null;
-    for (Map.Entry<String, CacheChange> entry : cacheRevision.getFileChange().entrySet()) {
-      lastUpdates.compute(entry.getKey(), (key, list) -> {
-        final IntList result = list == null ? new IntList() : list;
-        result.add(revisionId);
-        if (entry.getValue().getNewFile() == null) {
-          result.add(MARK_NO_FILE);
-        }
-        return result;
-      });
-    }
-    final GitRevision revision = new GitRevision(this, commit.getId(), revisionId, copyFroms, oldCommit, svnCommit, commit.getCommitTime());
-    if (revision.getId() > 0) {
-      if (revisionByDate.isEmpty() || revisionByDate.lastKey() <= revision.getDate()) {
-        revisionByDate.put(revision.getDate(), revision);
+    final GitRevision lastRevision = getLastLoadedRevision();
+    final ObjectId oldCommit = lastRevision == null ? null : lastRevision.getGitNewCommitId();
+    final ObjectId svnCommit = cacheRevision.getGitCommitId();
+    final long stamp = historyLock.writeLock();
+    try {
+      for (Map.Entry<String, CacheChange> entry : cacheRevision.getFileChange().entrySet()) {
+        pathHistory.add(entry.getKey(), revisionId, entry.getValue().getNewFile() == null);
       }
+    } finally {
+      historyLock.unlockWrite(stamp);
     }
+    addRevision(new GitRevision(this, commit.getId(), revisionId, copyFroms, oldCommit, svnCommit, commit.getCommitTime()));
+  }
+
+  private void addRevision(@NotNull GitRevision revision) {
+    final ObjectId svnCommit = revision.getGitNewCommitId();
     if (svnCommit != null) {
-      revisionByHash.put(svnCommit.getId(), revision);
+      revisionByHash.put(svnCommit, revision);
     }
-    revisions.add(revision);
+    unpublished.add(revision);
   }
 
   @NotNull
@@ -412,21 +656,7 @@ public class GitRepository implements VcsRepository {
     if (oldTreeId == null || newTreeId == null || !Objects.equals(oldTreeId.getRepo(), newTreeId.getRepo())) {
       return Collections.emptyMap();
     }
-    final TreeWalk tw = new TreeWalk(repository);
-    tw.setRecursive(true);
-    tw.addTree(oldTree.getObjectId().getObject());
-    tw.addTree(newTree.getObjectId().getObject());
-
-    final RenameDetector rd = new RenameDetector(repository);
-    rd.addAll(DiffEntry.scan(tw));
-
-    final Map<String, String> result = new HashMap<>();
-    for (DiffEntry diff : rd.compute(tw.getObjectReader(), null)) {
-      if (diff.getScore() >= rd.getRenameScore()) {
-        result.put(StringHelper.normalize(diff.getNewPath()), StringHelper.normalize(diff.getOldPath()));
-      }
-    }
-    return result;
+    return renameDetector.detectRenames(repository, oldTreeId.getObject(), newTreeId.getObject(), context.getShared().get(GitIndexingPool.class), context.getName());
   }
 
   @NotNull
@@ -434,8 +664,7 @@ public class GitRepository implements VcsRepository {
     if (treeEntry.getFileMode().getObjectType() == Constants.OBJ_BLOB)
       return GitProperty.emptyArray;
 
-    GitProperty[] props = directoryPropertyCache.get(treeEntry.getObjectId().getObject());
-    if (props == null) {
+    return propertyCache.getDirectory(treeEntry.getObjectId().getObject(), () -> {
       final List<GitProperty> propList = new ArrayList<>();
       try {
         for (GitTreeEntry entry : entryProvider.get()) {
@@ -446,14 +675,8 @@ public class GitRepository implements VcsRepository {
         }
       } catch (SvnForbiddenException ignored) {
       }
-      if (!propList.isEmpty()) {
-        props = propList.toArray(new GitProperty[propList.size()]);
-      } else {
-        props = GitProperty.emptyArray;
-      }
-      directoryPropertyCache.put(treeEntry.getObjectId().getObject(), props);
-    }
-    return props;
+      return propList.toArray(new GitProperty[propList.size()]);
+    });
   }
 
   @NotNull
@@ -487,42 +710,24 @@ public class GitRepository implements VcsRepository {
   }
 
   @NotNull
-  private GitProperty[] cachedParseGitProperty(GitObject<ObjectId> objectId, GitPropertyFactory factory) throws IOException {
-    GitProperty[] property = filePropertyCache.get(objectId.getObject());
-    if (property == null) {
-      property = factory.create(loadContent(objectId.getRepo().newObjectReader(), objectId.getObject()));
-      if (property.length == 0) {
-        property = GitProperty.emptyArray;
+  private GitProperty[] cachedParseGitProperty(@NotNull GitObject<ObjectId> objectId, @NotNull GitPropertyFactory factory) throws IOException, SVNException {
+    return propertyCache.getFile(factory.getFileName(), objectId.getObject(), () -> {
+      try (ObjectReader reader = objectId.getRepo().newObjectReader()) {
+        return factory.create(loadContent(reader, objectId.getObject()));
       }
-      filePropertyCache.put(objectId.getObject(), property);
-    }
-    return property;
+    });
   }
 
   @NotNull
   @Override
   public GitRevision getLatestRevision() {
-    lock.readLock().lock();
-    try {
-      return revisions.get(revisions.size() - 1);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return revisions.getLast();
   }
 
   @NotNull
   @Override
   public VcsRevision getRevisionByDate(long dateTime) {
-    lock.readLock().lock();
-    try {
-      final Map.Entry<Long, GitRevision> entry = revisionByDate.floorEntry(dateTime);
-      if (entry != null) {
-        return entry.getValue();
-      }
-      return revisions.get(0);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return revisions.getByDate(dateTime);
   }
 
   @NotNull
@@ -538,15 +743,7 @@ public class GitRepository implements VcsRepository {
 
   public boolean isObjectBinary(@Nullable GitFilter filter, @Nullable GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
     if (objectId == null || filter == null) return false;
-    final String key = filter.getName() + " " + objectId.getObject().name();
-    Boolean result = binaryCache.get(key);
-    if (result == null) {
-      try (InputStream stream = filter.inputStream(objectId)) {
-        result = SVNFileUtil.detectMimeType(stream) != null;
-      }
-      binaryCache.putIfAbsent(key, result);
-    }
-    return result;
+    return filter.isBinary(objectId);
   }
 
   @NotNull
@@ -570,28 +767,35 @@ public class GitRepository implements VcsRepository {
 
   @Nullable
   private GitRevision getRevisionInfoUnsafe(int revision) {
-    lock.readLock().lock();
-    try {
-      if (revision >= revisions.size())
-        return null;
-      return revisions.get(revision);
-    } finally {
-      lock.readLock().unlock();
-    }
+    return revisions.get(revision);
+  }
+
+  /**
+   * Load commit body through shared commit cache.
+   */
+  @NotNull
+  RevCommit loadCommit(@NotNull ObjectId commitId) throws IOException {
+    return commitCache.load(repository, commitId);
+  }
+
+  @NotNull
+  GitFileCache getFileCache() {
+    return fileCache;
+  }
+
+  @NotNull
+  GitPropertyMapCache getPropertyMapCache() {
+    return propertyMapCache;
   }
 
   @NotNull
   public GitRevision getRevision(@NotNull ObjectId revisionId) throws SVNException {
-    lock.readLock().lock();
-    try {
-      final GitRevision revision = revisionByHash.get(revisionId);
-      if (revision == null) {
-        throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NO_SUCH_REVISION, "No such revision " + revisionId.name()));
-      }
-      return revision;
-    } finally {
-      lock.readLock().unlock();
+    final GitRevision revision = revisionByHash.get(revisionId);
+    // Revision can be loaded, but not published yet.
+    if (revision == null || revision.getId() >= revisions.size()) {
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NO_SUCH_REVISION, "No such revision " + revisionId.name()));
     }
+    return revision;
   }
 
   @NotNull
@@ -606,21 +810,59 @@ public class GitRepository implements VcsRepository {
   @Override
   public int getLastChange(@NotNull String nodePath, int beforeRevision) {
     if (nodePath.isEmpty()) return beforeRevision;
-    final IntList revs = this.lastUpdates.get(nodePath);
-    if (revs != null) {
-      int prev = 0;
-      for (int i = revs.size() - 1; i >= 0; --i) {
-        final int rev = revs.get(i);
-        if ((rev >= 0) && (rev <= beforeRevision)) {
-          if (prev == MARK_NO_FILE) {
-            return MARK_NO_FILE;
-          }
-          return rev;
+    final long optimisticStamp = historyLock.tryOptimisticRead();
+    if (optimisticStamp != 0) {
+      try {
+        final int lastChange = pathHistory.getLastChange(nodePath, beforeRevision);
+        if (historyLock.validate(optimisticStamp)) {
+          return lastChange;
+        }
+      } catch (RuntimeException ignored) {
+        // Index was modified concurrently: retry under read lock.
+      }
+    }
+    final long stamp = historyLock.readLock();
+    try {
+      return pathHistory.getLastChange(nodePath, beforeRevision);
+    } finally {
+      historyLock.unlockRead(stamp);
+    }
+  }
+
+  @NotNull
+  @Override
+  public VcsPathChanges getPathChanges(@NotNull String nodePath, int beforeRevision) {
+    if (nodePath.isEmpty()) {
+      // Root directory is changed in every revision.
+      return new VcsPathChanges() {
+        @Override
+        public int size() {
+          return beforeRevision + 1;
+        }
+
+        @Override
+        public int get(int index) {
+          return index;
+        }
+      };
+    }
+    final long optimisticStamp = historyLock.tryOptimisticRead();
+    if (optimisticStamp != 0) {
+      try {
+        final VcsPathChanges changes = pathHistory.getChanges(nodePath, beforeRevision);
+        if (historyLock.validate(optimisticStamp)) {
+          return changes;
         }
-        prev = rev;
+      } catch (RuntimeException ignored) {
+        // Index was modified concurrently: retry under read lock.
       }
     }
-    return MARK_NO_FILE;
+    final long stamp = historyLock.readLock();
+    try {
+      return pathHistory.getChanges(nodePath, beforeRevision);
+    } finally {
+      historyLock.unlockRead(stamp);
+    }
   }
 
   @NotNull
@@ -630,24 +872,13 @@ public class GitRepository implements VcsRepository {
   }
 
   @NotNull
-  public Iterable<GitTreeEntry> loadTree(@Nullable GitTreeEntry tree) throws IOException {
+  GitTree loadTree(@Nullable GitTreeEntry tree) throws IOException {
     final GitObject<ObjectId> treeId = getTreeObject(tree);
     // Loading tree.
     if (treeId == null) {
-      return Collections.emptyList();
-    }
-    final List<GitTreeEntry> result = new ArrayList<>();
-    final Repository repo = treeId.getRepo();
-    final CanonicalTreeParser treeParser = new CanonicalTreeParser(GitRepository.emptyBytes, repo.newObjectReader(), treeId.getObject());
-    while (!treeParser.eof()) {
-      result.add(new GitTreeEntry(
-          treeParser.getEntryFileMode(),
-          new GitObject<>(repo, treeParser.getEntryObjectId()),
-          treeParser.getEntryPathString()
-      ));
-      treeParser.next();
+      return GitTree.empty;
     }
-    return result;
+    return treeCache.load(treeId.getRepo(), treeId.getObject());
   }
 
   @Nullable
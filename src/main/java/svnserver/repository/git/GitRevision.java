@@ -14,9 +14,13 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNRevisionProperty;
+import svnserver.StringHelper;
 import svnserver.SvnConstants;
 import svnserver.repository.VcsCopyFrom;
+import svnserver.repository.VcsLogEntry;
 import svnserver.repository.VcsRevision;
+import svnserver.repository.git.cache.CacheChange;
+import svnserver.repository.git.cache.CacheRevision;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -27,6 +31,8 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Git revision.
+ * <p>
+ * Only commit ids are stored: commit bodies are loaded on demand through {@link GitCommitCache}.
  *
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
@@ -36,9 +42,9 @@ final class GitRevision implements VcsRevision {
   @NotNull
   private final ObjectId cacheCommit;
   @Nullable
-  private final RevCommit gitOldCommit;
+  private final ObjectId gitOldCommit;
   @Nullable
-  private final RevCommit gitNewCommit;
+  private final ObjectId gitNewCommit;
 
   @NotNull
   private final Map<String, VcsCopyFrom> renames;
@@ -49,15 +55,16 @@ final class GitRevision implements VcsRevision {
               @NotNull ObjectId cacheCommit,
               int revision,
               @NotNull Map<String, VcsCopyFrom> renames,
-              @Nullable RevCommit gitOldCommit,
-              @Nullable RevCommit gitNewCommit,
+              @Nullable ObjectId gitOldCommit,
+              @Nullable ObjectId gitNewCommit,
               int commitTimeSec) {
     this.repo = repo;
-    this.cacheCommit = cacheCommit;
+    // Copy ids: RevCommit instances would pin parsed commit bodies.
+    this.cacheCommit = cacheCommit.copy();
     this.revision = revision;
-    this.renames = renames;
-    this.gitOldCommit = gitOldCommit;
-    this.gitNewCommit = gitNewCommit;
+    this.renames = renames.isEmpty() ? Collections.emptyMap() : renames;
+    this.gitOldCommit = gitOldCommit == null ? null : gitOldCommit.copy();
+    this.gitNewCommit = gitNewCommit == null ? null : gitNewCommit.copy();
     this.date = TimeUnit.SECONDS.toMillis(commitTimeSec);
   }
 
@@ -65,23 +72,52 @@ final class GitRevision implements VcsRevision {
     return cacheCommit;
   }
 
+  @NotNull Map<String, VcsCopyFrom> getRenames() {
+    return renames;
+  }
+
   @Override
   public int getId() {
     return revision;
   }
 
-  @Nullable RevCommit getGitNewCommit() {
+  @Nullable ObjectId getGitNewCommitId() {
     return gitNewCommit;
   }
 
+  @Nullable RevCommit getGitNewCommit() throws IOException {
+    return gitNewCommit == null ? null : repo.loadCommit(gitNewCommit);
+  }
+
+  @Nullable
+  private RevCommit getGitNewCommitUnchecked() {
+    try {
+      return getGitNewCommit();
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
   @NotNull
   @Override
-  public Map<String, GitLogEntry> getChanges() throws IOException, SVNException {
+  public Map<String, ? extends VcsLogEntry> getChanges() throws IOException, SVNException {
     if (gitNewCommit == null) {
       return Collections.emptyMap();
     }
-    final GitFile oldTree = gitOldCommit == null ? new GitFileEmptyTree(repo, "", revision - 1) : GitFileTreeEntry.create(repo, gitOldCommit.getTree(), revision - 1);
-    final GitFile newTree = GitFileTreeEntry.create(repo, gitNewCommit.getTree(), revision);
+    final Map<String, GitCachedLogEntry> cachedChanges = getCachedChanges();
+    return cachedChanges != null ? cachedChanges : getTreeChanges();
+  }
+
+  /**
+   * Changes by comparing revision trees.
+   */
+  @NotNull
+  Map<String, GitLogEntry> getTreeChanges() throws IOException, SVNException {
+    if (gitNewCommit == null) {
+      return Collections.emptyMap();
+    }
+    final GitFile oldTree = gitOldCommit == null ? new GitFileEmptyTree(repo, "", revision - 1) : GitFileTreeEntry.create(repo, repo.loadCommit(gitOldCommit).getTree(), revision - 1);
+    final GitFile newTree = GitFileTreeEntry.create(repo, repo.loadCommit(gitNewCommit).getTree(), revision);
 
     final Map<String, GitLogEntry> changes = new TreeMap<>();
     for (Map.Entry<String, GitLogPair> entry : ChangeHelper.collectChanges(oldTree, newTree, false).entrySet()) {
@@ -90,6 +126,37 @@ final class GitRevision implements VcsRevision {
     return changes;
   }
 
+  /**
+   * Changes from revision cache.
+   * <p>
+   * Revision cache contains removed directory content too: it is skipped like in {@link ChangeHelper#collectChanges}
+   * without full removed entries.
+   *
+   * @return Changes or null, if revision cache has no log information.
+   */
+  @Nullable
+  private Map<String, GitCachedLogEntry> getCachedChanges() {
+    final CacheRevision cacheRevision = repo.getCachedRevision(cacheCommit);
+    if (cacheRevision == null) {
+      return null;
+    }
+    final Map<String, CacheChange> fileChange = cacheRevision.getFileChange();
+    final Map<String, GitCachedLogEntry> changes = new TreeMap<>();
+    for (Map.Entry<String, CacheChange> entry : fileChange.entrySet()) {
+      final CacheChange change = entry.getValue();
+      if (!change.hasLogInfo()) {
+        return null;
+      }
+      final String path = entry.getKey();
+      final CacheChange parent = fileChange.get(StringHelper.parentDir(path));
+      if (parent != null && parent.isDirectoryRemoved()) {
+        continue;
+      }
+      changes.put(path, new GitCachedLogEntry(change, renames.get(path), () -> new GitLogPair(repo.sureRevisionInfo(revision - 1).getFile(path), getFile(path))));
+    }
+    return changes;
+  }
+
   @NotNull
   @Override
   public Map<String, String> getProperties(boolean includeInternalProps) {
@@ -119,17 +186,19 @@ final class GitRevision implements VcsRevision {
   @Nullable
   @Override
   public String getAuthor() {
-    if (gitNewCommit == null)
+    final RevCommit commit = getGitNewCommitUnchecked();
+    if (commit == null)
       return null;
 
-    final PersonIdent ident = gitNewCommit.getAuthorIdent();
+    final PersonIdent ident = commit.getAuthorIdent();
     return String.format("%s <%s>", ident.getName(), ident.getEmailAddress());
   }
 
   @Nullable
   @Override
   public String getLog() {
-    return gitNewCommit == null ? null : gitNewCommit.getFullMessage().trim();
+    final RevCommit commit = getGitNewCommitUnchecked();
+    return commit == null ? null : commit.getFullMessage().trim();
   }
 
   @Nullable
@@ -138,15 +207,38 @@ final class GitRevision implements VcsRevision {
     if (gitNewCommit == null) {
       return new GitFileEmptyTree(repo, "", revision);
     }
-    GitFile result = GitFileTreeEntry.create(repo, gitNewCommit.getTree(), revision);
+    final StringBuilder path = new StringBuilder();
     for (String pathItem : fullPath.split("/")) {
-      if (pathItem.isEmpty()) {
-        continue;
+      if (!pathItem.isEmpty()) {
+        path.append('/').append(pathItem);
       }
-      result = result.getEntry(pathItem);
-      if (result == null) {
-        return null;
+    }
+    return resolveFile(path.toString());
+  }
+
+  /**
+   * Resolve file using cached parent directories.
+   *
+   * @param path Path in "/a/b" form ("" for root).
+   */
+  @Nullable
+  private GitFileTreeEntry resolveFile(@NotNull String path) throws IOException, SVNException {
+    final GitFileCache fileCache = repo.getFileCache();
+    GitFileTreeEntry result = fileCache.get(repo, revision, path);
+    if (result == null) {
+      if (path.isEmpty()) {
+        result = GitFileTreeEntry.create(repo, repo.loadCommit(gitNewCommit).getTree(), revision);
+      } else {
+        final GitFileTreeEntry parent = resolveFile(StringHelper.parentDir(path));
+        if (parent == null) {
+          return null;
+        }
+        result = parent.getEntry(StringHelper.baseName(path));
+        if (result == null) {
+          return null;
+        }
       }
+      fileCache.put(repo, revision, path, result);
     }
     return result;
   }
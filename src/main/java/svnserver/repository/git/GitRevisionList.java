@@ -0,0 +1,126 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable revision list snapshot.
+ * <p>
+ * New revisions are added by creating new snapshot, so published snapshot can be read without locking.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+@Immutable
+final class GitRevisionList {
+  @NotNull
+  public static final GitRevisionList empty = new GitRevisionList(new GitRevision[0], new long[0], new GitRevision[0]);
+
+  @NotNull
+  private final GitRevision[] revisions;
+  // Revisions with increasing dates for date lookup.
+  @NotNull
+  private final long[] dates;
+  @NotNull
+  private final GitRevision[] byDate;
+
+  private GitRevisionList(@NotNull GitRevision[] revisions, @NotNull long[] dates, @NotNull GitRevision[] byDate) {
+    this.revisions = revisions;
+    this.dates = dates;
+    this.byDate = byDate;
+  }
+
+  public int size() {
+    return revisions.length;
+  }
+
+  public boolean isEmpty() {
+    return revisions.length == 0;
+  }
+
+  @Nullable
+  public GitRevision get(int revision) {
+    return revision >= 0 && revision < revisions.length ? revisions[revision] : null;
+  }
+
+  @NotNull
+  public GitRevision getLast() {
+    return revisions[revisions.length - 1];
+  }
+
+  /**
+   * Find last revision created before date.
+   *
+   * @param dateTime Date.
+   * @return Last revision before date or first revision.
+   */
+  @NotNull
+  public GitRevision getByDate(long dateTime) {
+    int low = 0;
+    int high = dates.length - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      if (dates[mid] <= dateTime) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high >= 0 ? byDate[high] : revisions[0];
+  }
+
+  @NotNull
+  public List<GitRevision> asList() {
+    return Collections.unmodifiableList(Arrays.asList(revisions));
+  }
+
+  /**
+   * Create new snapshot with added revisions.
+   *
+   * @param added Revisions in id order, starting with {@link #size()}.
+   * @return New snapshot.
+   */
+  @NotNull
+  public GitRevisionList append(@NotNull List<GitRevision> added) {
+    if (added.isEmpty()) {
+      return this;
+    }
+    final GitRevision[] newRevisions = Arrays.copyOf(revisions, revisions.length + added.size());
+    long[] newDates = Arrays.copyOf(dates, dates.length + added.size());
+    GitRevision[] newByDate = Arrays.copyOf(byDate, byDate.length + added.size());
+    int dateCount = dates.length;
+    for (int i = 0; i < added.size(); ++i) {
+      final GitRevision revision = added.get(i);
+      if (revision.getId() != revisions.length + i) {
+        throw new IllegalStateException("Unexpected revision id: " + revision.getId());
+      }
+      newRevisions[revision.getId()] = revision;
+      if (revision.getId() > 0) {
+        final long date = revision.getDate();
+        if (dateCount > 0 && newDates[dateCount - 1] == date) {
+          newByDate[dateCount - 1] = revision;
+        } else if (dateCount == 0 || newDates[dateCount - 1] < date) {
+          newDates[dateCount] = date;
+          newByDate[dateCount] = revision;
+          dateCount++;
+        }
+      }
+    }
+    if (dateCount < newDates.length) {
+      newDates = Arrays.copyOf(newDates, dateCount);
+      newByDate = Arrays.copyOf(newByDate, dateCount);
+    }
+    return new GitRevisionList(newRevisions, newDates, newByDate);
+  }
+}
@@ -0,0 +1,69 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * Immutable parsed Git tree.
+ * <p>
+ * Entries are iterated in Git tree order. Lookup by name uses binary search over entries sorted by name
+ * (Git tree order differs from name order for directories).
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+final class GitTree implements Iterable<GitTreeEntry> {
+  @NotNull
+  static final GitTree empty = new GitTree(new GitTreeEntry[0]);
+  @NotNull
+  private static final Comparator<GitTreeEntry> nameComparator = Comparator.comparing(GitTreeEntry::getFileName);
+
+  @NotNull
+  private final GitTreeEntry[] entries;
+  @NotNull
+  private final GitTreeEntry[] byName;
+
+  GitTree(@NotNull GitTreeEntry[] entries) {
+    this.entries = entries;
+    this.byName = entries.clone();
+    Arrays.sort(byName, nameComparator);
+  }
+
+  int size() {
+    return entries.length;
+  }
+
+  @Nullable
+  GitTreeEntry getEntry(@NotNull String name) {
+    int low = 0;
+    int high = byName.length - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int compare = byName[mid].getFileName().compareTo(name);
+      if (compare < 0) {
+        low = mid + 1;
+      } else if (compare > 0) {
+        high = mid - 1;
+      } else {
+        return byName[mid];
+      }
+    }
+    return null;
+  }
+
+  @NotNull
+  @Override
+  public Iterator<GitTreeEntry> iterator() {
+    return Arrays.asList(entries).iterator();
+  }
+}
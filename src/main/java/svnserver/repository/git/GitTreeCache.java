@@ -0,0 +1,125 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import svnserver.context.Shared;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bounded cache of parsed trees.
+ * <p>
+ * Tree is immutable and identified by its hash, so parsed tree is shared between sessions, revisions and commands.
+ * Cache size is limited by total entry count of cached trees.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class GitTreeCache implements Shared {
+  public static final long DEFAULT_SIZE = 250000;
+
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(GitTreeCache.class);
+  @NotNull
+  private final Cache<TreeKey, GitTree> cache;
+
+  public GitTreeCache() {
+    this(DEFAULT_SIZE);
+  }
+
+  /**
+   * @param maximumSize Maximum total entry count of cached trees.
+   */
+  public GitTreeCache(long maximumSize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(maximumSize)
+        .weigher((TreeKey key, GitTree tree) -> tree.size() + 1)
+        .recordStats()
+        .build();
+  }
+
+  @NotNull
+  GitTree load(@NotNull Repository repository, @NotNull ObjectId treeId) throws IOException {
+    try {
+      return cache.get(new TreeKey(repository, treeId.copy()), () -> parse(repository, treeId));
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @NotNull
+  private static GitTree parse(@NotNull Repository repository, @NotNull ObjectId treeId) throws IOException {
+    final List<GitTreeEntry> result = new ArrayList<>();
+    try (ObjectReader reader = repository.newObjectReader()) {
+      final CanonicalTreeParser treeParser = new CanonicalTreeParser(GitRepository.emptyBytes, reader, treeId);
+      while (!treeParser.eof()) {
+        result.add(new GitTreeEntry(
+            treeParser.getEntryFileMode(),
+            new GitObject<>(repository, treeParser.getEntryObjectId()),
+            treeParser.getEntryPathString()
+        ));
+        treeParser.next();
+      }
+    }
+    return new GitTree(result.toArray(new GitTreeEntry[result.size()]));
+  }
+
+  @NotNull
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  @Override
+  public void close() {
+    final CacheStats stats = cache.stats();
+    log.info("Tree cache: {} hits, {} misses ({}% hit rate)", stats.hitCount(), stats.missCount(), Math.round(stats.hitRate() * 100));
+  }
+
+  /**
+   * Tree entries refer to repository of the tree: same tree of different repositories is cached separately.
+   */
+  private static final class TreeKey {
+    @NotNull
+    private final Repository repository;
+    @NotNull
+    private final ObjectId treeId;
+
+    private TreeKey(@NotNull Repository repository, @NotNull ObjectId treeId) {
+      this.repository = repository;
+      this.treeId = treeId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final TreeKey other = (TreeKey) o;
+      return repository == other.repository && treeId.equals(other.treeId);
+    }
+
+    @Override
+    public int hashCode() {
+      return treeId.hashCode() * 31 + System.identityHashCode(repository);
+    }
+  }
+}
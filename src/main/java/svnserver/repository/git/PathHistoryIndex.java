@@ -0,0 +1,378 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import svnserver.repository.VcsPathChanges;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact index of path change revisions.
+ * <p>
+ * Paths are stored as tree of interned name components. Changes of each path are stored as sorted primitive array
+ * with deletion encoded as negative value, so "last change at or before revision" is a binary search.
+ * <p>
+ * Not thread safe. Writers hold repository {@code historyLock} for writing (and repository lock). Readers use
+ * optimistic read stamp (result is discarded if stamp is invalidated, including failures on inconsistent state) or
+ * read lock. Changes views, returned by {@link #getChanges}, share revision arrays with index and stay valid after
+ * lock release: appends only write past view range or copy array to new one.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+final class PathHistoryIndex {
+  public static final int NO_CHANGE = -1;
+
+  @NotNull
+  private static final Node[] emptyNodes = {};
+  @NotNull
+  private static final int[] emptyRevisions = {};
+
+  // Rough JVM object sizes (64-bit, compressed oops) for footprint estimation.
+  private static final int OBJECT_HEADER = 16;
+  private static final int NODE_SIZE = OBJECT_HEADER + 4 * 4;
+  private static final int STRING_SIZE = OBJECT_HEADER + 8 + OBJECT_HEADER;
+
+  @NotNull
+  private final Node root = new Node("");
+  @NotNull
+  private final Map<String, String> names = new HashMap<>();
+  private int nodeCount = 0;
+  private long changeCount = 0;
+
+  /**
+   * Register path change.
+   *
+   * @param path     Path.
+   * @param revision Revision, not less then previous registered revision of this path.
+   * @param deleted  Path is deleted in this revision.
+   */
+  public void add(@NotNull String path, int revision, boolean deleted) {
+    Node node = root;
+    int begin = 0;
+    while (true) {
+      final int end = nextSeparator(path, begin);
+      node = node.getOrCreateChild(path, begin, end);
+      if (end == path.length()) {
+        break;
+      }
+      begin = end + 1;
+    }
+    node.addRevision(deleted ? -revision - 1 : revision);
+    changeCount++;
+  }
+
+  /**
+   * Find last path change.
+   *
+   * @param path           Path.
+   * @param beforeRevision Upper bound revision (inclusive).
+   * @return Last change revision or {@link #NO_CHANGE}, if path doesn't exist in this revision.
+   */
+  public int getLastChange(@NotNull String path, int beforeRevision) {
+    final Node node = find(path);
+    if (node == null) {
+      return NO_CHANGE;
+    }
+    final int index = node.floorRevision(beforeRevision);
+    if (index < 0) {
+      return NO_CHANGE;
+    }
+    final int revision = node.revisions[index];
+    return revision < 0 ? NO_CHANGE : revision;
+  }
+
+  /**
+   * Find path changes since its last creation.
+   *
+   * @param path           Path.
+   * @param beforeRevision Upper bound revision (inclusive).
+   * @return Path changes or empty changes, if path doesn't exist in this revision.
+   */
+  @NotNull
+  public VcsPathChanges getChanges(@NotNull String path, int beforeRevision) {
+    final Node node = find(path);
+    if (node == null) {
+      return VcsPathChanges.empty;
+    }
+    final int last = node.floorRevision(beforeRevision);
+    if (last < 0 || node.revisions[last] < 0) {
+      return VcsPathChanges.empty;
+    }
+    int first = last;
+    while (first > 0 && node.revisions[first - 1] >= 0) {
+      first--;
+    }
+    return new Changes(node.revisions, first, last + 1);
+  }
+
+  @Nullable
+  private Node find(@NotNull String path) {
+    Node node = root;
+    int begin = 0;
+    while (true) {
+      final int end = nextSeparator(path, begin);
+      node = node.getChild(path, begin, end);
+      if (node == null || end == path.length()) {
+        return node;
+      }
+      begin = end + 1;
+    }
+  }
+
+  private static int nextSeparator(@NotNull String path, int begin) {
+    final int end = path.indexOf('/', begin);
+    return end < 0 ? path.length() : end;
+  }
+
+  /**
+   * @return Count of indexed paths and directories.
+   */
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * @return Count of indexed changes.
+   */
+  public long getChangeCount() {
+    return changeCount;
+  }
+
+  /**
+   * @return Count of unique name components.
+   */
+  public int getNameCount() {
+    return names.size();
+  }
+
+  /**
+   * Estimate index heap footprint.
+   *
+   * @return Approximate size in bytes.
+   */
+  public long getMemoryUsage() {
+    long size = 0;
+    for (String name : names.keySet()) {
+      size += STRING_SIZE + name.length() * 2;
+    }
+    final Deque<Node> queue = new ArrayDeque<>();
+    queue.add(root);
+    while (!queue.isEmpty()) {
+      final Node node = queue.poll();
+      size += NODE_SIZE;
+      if (node.children != emptyNodes) {
+        size += OBJECT_HEADER + node.children.length * 4;
+      }
+      if (node.revisions != emptyRevisions) {
+        size += OBJECT_HEADER + node.revisions.length * 4;
+      }
+      queue.addAll(Arrays.asList(node.children).subList(0, node.childCount));
+    }
+    return size;
+  }
+
+  /**
+   * Write index content.
+   *
+   * @param output Output stream.
+   * @throws IOException
+   */
+  public void write(@NotNull DataOutput output) throws IOException {
+    output.writeInt(nodeCount);
+    output.writeLong(changeCount);
+    root.write(output);
+  }
+
+  /**
+   * Read index content, written by {@link #write(DataOutput)}.
+   *
+   * @param input Input stream.
+   * @return Path history index.
+   * @throws IOException
+   */
+  @NotNull
+  public static PathHistoryIndex read(@NotNull DataInput input) throws IOException {
+    final PathHistoryIndex index = new PathHistoryIndex();
+    final int nodeCount = input.readInt();
+    final long changeCount = input.readLong();
+    index.root.read(input);
+    if (index.nodeCount != nodeCount || index.changeCount != changeCount) {
+      throw new IOException("Path history index is corrupted");
+    }
+    return index;
+  }
+
+  private static int grow(int capacity) {
+    return capacity + Math.max(capacity >> 1, 1);
+  }
+
+  private static int compare(@NotNull String name, @NotNull String path, int begin, int end) {
+    final int length = Math.min(name.length(), end - begin);
+    for (int i = 0; i < length; ++i) {
+      final int diff = name.charAt(i) - path.charAt(begin + i);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return name.length() - (end - begin);
+  }
+
+  /**
+   * Range of node revisions array.
+   * <p>
+   * Node revisions are never modified after adding (array is copied on growth), so range can be read without lock.
+   */
+  private static final class Changes implements VcsPathChanges {
+    @NotNull
+    private final int[] revisions;
+    private final int from;
+    private final int to;
+
+    private Changes(@NotNull int[] revisions, int from, int to) {
+      this.revisions = revisions;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Override
+    public int get(int index) {
+      if (index < 0 || index >= to - from) {
+        throw new IndexOutOfBoundsException();
+      }
+      return revisions[from + index];
+    }
+  }
+
+  private final class Node {
+    @NotNull
+    private final String name;
+    @NotNull
+    private Node[] children = emptyNodes;
+    private int childCount;
+    @NotNull
+    private int[] revisions = emptyRevisions;
+    private int revisionCount;
+
+    private Node(@NotNull String name) {
+      this.name = name;
+    }
+
+    @Nullable
+    private Node getChild(@NotNull String path, int begin, int end) {
+      final int index = findChild(path, begin, end);
+      return index >= 0 ? children[index] : null;
+    }
+
+    @NotNull
+    private Node getOrCreateChild(@NotNull String path, int begin, int end) {
+      final int index = findChild(path, begin, end);
+      if (index >= 0) {
+        return children[index];
+      }
+      final int insert = -index - 1;
+      if (childCount == children.length) {
+        children = Arrays.copyOf(children, grow(children.length));
+      }
+      System.arraycopy(children, insert, children, insert + 1, childCount - insert);
+      final Node child = new Node(names.computeIfAbsent(path.substring(begin, end), s -> s));
+      children[insert] = child;
+      childCount++;
+      nodeCount++;
+      return child;
+    }
+
+    private int findChild(@NotNull String path, int begin, int end) {
+      int low = 0;
+      int high = childCount - 1;
+      while (low <= high) {
+        final int mid = (low + high) >>> 1;
+        final int cmp = compare(children[mid].name, path, begin, end);
+        if (cmp < 0) {
+          low = mid + 1;
+        } else if (cmp > 0) {
+          high = mid - 1;
+        } else {
+          return mid;
+        }
+      }
+      return -(low + 1);
+    }
+
+    private void addRevision(int revision) {
+      if (revisionCount == revisions.length) {
+        revisions = Arrays.copyOf(revisions, grow(revisions.length));
+      }
+      revisions[revisionCount++] = revision;
+    }
+
+    private void write(@NotNull DataOutput output) throws IOException {
+      output.writeInt(revisionCount);
+      for (int i = 0; i < revisionCount; ++i) {
+        output.writeInt(revisions[i]);
+      }
+      output.writeInt(childCount);
+      for (int i = 0; i < childCount; ++i) {
+        output.writeUTF(children[i].name);
+        children[i].write(output);
+      }
+    }
+
+    private void read(@NotNull DataInput input) throws IOException {
+      revisionCount = input.readInt();
+      if (revisionCount > 0) {
+        revisions = new int[revisionCount];
+        for (int i = 0; i < revisionCount; ++i) {
+          revisions[i] = input.readInt();
+        }
+        changeCount += revisionCount;
+      }
+      childCount = input.readInt();
+      if (childCount > 0) {
+        children = new Node[childCount];
+        for (int i = 0; i < childCount; ++i) {
+          final String childName = input.readUTF();
+          children[i] = new Node(names.computeIfAbsent(childName, s -> s));
+          children[i].read(input);
+        }
+        nodeCount += childCount;
+      }
+    }
+
+    /**
+     * @return Index of last change at or before revision or -1.
+     */
+    private int floorRevision(int revision) {
+      int low = 0;
+      int high = revisionCount - 1;
+      while (low <= high) {
+        final int mid = (low + high) >>> 1;
+        final int value = revisions[mid];
+        if ((value < 0 ? -value - 1 : value) <= revision) {
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      return high;
+    }
+  }
+}
@@ -0,0 +1,173 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import svnserver.repository.VcsCopyFrom;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Persisted snapshot of in-memory revision index.
+ * <p>
+ * Snapshot is bound to the last cache commit: it can be used only while this commit is reachable from
+ * the cache branch.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+final class RevisionIndexSnapshot {
+  private static final int MAGIC = 0x47534958;
+  private static final int VERSION = 1;
+  private static final int CHECKSUM_SIZE = 8;
+
+  @NotNull
+  private final List<Entry> entries;
+  @NotNull
+  private final PathHistoryIndex pathHistory;
+
+  private RevisionIndexSnapshot(@NotNull List<Entry> entries, @NotNull PathHistoryIndex pathHistory) {
+    this.entries = entries;
+    this.pathHistory = pathHistory;
+  }
+
+  @NotNull
+  public List<Entry> getEntries() {
+    return entries;
+  }
+
+  @NotNull
+  public PathHistoryIndex getPathHistory() {
+    return pathHistory;
+  }
+
+  @NotNull
+  public ObjectId getLastCacheCommit() {
+    return entries.get(entries.size() - 1).cacheCommit;
+  }
+
+  /**
+   * Parse snapshot.
+   *
+   * @param bytes Serialized snapshot.
+   * @return Snapshot or null, if snapshot is absent, corrupted or has unsupported version.
+   */
+  @Nullable
+  public static RevisionIndexSnapshot deserialize(@Nullable byte[] bytes) {
+    if (bytes == null || bytes.length < CHECKSUM_SIZE) {
+      return null;
+    }
+    final int size = bytes.length - CHECKSUM_SIZE;
+    try {
+      final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+      if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+        return null;
+      }
+      final CRC32 crc = new CRC32();
+      crc.update(bytes, 0, size);
+      if (new DataInputStream(new ByteArrayInputStream(bytes, size, CHECKSUM_SIZE)).readLong() != crc.getValue()) {
+        return null;
+      }
+      final int count = input.readInt();
+      if (count <= 0) {
+        return null;
+      }
+      final byte[] id = new byte[Constants.OBJECT_ID_LENGTH];
+      final List<Entry> entries = new ArrayList<>(count);
+      for (int i = 0; i < count; ++i) {
+        input.readFully(id);
+        final ObjectId cacheCommit = ObjectId.fromRaw(id);
+        ObjectId svnCommit = null;
+        if (input.readBoolean()) {
+          input.readFully(id);
+          svnCommit = ObjectId.fromRaw(id);
+        }
+        final int commitTime = input.readInt();
+        final int renameCount = input.readInt();
+        final Map<String, String> renames = renameCount == 0 ? Collections.emptyMap() : new HashMap<>();
+        for (int j = 0; j < renameCount; ++j) {
+          renames.put(input.readUTF(), input.readUTF());
+        }
+        entries.add(new Entry(cacheCommit, svnCommit, commitTime, renames));
+      }
+      return new RevisionIndexSnapshot(entries, PathHistoryIndex.read(input));
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  @NotNull
+  public static byte[] serialize(@NotNull List<GitRevision> revisions, @NotNull PathHistoryIndex pathHistory) throws IOException {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    final DataOutputStream output = new DataOutputStream(stream);
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeInt(revisions.size());
+    for (GitRevision revision : revisions) {
+      revision.getCacheCommit().copyRawTo(output);
+      final ObjectId svnCommit = revision.getGitNewCommitId();
+      output.writeBoolean(svnCommit != null);
+      if (svnCommit != null) {
+        svnCommit.copyRawTo(output);
+      }
+      output.writeInt((int) (revision.getDate() / 1000));
+      final Map<String, VcsCopyFrom> renames = revision.getRenames();
+      output.writeInt(renames.size());
+      for (Map.Entry<String, VcsCopyFrom> entry : renames.entrySet()) {
+        output.writeUTF(entry.getKey());
+        output.writeUTF(entry.getValue().getPath());
+      }
+    }
+    pathHistory.write(output);
+    output.flush();
+    final CRC32 crc = new CRC32();
+    crc.update(stream.toByteArray());
+    output.writeLong(crc.getValue());
+    return stream.toByteArray();
+  }
+
+  static final class Entry {
+    @NotNull
+    private final ObjectId cacheCommit;
+    @Nullable
+    private final ObjectId svnCommit;
+    private final int commitTime;
+    @NotNull
+    private final Map<String, String> renames;
+
+    private Entry(@NotNull ObjectId cacheCommit, @Nullable ObjectId svnCommit, int commitTime, @NotNull Map<String, String> renames) {
+      this.cacheCommit = cacheCommit;
+      this.svnCommit = svnCommit;
+      this.commitTime = commitTime;
+      this.renames = renames;
+    }
+
+    @NotNull
+    public ObjectId getCacheCommit() {
+      return cacheCommit;
+    }
+
+    @Nullable
+    public ObjectId getSvnCommit() {
+      return svnCommit;
+    }
+
+    public int getCommitTime() {
+      return commitTime;
+    }
+
+    @NotNull
+    public Map<String, String> getRenames() {
+      return renames;
+    }
+  }
+}
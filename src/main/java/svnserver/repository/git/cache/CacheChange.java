@@ -10,34 +10,63 @@ package svnserver.repository.git.cache;
 import org.eclipse.jgit.lib.ObjectId;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNLogEntryPath;
+import org.tmatesoft.svn.core.SVNNodeKind;
+import svnserver.repository.SvnForbiddenException;
 import svnserver.repository.git.GitFile;
 import svnserver.repository.git.GitLogPair;
 import svnserver.repository.git.GitObject;
+import svnserver.repository.git.filter.GitFilter;
+
+import java.io.IOException;
+import java.util.Objects;
 
 /**
  * Change file/directory information.
+ * <p>
+ * Besides object ids change can hold information for log changed paths (see {@link #hasLogInfo()}). Log information
+ * is collected without reading file content: when properties or filter of entry are changed, exact modification
+ * flags are computed by comparing entries on demand (see {@link #needsCompare()}).
  *
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
 public class CacheChange {
+  static final int LOG_INFO = 0x01;
+  static final int LOG_OLD_ENTRY = 0x02;
+  static final int LOG_NEW_ENTRY = 0x04;
+  static final int LOG_OLD_DIR = 0x08;
+  static final int LOG_NEW_DIR = 0x10;
+  static final int LOG_MODIFIED = 0x20;
+  static final int LOG_CONTENT_MODIFIED = 0x40;
+  static final int LOG_COMPARE = 0x80;
+
   @Nullable
   private final ObjectId oldFile;
   @Nullable
   private final ObjectId newFile;
+  // Transient: legacy Kryo format doesn't have this field.
+  private final transient int logFlags;
 
   @SuppressWarnings("unused")
   protected CacheChange() {
     oldFile = null;
     newFile = null;
+    logFlags = 0;
+  }
+
+  public CacheChange(@NotNull GitLogPair logPair) throws IOException, SVNException {
+    this(getFileId(logPair.getOldEntry()), getFileId(logPair.getNewEntry()), getLogFlags(logPair));
   }
 
-  public CacheChange(@NotNull GitLogPair logPair) {
-    this(getFileId(logPair.getOldEntry()), getFileId(logPair.getNewEntry()));
+  CacheChange(@Nullable ObjectId oldFile, @Nullable ObjectId newFile) {
+    this(oldFile, newFile, 0);
   }
 
-  private CacheChange(@Nullable ObjectId oldFile, @Nullable ObjectId newFile) {
+  CacheChange(@Nullable ObjectId oldFile, @Nullable ObjectId newFile, int logFlags) {
     this.oldFile = oldFile != null ? oldFile.copy() : null;
     this.newFile = newFile != null ? newFile.copy() : null;
+    this.logFlags = logFlags;
   }
 
   @Nullable
@@ -50,9 +79,118 @@ public class CacheChange {
     return newFile;
   }
 
+  int getLogFlags() {
+    return logFlags;
+  }
+
+  /**
+   * @return true, if change has log information (false for revisions cached by previous versions).
+   */
+  public boolean hasLogInfo() {
+    return (logFlags & LOG_INFO) != 0;
+  }
+
+  /**
+   * @return Change type like {@link svnserver.repository.VcsLogEntry#getChange()}.
+   */
+  public char getChange() {
+    if ((logFlags & LOG_NEW_ENTRY) == 0)
+      return SVNLogEntryPath.TYPE_DELETED;
+
+    if ((logFlags & LOG_OLD_ENTRY) == 0)
+      return SVNLogEntryPath.TYPE_ADDED;
+
+    if (isOldDirectory() != isNewDirectory())
+      return SVNLogEntryPath.TYPE_REPLACED;
+
+    return isModified() ? SVNLogEntryPath.TYPE_MODIFIED : 0;
+  }
+
+  @NotNull
+  public SVNNodeKind getKind() {
+    final boolean dir = (logFlags & LOG_NEW_ENTRY) != 0 ? isNewDirectory() : isOldDirectory();
+    return dir ? SVNNodeKind.DIR : SVNNodeKind.FILE;
+  }
+
+  /**
+   * @return true, if old entry is directory and new entry is absent or is not directory.
+   */
+  public boolean isDirectoryRemoved() {
+    return isOldDirectory() && !((logFlags & LOG_NEW_ENTRY) != 0 && isNewDirectory());
+  }
+
+  private boolean isOldDirectory() {
+    return (logFlags & LOG_OLD_DIR) != 0;
+  }
+
+  private boolean isNewDirectory() {
+    return (logFlags & LOG_NEW_DIR) != 0;
+  }
+
+  /**
+   * @return true, if entry type or content is modified. Exact value requires entries comparison on {@link #needsCompare()}.
+   */
+  public boolean isModified() {
+    return (logFlags & LOG_MODIFIED) != 0;
+  }
+
+  /**
+   * @return true, if content is modified. Exact value requires entries comparison on {@link #needsCompare()}.
+   */
+  public boolean isContentModified() {
+    return (logFlags & LOG_CONTENT_MODIFIED) != 0;
+  }
+
+  /**
+   * @return true, if file mode, filter or upstream properties are changed: modification flags can't be detected
+   * without entries comparison.
+   */
+  public boolean needsCompare() {
+    return (logFlags & LOG_COMPARE) != 0;
+  }
+
   @Nullable
   private static ObjectId getFileId(@Nullable GitFile gitFile) {
     final GitObject<ObjectId> gitObject = gitFile == null ? null : gitFile.getObjectId();
     return gitObject == null ? null : gitObject.getObject();
   }
+
+  private static int getLogFlags(@NotNull GitLogPair logPair) throws IOException, SVNException {
+    final GitFile oldEntry = logPair.getOldEntry();
+    final GitFile newEntry = logPair.getNewEntry();
+    int flags = LOG_INFO;
+    if (oldEntry != null) {
+      flags |= LOG_OLD_ENTRY | (oldEntry.isDirectory() ? LOG_OLD_DIR : 0);
+    }
+    if (newEntry != null) {
+      flags |= LOG_NEW_ENTRY | (newEntry.isDirectory() ? LOG_NEW_DIR : 0);
+    }
+    if (oldEntry != null && newEntry != null && !oldEntry.equals(newEntry)) {
+      // Only cheap checks here: file content is not read on indexing.
+      try {
+        final boolean sameMode = Objects.equals(oldEntry.getFileMode(), newEntry.getFileMode());
+        final boolean contentChanged = !oldEntry.isDirectory() && !newEntry.isDirectory() && !Objects.equals(oldEntry.getObjectId(), newEntry.getObjectId());
+        final boolean sameFilter = Objects.equals(getFilterName(oldEntry), getFilterName(newEntry));
+        if (!sameMode || contentChanged) {
+          flags |= LOG_MODIFIED;
+        }
+        if (contentChanged && sameFilter) {
+          flags |= LOG_CONTENT_MODIFIED;
+        }
+        if (!sameMode || !sameFilter || !Objects.equals(oldEntry.getUpstreamProperties(), newEntry.getUpstreamProperties())) {
+          flags |= LOG_COMPARE;
+        }
+      } catch (SvnForbiddenException e) {
+        // Keep log information out of cache: log will compare trees like before.
+        return 0;
+      }
+    }
+    return flags;
+  }
+
+  @Nullable
+  private static String getFilterName(@NotNull GitFile file) {
+    final GitFilter filter = file.getFilter();
+    return filter == null ? null : filter.getName();
+  }
 }
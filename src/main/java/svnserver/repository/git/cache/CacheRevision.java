@@ -12,16 +12,18 @@ import com.esotericsoftware.kryo.KryoException;
 import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.revwalk.RevCommit;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.zip.CRC32;
 
 /**
  * Revision cache information.
@@ -31,8 +33,16 @@ import java.util.TreeMap;
 public class CacheRevision {
   @NotNull
   public static final CacheRevision empty = new CacheRevision();
+  // Kryo is used only to read legacy format.
   @NotNull
   private static final ThreadLocal<Kryo> kryo = createKryo();
+  private static final byte VERSION = 2;
+  private static final int CHECKSUM_SIZE = 4;
+  private static final int FLAG_OLD_FILE = 1;
+  private static final int FLAG_NEW_FILE = 2;
+  // Change log flags are stored after file flags.
+  private static final int LOG_FLAGS_SHIFT = 2;
+  private static final int MAX_PATH_SIZE = 0x10000;
 
   @Nullable
   private final ObjectId gitCommitId;
@@ -45,8 +55,12 @@ public class CacheRevision {
     this.gitCommitId = null;
   }
 
+  private CacheRevision(@Nullable ObjectId gitCommitId) {
+    this.gitCommitId = gitCommitId;
+  }
+
   public CacheRevision(
-      @Nullable RevCommit svnCommit,
+      @Nullable ObjectId svnCommit,
       @NotNull Map<String, String> renames,
       @NotNull Map<String, CacheChange> fileChange
   ) {
@@ -82,8 +96,98 @@ public class CacheRevision {
     });
   }
 
+  /**
+   * Parse revision cache in binary format.
+   *
+   * @param bytes Serialized revision cache.
+   * @return Revision cache or null, if it is absent, corrupted or has unsupported version.
+   */
   @Nullable
   public static CacheRevision deserialize(@Nullable byte[] bytes) {
+    if (bytes == null || bytes.length < CHECKSUM_SIZE + 1) {
+      return null;
+    }
+    final int size = bytes.length - CHECKSUM_SIZE;
+    final CRC32 crc = new CRC32();
+    crc.update(bytes, 0, size);
+    try {
+      if (new DataInputStream(new ByteArrayInputStream(bytes, size, CHECKSUM_SIZE)).readInt() != (int) crc.getValue()) {
+        return null;
+      }
+      final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes, 0, size));
+      if (input.readByte() != VERSION) {
+        return null;
+      }
+      final byte[] id = new byte[Constants.OBJECT_ID_LENGTH];
+      final CacheRevision result = new CacheRevision(input.readBoolean() ? readObjectId(input, id) : null);
+      final PathReader renamePaths = new PathReader();
+      for (int i = readVarInt(input); i > 0; --i) {
+        result.renames.put(renamePaths.read(input), readString(input));
+      }
+      final PathReader changePaths = new PathReader();
+      for (int i = readVarInt(input); i > 0; --i) {
+        final String path = changePaths.read(input);
+        final int flags = readVarInt(input);
+        final ObjectId oldFile = (flags & FLAG_OLD_FILE) != 0 ? readObjectId(input, id) : null;
+        final ObjectId newFile = (flags & FLAG_NEW_FILE) != 0 ? readObjectId(input, id) : null;
+        result.fileChange.put(path, new CacheChange(oldFile, newFile, flags >>> LOG_FLAGS_SHIFT));
+      }
+      return result;
+    } catch (IOException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Serialize revision cache in binary format.
+   * <p>
+   * Object ids are stored as raw bytes, sorted paths are prefix-compressed. Data is protected by checksum instead
+   * of check deserialization. Change flags are stored as varint: without log information they are single byte like
+   * in revisions cached by previous versions.
+   */
+  @NotNull
+  public static byte[] serialize(@NotNull CacheRevision cache) throws IOException {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    final DataOutputStream output = new DataOutputStream(stream);
+    output.writeByte(VERSION);
+    output.writeBoolean(cache.gitCommitId != null);
+    if (cache.gitCommitId != null) {
+      cache.gitCommitId.copyRawTo(output);
+    }
+    writeVarInt(output, cache.renames.size());
+    final PathWriter renamePaths = new PathWriter();
+    for (Map.Entry<String, String> entry : cache.renames.entrySet()) {
+      renamePaths.write(output, entry.getKey());
+      writeString(output, entry.getValue());
+    }
+    writeVarInt(output, cache.fileChange.size());
+    final PathWriter changePaths = new PathWriter();
+    for (Map.Entry<String, CacheChange> entry : cache.fileChange.entrySet()) {
+      changePaths.write(output, entry.getKey());
+      final CacheChange change = entry.getValue();
+      writeVarInt(output, (change.getOldFile() != null ? FLAG_OLD_FILE : 0) | (change.getNewFile() != null ? FLAG_NEW_FILE : 0) | (change.getLogFlags() << LOG_FLAGS_SHIFT));
+      if (change.getOldFile() != null) {
+        change.getOldFile().copyRawTo(output);
+      }
+      if (change.getNewFile() != null) {
+        change.getNewFile().copyRawTo(output);
+      }
+    }
+    output.flush();
+    final CRC32 crc = new CRC32();
+    crc.update(stream.toByteArray());
+    output.writeInt((int) crc.getValue());
+    return stream.toByteArray();
+  }
+
+  /**
+   * Parse revision cache in legacy Kryo format.
+   *
+   * @param bytes Serialized revision cache.
+   * @return Revision cache or null, if it is absent or corrupted.
+   */
+  @Nullable
+  public static CacheRevision deserializeLegacy(@Nullable byte[] bytes) {
     if (bytes != null) {
       try (final Input input = new Input(bytes)) {
         return kryo.get().readObjectOrNull(input, CacheRevision.class);
@@ -95,17 +199,83 @@ public class CacheRevision {
   }
 
   @NotNull
-  public static byte[] serialize(@NotNull CacheRevision cache) throws IOException {
-    try (final ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
-      try (Output output = new Output(stream)) {
-        kryo.get().writeObject(output, cache);
+  private static ObjectId readObjectId(@NotNull DataInput input, @NotNull byte[] buffer) throws IOException {
+    input.readFully(buffer);
+    return ObjectId.fromRaw(buffer);
+  }
+
+  private static void writeVarInt(@NotNull DataOutput output, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      output.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    output.writeByte(value);
+  }
+
+  private static int readVarInt(@NotNull DataInput input) throws IOException {
+    int result = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      final int b = input.readUnsignedByte();
+      result |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        if (result < 0) {
+          throw new IOException("Negative length");
+        }
+        return result;
       }
-      try (final Input input = new Input(stream.toByteArray())) {
-        kryo.get().readObjectOrNull(input, CacheRevision.class);
-      } catch (KryoException e) {
-        throw new IOException("Can't read serialized object", e);
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  private static void writeString(@NotNull DataOutput output, @NotNull String value) throws IOException {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(output, bytes.length);
+    output.write(bytes);
+  }
+
+  @NotNull
+  private static String readString(@NotNull DataInput input) throws IOException {
+    final byte[] bytes = new byte[readVarInt(input)];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes path as length of common prefix with previous path and remaining suffix.
+   */
+  private static final class PathWriter {
+    @NotNull
+    private byte[] last = new byte[0];
+
+    private void write(@NotNull DataOutput output, @NotNull String path) throws IOException {
+      final byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+      final int limit = Math.min(last.length, bytes.length);
+      int common = 0;
+      while (common < limit && last[common] == bytes[common]) {
+        common++;
+      }
+      writeVarInt(output, common);
+      writeVarInt(output, bytes.length - common);
+      output.write(bytes, common, bytes.length - common);
+      last = bytes;
+    }
+  }
+
+  private static final class PathReader {
+    @NotNull
+    private byte[] last = new byte[0];
+
+    @NotNull
+    private String read(@NotNull DataInput input) throws IOException {
+      final int common = readVarInt(input);
+      final int suffix = readVarInt(input);
+      if (common > last.length || suffix > MAX_PATH_SIZE) {
+        throw new IOException("Invalid path prefix");
       }
-      return stream.toByteArray();
+      final byte[] bytes = Arrays.copyOf(last, common + suffix);
+      input.readFully(bytes, common, suffix);
+      last = bytes;
+      return new String(bytes, StandardCharsets.UTF_8);
     }
   }
 
@@ -0,0 +1,140 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.filter;
+
+import com.google.common.io.BaseEncoding;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import svnserver.StringHelper;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+/**
+ * Filtered blob content metadata: size, checksums and binary flag.
+ * <p>
+ * Serialized as record: flags (1 byte), size (8 bytes), MD5 (16 bytes) and optional SHA-256 (32 bytes).
+ * SHA-256 is absent for records converted from legacy caches. Record with flags only keeps binary flag, detected
+ * by content head, while size and checksums are not requested yet.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class GitBlobMetadata {
+  private static final int MD5_LENGTH = 16;
+  private static final int SHA256_LENGTH = 32;
+  private static final int RECORD_LENGTH = 1 + 8 + MD5_LENGTH;
+  private static final byte FLAG_BINARY = 1;
+  private static final byte FLAG_SHA256 = 2;
+
+  private final long size;
+  @NotNull
+  private final byte[] md5;
+  @Nullable
+  private final byte[] sha256;
+  private final boolean binary;
+
+  public GitBlobMetadata(long size, @NotNull byte[] md5, @Nullable byte[] sha256, boolean binary) {
+    if (md5.length != MD5_LENGTH || (sha256 != null && sha256.length != SHA256_LENGTH)) {
+      throw new IllegalArgumentException("Unexpected checksum length");
+    }
+    this.size = size;
+    this.md5 = md5;
+    this.sha256 = sha256;
+    this.binary = binary;
+  }
+
+  public GitBlobMetadata(long size, @NotNull String md5, @Nullable String sha256, boolean binary) {
+    this(size, fromHex(md5), sha256 == null ? null : fromHex(sha256), binary);
+  }
+
+  /**
+   * @return Filtered content size in bytes.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * @return Filtered content MD5 checksum (hex).
+   */
+  @NotNull
+  public String getMd5() {
+    return StringHelper.toHex(md5);
+  }
+
+  /**
+   * @return Filtered content SHA-256 checksum (hex) or null, if it is unknown.
+   */
+  @Nullable
+  public String getSha256() {
+    return sha256 == null ? null : StringHelper.toHex(sha256);
+  }
+
+  /**
+   * @return True, if filtered content is detected as binary.
+   */
+  public boolean isBinary() {
+    return binary;
+  }
+
+  @NotNull
+  public byte[] serialize() {
+    final ByteBuffer buffer = ByteBuffer.allocate(sha256 == null ? RECORD_LENGTH : RECORD_LENGTH + SHA256_LENGTH);
+    buffer.put((byte) ((binary ? FLAG_BINARY : 0) | (sha256 == null ? 0 : FLAG_SHA256)));
+    buffer.putLong(size);
+    buffer.put(md5);
+    if (sha256 != null) {
+      buffer.put(sha256);
+    }
+    return buffer.array();
+  }
+
+  @NotNull
+  public static byte[] serializeBinary(boolean binary) {
+    return new byte[]{binary ? FLAG_BINARY : 0};
+  }
+
+  /**
+   * @return Binary flag of full or flags only record.
+   */
+  @Nullable
+  public static Boolean deserializeBinary(@Nullable byte[] data) {
+    if (data == null || data.length == 0) {
+      return null;
+    }
+    return (data[0] & FLAG_BINARY) != 0;
+  }
+
+  @Nullable
+  public static GitBlobMetadata deserialize(@Nullable byte[] data) {
+    if (data == null || data.length < RECORD_LENGTH) {
+      return null;
+    }
+    final ByteBuffer buffer = ByteBuffer.wrap(data);
+    final byte flags = buffer.get();
+    if (data.length != ((flags & FLAG_SHA256) != 0 ? RECORD_LENGTH + SHA256_LENGTH : RECORD_LENGTH)) {
+      return null;
+    }
+    final long size = buffer.getLong();
+    final byte[] md5 = new byte[MD5_LENGTH];
+    buffer.get(md5);
+    final byte[] sha256;
+    if ((flags & FLAG_SHA256) != 0) {
+      sha256 = new byte[SHA256_LENGTH];
+      buffer.get(sha256);
+    } else {
+      sha256 = null;
+    }
+    return new GitBlobMetadata(size, md5, sha256, (flags & FLAG_BINARY) != 0);
+  }
+
+  @NotNull
+  private static byte[] fromHex(@NotNull String hex) {
+    return BaseEncoding.base16().lowerCase().decode(hex.toLowerCase(Locale.ENGLISH));
+  }
+}
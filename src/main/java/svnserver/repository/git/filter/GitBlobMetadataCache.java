@@ -0,0 +1,195 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.filter;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mapdb.Atomic;
+import org.mapdb.DB;
+import org.mapdb.HTreeMap;
+import org.mapdb.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import svnserver.context.Shared;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Persistent blob metadata cache.
+ * <p>
+ * Key is filter id byte followed by raw 20-byte object id, value is {@link GitBlobMetadata} record.
+ * Filter ids are allocated on first use and stored in cache database.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class GitBlobMetadataCache implements Shared {
+  @NotNull
+  static final String METADATA_NAME = "cache.blob-metadata.v2";
+  @NotNull
+  static final String FILTER_ID_NAME = "cache.filter.id";
+  // Marker of finished legacy caches conversion.
+  @NotNull
+  static final String MIGRATED_NAME = "cache.blob-metadata.v2.migrated";
+  // Legacy binary flag cache: "<filter> <object id hex>" -> flag.
+  @NotNull
+  static final String LEGACY_BINARY_NAME = "cache.binary";
+  // Legacy per filter caches: "<object id hex>" -> MD5 hex and "<object id hex>" -> size.
+  @NotNull
+  private static final Pattern LEGACY_FILTER_NAME = Pattern.compile("cache\\.filter\\.([^.]+)\\.(md5|size)");
+  private static final int MAX_FILTER_ID = 0xFF;
+
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(GitBlobMetadataCache.class);
+  @NotNull
+  private final DB db;
+  @NotNull
+  private final HTreeMap<byte[], byte[]> metadata;
+  @NotNull
+  private final HTreeMap<String, Integer> filterIds;
+  @NotNull
+  private final Map<String, Byte> filterIdCache = new ConcurrentHashMap<>();
+
+  public GitBlobMetadataCache(@NotNull DB db) {
+    this.db = db;
+    this.metadata = db.hashMap(METADATA_NAME, Serializer.BYTE_ARRAY, Serializer.BYTE_ARRAY).createOrOpen();
+    this.filterIds = db.hashMap(FILTER_ID_NAME, Serializer.STRING, Serializer.INTEGER).createOrOpen();
+    migrate();
+  }
+
+  @Nullable
+  public GitBlobMetadata get(@NotNull GitFilter filter, @NotNull ObjectId objectId) {
+    return GitBlobMetadata.deserialize(metadata.get(createKey(filter.getName(), objectId)));
+  }
+
+  /**
+   * Store metadata record, if it is absent or only binary flag is known.
+   */
+  public void putIfAbsent(@NotNull GitFilter filter, @NotNull ObjectId objectId, @NotNull GitBlobMetadata value) {
+    final byte[] key = createKey(filter.getName(), objectId);
+    final byte[] data = value.serialize();
+    final byte[] old = metadata.putIfAbsent(key, data);
+    if (old != null && GitBlobMetadata.deserialize(old) == null) {
+      metadata.replace(key, old, data);
+    }
+  }
+
+  @Nullable
+  public Boolean getBinary(@NotNull GitFilter filter, @NotNull ObjectId objectId) {
+    return GitBlobMetadata.deserializeBinary(metadata.get(createKey(filter.getName(), objectId)));
+  }
+
+  public void putBinaryIfAbsent(@NotNull GitFilter filter, @NotNull ObjectId objectId, boolean binary) {
+    metadata.putIfAbsent(createKey(filter.getName(), objectId), GitBlobMetadata.serializeBinary(binary));
+  }
+
+  /**
+   * @return Records count, including records with binary flag only.
+   */
+  public long size() {
+    return metadata.sizeLong();
+  }
+
+  @NotNull
+  private byte[] createKey(@NotNull String filterName, @NotNull ObjectId objectId) {
+    final byte[] key = new byte[1 + Constants.OBJECT_ID_LENGTH];
+    key[0] = getFilterId(filterName);
+    objectId.copyRawTo(key, 1);
+    return key;
+  }
+
+  private byte getFilterId(@NotNull String filterName) {
+    final Byte cached = filterIdCache.get(filterName);
+    if (cached != null) {
+      return cached;
+    }
+    synchronized (filterIds) {
+      Integer id = filterIds.get(filterName);
+      if (id == null) {
+        id = filterIds.size() + 1;
+        if (id > MAX_FILTER_ID) {
+          throw new IllegalStateException("Too many filters in blob metadata cache");
+        }
+        filterIds.put(filterName, id);
+      }
+      final byte result = (byte) id.intValue();
+      filterIdCache.put(filterName, result);
+      return result;
+    }
+  }
+
+  /**
+   * Convert legacy MD5, size and binary flag caches to metadata records.
+   * <p>
+   * Only entries with known MD5, size and binary flag can be converted: other entries are dropped and will be computed
+   * again on demand. Legacy maps are cleared after conversion and conversion marker is stored, so conversion is
+   * done only once.
+   */
+  private void migrate() {
+    final Atomic.Boolean done = db.atomicBoolean(MIGRATED_NAME).createOrOpen();
+    if (done.get()) {
+      return;
+    }
+    final Set<String> filterNames = new TreeSet<>();
+    final List<String> legacyNames = new ArrayList<>();
+    for (String name : db.getAllNames()) {
+      final Matcher matcher = LEGACY_FILTER_NAME.matcher(name);
+      if (matcher.matches()) {
+        filterNames.add(matcher.group(1));
+        legacyNames.add(name);
+      } else if (name.equals(LEGACY_BINARY_NAME)) {
+        legacyNames.add(name);
+      }
+    }
+    if (legacyNames.stream().allMatch(name -> ((Map<?, ?>) db.get(name)).isEmpty())) {
+      done.set(true);
+      db.commit();
+      return;
+    }
+    final long beginTime = System.currentTimeMillis();
+    int migrated = 0;
+    if (db.exists(LEGACY_BINARY_NAME)) {
+      final HTreeMap<String, Boolean> legacyBinary = db.hashMap(LEGACY_BINARY_NAME, Serializer.STRING, Serializer.BOOLEAN).createOrOpen();
+      for (String filterName : filterNames) {
+        final String md5Name = "cache.filter." + filterName + ".md5";
+        final String sizeName = "cache.filter." + filterName + ".size";
+        if (!db.exists(md5Name) || !db.exists(sizeName)) {
+          continue;
+        }
+        final HTreeMap<String, String> legacyMd5 = db.hashMap(md5Name, Serializer.STRING, Serializer.STRING).createOrOpen();
+        final HTreeMap<String, Long> legacySize = db.hashMap(sizeName, Serializer.STRING, Serializer.LONG).createOrOpen();
+        for (Map.Entry<String, String> entry : legacyMd5.getEntries()) {
+          final Long size = legacySize.get(entry.getKey());
+          final Boolean binary = legacyBinary.get(filterName + " " + entry.getKey());
+          if (size == null || binary == null || !ObjectId.isId(entry.getKey())) {
+            continue;
+          }
+          final GitBlobMetadata value;
+          try {
+            value = new GitBlobMetadata(size, entry.getValue(), null, binary);
+          } catch (IllegalArgumentException e) {
+            continue;
+          }
+          metadata.putIfAbsent(createKey(filterName, ObjectId.fromString(entry.getKey())), value.serialize());
+          migrated++;
+        }
+      }
+    }
+    for (String name : legacyNames) {
+      final Map<?, ?> map = db.get(name);
+      map.clear();
+    }
+    done.set(true);
+    db.commit();
+    log.info("{} cached blob metadata records converted from legacy caches, {} legacy caches cleared: {} ms", migrated, legacyNames.size(), System.currentTimeMillis() - beginTime);
+  }
+}
@@ -63,6 +63,31 @@ public interface GitFilter {
    */
   long getSize(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException;
 
+  /**
+   * Get object metadata (size, checksums and binary flag).
+   *
+   * @param objectId Object reference.
+   * @return Object metadata.
+   */
+  @NotNull
+  default GitBlobMetadata getMetadata(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    try (InputStream stream = inputStream(objectId)) {
+      return GitFilterHelper.createMetadata(stream);
+    }
+  }
+
+  /**
+   * Check, is object content binary.
+   *
+   * @param objectId Object reference.
+   * @return True, if object content head is detected as binary.
+   */
+  default boolean isBinary(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    try (InputStream stream = inputStream(objectId)) {
+      return GitFilterHelper.isBinary(stream);
+    }
+  }
+
   /**
    * Get object stream.
    *
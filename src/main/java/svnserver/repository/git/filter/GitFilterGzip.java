@@ -18,7 +18,6 @@ import svnserver.repository.git.GitObject;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Map;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -29,13 +28,10 @@ import java.util.zip.GZIPOutputStream;
  */
 public class GitFilterGzip implements GitFilter {
   @NotNull
-  private final Map<String, String> cacheMd5;
-  @NotNull
-  private final Map<String, Long> cacheSize;
+  private final GitBlobMetadataCache cacheMetadata;
 
   public GitFilterGzip(@NotNull LocalContext context) {
-    this.cacheMd5 = GitFilterHelper.getCacheMd5(this, context.getShared().getCacheDB());
-    this.cacheSize = GitFilterHelper.getCacheSize(this, context.getShared().getCacheDB());
+    this.cacheMetadata = GitFilterHelper.getCacheMetadata(context);
   }
 
   @NotNull
@@ -47,12 +43,23 @@ public class GitFilterGzip implements GitFilter {
   @NotNull
   @Override
   public String getMd5(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
-    return GitFilterHelper.getMd5(this, cacheMd5, cacheSize, objectId);
+    return getMetadata(objectId).getMd5();
   }
 
   @Override
   public long getSize(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
-    return GitFilterHelper.getSize(this, cacheMd5, cacheSize, objectId);
+    return getMetadata(objectId).getSize();
+  }
+
+  @Override
+  public boolean isBinary(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    return GitFilterHelper.isBinary(this, cacheMetadata, objectId);
+  }
+
+  @NotNull
+  @Override
+  public GitBlobMetadata getMetadata(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    return GitFilterHelper.getMetadata(this, cacheMetadata, objectId);
   }
 
   @NotNull
@@ -10,16 +10,15 @@ package svnserver.repository.git.filter;
 import org.atteo.classindex.ClassIndex;
 import org.eclipse.jgit.lib.ObjectId;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
-import org.mapdb.DB;
-import org.mapdb.HTreeMap;
-import org.mapdb.Serializer;
 import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import svnserver.HashHelper;
-import svnserver.StringHelper;
 import svnserver.context.LocalContext;
+import svnserver.context.SharedContext;
+import svnserver.repository.VcsSupplier;
 import svnserver.repository.git.GitObject;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Modifier;
@@ -34,64 +33,89 @@ import java.util.Map;
  */
 public final class GitFilterHelper {
   private static final int BUFFER_SIZE = 32 * 1024;
+  // Same as content head size used by SVNFileUtil.detectMimeType.
+  private static final int BINARY_PREFIX_SIZE = 1024;
 
   private GitFilterHelper() {
   }
 
-  public static long getSize(@NotNull GitFilter filter, @Nullable Map<String, String> cacheMd5, @NotNull Map<String, Long> cacheSize, @NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
-    final Long size = cacheSize.get(objectId.getObject().name());
-    if (size != null) {
-      return size;
-    }
-    return createMetadata(objectId, filter, cacheMd5, cacheSize).size;
+  /**
+   * Get blob metadata from cache or compute it by single pass over filtered content.
+   */
+  @NotNull
+  public static GitBlobMetadata getMetadata(@NotNull GitFilter filter, @NotNull GitBlobMetadataCache cacheMetadata, @NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    return getMetadata(filter, cacheMetadata, objectId, () -> {
+      try (InputStream stream = filter.inputStream(objectId)) {
+        return createMetadata(stream);
+      }
+    });
   }
 
+  /**
+   * Get blob metadata from cache or compute it with given loader.
+   */
   @NotNull
-  public static String getMd5(@NotNull GitFilter filter, @NotNull Map<String, String> cacheMd5, @Nullable Map<String, Long> cacheSize, @NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
-    final String md5 = cacheMd5.get(objectId.getObject().name());
-    if (md5 != null) {
-      return md5;
+  public static GitBlobMetadata getMetadata(@NotNull GitFilter filter, @NotNull GitBlobMetadataCache cacheMetadata, @NotNull GitObject<? extends ObjectId> objectId, @NotNull VcsSupplier<GitBlobMetadata> loader) throws IOException, SVNException {
+    final GitBlobMetadata cached = cacheMetadata.get(filter, objectId.getObject());
+    if (cached != null) {
+      return cached;
     }
-    //noinspection ConstantConditions
-    return createMetadata(objectId, filter, cacheMd5, cacheSize).md5;
+    final GitBlobMetadata metadata = loader.get();
+    cacheMetadata.putIfAbsent(filter, objectId.getObject(), metadata);
+    return metadata;
   }
 
-  @NotNull
-  public static HTreeMap<String, String> getCacheMd5(@NotNull GitFilter filter, @NotNull DB cacheDb) {
-    return cacheDb.hashMap("cache.filter." + filter.getName() + ".md5", Serializer.STRING, Serializer.STRING).createOrOpen();
+  /**
+   * Get binary flag from cache or detect it by content head: full metadata is computed only on MD5 or size request.
+   */
+  public static boolean isBinary(@NotNull GitFilter filter, @NotNull GitBlobMetadataCache cacheMetadata, @NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    final Boolean cached = cacheMetadata.getBinary(filter, objectId.getObject());
+    if (cached != null) {
+      return cached;
+    }
+    final boolean binary;
+    try (InputStream stream = filter.inputStream(objectId)) {
+      binary = isBinary(stream);
+    }
+    cacheMetadata.putBinaryIfAbsent(filter, objectId.getObject(), binary);
+    return binary;
   }
 
   @NotNull
-  public static HTreeMap<String, Long> getCacheSize(@NotNull GitFilter filter, @NotNull DB cacheDb) {
-    return cacheDb.hashMap("cache.filter." + filter.getName() + ".size", Serializer.STRING, Serializer.LONG).createOrOpen();
+  public static GitBlobMetadataCache getCacheMetadata(@NotNull LocalContext context) {
+    final SharedContext shared = context.getShared();
+    return shared.getOrCreate(GitBlobMetadataCache.class, () -> new GitBlobMetadataCache(shared.getCacheDB()));
   }
 
+  /**
+   * Compute content size, checksums and binary flag by single stream read.
+   */
   @NotNull
-  private static Metadata createMetadata(@NotNull GitObject<? extends ObjectId> objectId, @NotNull GitFilter filter, @Nullable Map<String, String> cacheMd5, @Nullable Map<String, Long> cacheSize) throws IOException, SVNException {
+  public static GitBlobMetadata createMetadata(@NotNull InputStream stream) throws IOException {
     final byte[] buffer = new byte[BUFFER_SIZE];
-    try (final InputStream stream = filter.inputStream(objectId)) {
-      final MessageDigest digest = cacheMd5 != null ? HashHelper.md5() : null;
-      long totalSize = 0;
-      while (true) {
-        int bytes = stream.read(buffer);
-        if (bytes <= 0) break;
-        if (digest != null) {
-          digest.update(buffer, 0, bytes);
-        }
-        totalSize += bytes;
-      }
-      final String md5;
-      if ((cacheMd5 != null) && (digest != null)) {
-        md5 = StringHelper.toHex(digest.digest());
-        cacheMd5.putIfAbsent(objectId.getObject().name(), md5);
-      } else {
-        md5 = null;
+    final byte[] prefix = new byte[BINARY_PREFIX_SIZE];
+    final MessageDigest md5 = HashHelper.md5();
+    final MessageDigest sha256 = HashHelper.sha256();
+    long totalSize = 0;
+    while (true) {
+      int bytes = stream.read(buffer);
+      if (bytes <= 0) break;
+      if (totalSize < prefix.length) {
+        System.arraycopy(buffer, 0, prefix, (int) totalSize, (int) Math.min(bytes, prefix.length - totalSize));
       }
-      if (cacheSize != null) {
-        cacheSize.putIfAbsent(objectId.getObject().name(), totalSize);
-      }
-      return new Metadata(totalSize, md5);
+      md5.update(buffer, 0, bytes);
+      sha256.update(buffer, 0, bytes);
+      totalSize += bytes;
     }
+    final boolean binary = isBinary(new ByteArrayInputStream(prefix, 0, (int) Math.min(totalSize, prefix.length)));
+    return new GitBlobMetadata(totalSize, md5.digest(), sha256.digest(), binary);
+  }
+
+  /**
+   * Detect binary content by stream head.
+   */
+  public static boolean isBinary(@NotNull InputStream stream) throws IOException {
+    return SVNFileUtil.detectMimeType(stream) != null;
   }
 
   @NotNull
@@ -112,15 +136,4 @@ public final class GitFilterHelper {
     }
     return result;
   }
-
-  private static class Metadata {
-    private final long size;
-    @Nullable
-    private final String md5;
-
-    private Metadata(long size, @Nullable String md5) {
-      this.size = size;
-      this.md5 = md5;
-    }
-  }
 }
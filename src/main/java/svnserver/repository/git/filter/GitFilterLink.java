@@ -22,7 +22,6 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StreamCorruptedException;
 import java.nio.charset.StandardCharsets;
-import java.util.Map;
 
 /**
  * Get object for symbolic link.
@@ -35,10 +34,10 @@ public class GitFilterLink implements GitFilter {
   @NotNull
   public static final String NAME = "link";
   @NotNull
-  private final Map<String, String> cacheMd5;
+  private final GitBlobMetadataCache cacheMetadata;
 
   public GitFilterLink(@NotNull LocalContext context) {
-    this.cacheMd5 = GitFilterHelper.getCacheMd5(this, context.getShared().getCacheDB());
+    this.cacheMetadata = GitFilterHelper.getCacheMetadata(context);
   }
 
   @NotNull
@@ -50,7 +49,7 @@ public class GitFilterLink implements GitFilter {
   @NotNull
   @Override
   public String getMd5(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
-    return GitFilterHelper.getMd5(this, cacheMd5, null, objectId);
+    return getMetadata(objectId).getMd5();
   }
 
   @Override
@@ -59,6 +58,17 @@ public class GitFilterLink implements GitFilter {
     return reader.getObjectSize(objectId.getObject(), Constants.OBJ_BLOB) + LINK_PREFIX.length;
   }
 
+  @Override
+  public boolean isBinary(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    return GitFilterHelper.isBinary(this, cacheMetadata, objectId);
+  }
+
+  @NotNull
+  @Override
+  public GitBlobMetadata getMetadata(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    return GitFilterHelper.getMetadata(this, cacheMetadata, objectId);
+  }
+
   @NotNull
   @Override
   public InputStream inputStream(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
@@ -21,7 +21,6 @@ import svnserver.repository.git.GitObject;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Map;
 
 /**
  * Get object as is.
@@ -30,12 +29,12 @@ import java.util.Map;
  */
 public final class GitFilterRaw implements GitFilter {
   @NotNull
-  private final Map<String, String> cacheMd5;
+  private final GitBlobMetadataCache cacheMetadata;
   @NotNull
   public static final String NAME = "raw";
 
   public GitFilterRaw(@NotNull LocalContext context) {
-    this.cacheMd5 = GitFilterHelper.getCacheMd5(this, context.getShared().getCacheDB());
+    this.cacheMetadata = GitFilterHelper.getCacheMetadata(context);
   }
 
   @NotNull
@@ -47,7 +46,7 @@ public final class GitFilterRaw implements GitFilter {
   @NotNull
   @Override
   public String getMd5(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
-    return GitFilterHelper.getMd5(this, cacheMd5, null, objectId);
+    return getMetadata(objectId).getMd5();
   }
 
   @Override
@@ -56,6 +55,17 @@ public final class GitFilterRaw implements GitFilter {
     return reader.getObjectSize(objectId.getObject(), Constants.OBJ_BLOB);
   }
 
+  @Override
+  public boolean isBinary(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    return GitFilterHelper.isBinary(this, cacheMetadata, objectId);
+  }
+
+  @NotNull
+  @Override
+  public GitBlobMetadata getMetadata(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    return GitFilterHelper.getMetadata(this, cacheMetadata, objectId);
+  }
+
   @NotNull
   @Override
   public InputStream inputStream(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
@@ -10,12 +10,15 @@ package svnserver.server;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import org.jetbrains.annotations.NotNull;
+import org.mapdb.DB;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.VersionInfo;
 import svnserver.config.Config;
 import svnserver.config.serializer.ConfigSerializer;
+import svnserver.context.CacheReport;
+import svnserver.repository.git.filter.GitBlobMetadataCache;
 
 import java.io.File;
 import java.io.IOException;
@@ -45,6 +48,10 @@ public class Main {
       if (cmd.showConfig) {
         log.info("Actual config:\n{}", serializer.dump(config));
       }
+      if (cmd.cacheReport) {
+        cacheReport(cmd.configuration.getAbsoluteFile().getParentFile(), config);
+        return;
+      }
       final SvnServer server = new SvnServer(cmd.configuration.getAbsoluteFile().getParentFile(), config);
       server.start();
       Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -61,6 +68,28 @@ public class Main {
     }
   }
 
+  /**
+   * Report persistent cache size before and after cache layout migration.
+   */
+  private static void cacheReport(@NotNull File basePath, @NotNull Config config) throws IOException {
+    final DB db = config.getCacheConfig().createCache(basePath);
+    try {
+      final CacheReport before = CacheReport.create(db);
+      log.info("Cache size before migration:\n{}", before.format());
+      new GitBlobMetadataCache(db);
+      db.commit();
+      log.info("Cache size after migration:\n{}", CacheReport.create(db).format());
+      // Store doesn't shrink after entries removal until compaction.
+      db.getStore().compact();
+      db.commit();
+      final CacheReport after = CacheReport.create(db);
+      log.info("Cache size after compaction:\n{}", after.format());
+      log.info("Cache logical size changed from {} to {} bytes, store size changed from {} to {} bytes", before.getLogicalBytes(), after.getLogicalBytes(), before.getStoreBytes(), after.getStoreBytes());
+    } finally {
+      db.close();
+    }
+  }
+
   public static class CmdArgs {
     @Parameter(names = {"-c", "--config"}, description = "Configuration file name", required = true)
     @NotNull
@@ -72,6 +101,9 @@ public class Main {
     @Parameter(names = {"--unsafe"}, description = "Allow unsafe developer-only configuration options")
     private boolean unsafeConfig = false;
 
+    @Parameter(names = {"--cache-report"}, description = "Migrate persistent cache to actual layout, compact it, report cache size before and after, and exit")
+    private boolean cacheReport = false;
+
     @Parameter(names = {"-h", "--help"}, description = "Show help", help = true)
     private boolean help = false;
   }
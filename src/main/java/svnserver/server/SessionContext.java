@@ -17,15 +17,19 @@ import svnserver.StringHelper;
 import svnserver.auth.User;
 import svnserver.parser.SvnServerParser;
 import svnserver.parser.SvnServerWriter;
+import svnserver.parser.svndiff.SvnDiffCodec;
 import svnserver.repository.RepositoryInfo;
 import svnserver.repository.VcsAccess;
 import svnserver.repository.VcsFile;
 import svnserver.repository.VcsRepository;
+import svnserver.server.command.DeltaCache;
+import svnserver.server.command.DeltaStats;
 import svnserver.server.msg.ClientInfo;
 import svnserver.server.step.Step;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 /**
  * SVN client session context.
@@ -67,8 +71,51 @@ public final class SessionContext {
     this.capabilities = new HashSet<>(Arrays.asList(clientInfo.getCapabilities()));
   }
 
-  public boolean isCompressionEnabled() {
-    return server.isCompressionEnabled() && hasCapability("svndiff1");
+  /**
+   * Delta format for this client: preferred codec or weaker one, supported by client.
+   */
+  @NotNull
+  public SvnDiffCodec getDeltaCodec() {
+    if (!server.isCompressionEnabled()) {
+      return SvnDiffCodec.None;
+    }
+    final SvnDiffCodec codec = server.getDeltaCodec();
+    if (codec == SvnDiffCodec.Lz4 && hasCapability("accepts-svndiff2")) {
+      return SvnDiffCodec.Lz4;
+    }
+    if (codec != SvnDiffCodec.None && hasCapability("svndiff1")) {
+      return SvnDiffCodec.Zlib;
+    }
+    return SvnDiffCodec.None;
+  }
+
+  /**
+   * Shared pool for background delta computation.
+   *
+   * @return Pool or null, if delta look-ahead is disabled.
+   */
+  @Nullable
+  public ExecutorService getDeltaExecutor() {
+    return server.getDeltaExecutor();
+  }
+
+  /**
+   * Shared cache of encoded deltas.
+   *
+   * @return Cache or null, if cache is disabled.
+   */
+  @Nullable
+  public DeltaCache getDeltaCache() {
+    return server.getContext().get(DeltaCache.class);
+  }
+
+  @NotNull
+  public DeltaStats getDeltaStats() {
+    return server.getContext().getOrCreate(DeltaStats.class, DeltaStats::new);
+  }
+
+  public int getDeltaLookAhead() {
+    return server.getDeltaLookAhead();
   }
 
   public void authenticate(boolean allowAnonymous) throws IOException, SVNException {
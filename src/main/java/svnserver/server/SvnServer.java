@@ -8,6 +8,7 @@
 package svnserver.server;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tmatesoft.svn.core.SVNErrorCode;
@@ -23,22 +24,33 @@ import svnserver.parser.MessageParser;
 import svnserver.parser.SvnServerParser;
 import svnserver.parser.SvnServerToken;
 import svnserver.parser.SvnServerWriter;
+import svnserver.parser.svndiff.SvnDiffCodec;
 import svnserver.parser.token.ListBeginToken;
 import svnserver.parser.token.ListEndToken;
 import svnserver.repository.RepositoryInfo;
 import svnserver.repository.VcsAccess;
-import svnserver.repository.VcsRepository;
 import svnserver.repository.VcsRepositoryMapping;
+import svnserver.repository.git.GitCommitCache;
+import svnserver.repository.git.GitFileCache;
+import svnserver.repository.git.GitIndexingPool;
+import svnserver.repository.git.GitPropertyCache;
+import svnserver.repository.git.GitRefWatcher;
+import svnserver.repository.git.GitRenameDetector;
+import svnserver.repository.git.GitTreeCache;
+import svnserver.repository.git.filter.GitBlobMetadataCache;
 import svnserver.server.command.*;
+import svnserver.server.engine.ConnectionEngine;
+import svnserver.server.engine.SessionSelector;
 import svnserver.server.msg.AuthReq;
 import svnserver.server.msg.ClientInfo;
 import svnserver.server.step.Step;
 
-import java.io.BufferedOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.net.*;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -56,6 +68,7 @@ public final class SvnServer extends Thread implements ThreadFactory {
   @NotNull
   private static final Logger log = LoggerFactory.getLogger(SvnServer.class);
   private static final long FORCE_SHUTDOWN = TimeUnit.SECONDS.toMillis(5);
+  private static final int REJECT_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(5);
   @NotNull
   private static final Set<SVNErrorCode> WARNING_CODES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
       SVNErrorCode.CANCELLED,
@@ -79,7 +92,11 @@ public final class SvnServer extends Thread implements ThreadFactory {
   @NotNull
   private final ServerSocket serverSocket;
   @NotNull
-  private final ExecutorService poolExecutor;
+  private final ConnectionEngine connectionEngine;
+  @Nullable
+  private final SessionSelector sessionSelector;
+  @Nullable
+  private final ExecutorService deltaExecutor;
   @NotNull
   private final AtomicBoolean stopped = new AtomicBoolean(false);
   @NotNull
@@ -94,6 +111,22 @@ public final class SvnServer extends Thread implements ThreadFactory {
 
     context = SharedContext.create(basePath, config.getCacheConfig().createCache(basePath), config.getShared());
     context.add(UserDB.class, config.getUserDB().create(context));
+    context.add(GitCommitCache.class, new GitCommitCache(config.getCommitCacheSize()));
+    context.add(GitTreeCache.class, new GitTreeCache(config.getTreeCacheSize()));
+    context.add(GitFileCache.class, new GitFileCache(config.getFileCacheSize()));
+    context.add(GitPropertyCache.class, new GitPropertyCache(config.getPropertyCacheSize()));
+    context.add(GitBlobMetadataCache.class, new GitBlobMetadataCache(context.getCacheDB()));
+    context.add(GitRenameDetector.class, new GitRenameDetector(config.getRenameCandidateLimit(), config.getRenameTimeout(), config.getRenameBigFileThreshold()));
+    if (config.getRefWatchInterval() > 0) {
+      context.add(GitRefWatcher.class, new GitRefWatcher(config.getRefWatchInterval()));
+    }
+    if (config.canUseParallelIndexing()) {
+      context.add(GitIndexingPool.class, new GitIndexingPool());
+    }
+    context.add(DeltaStats.class, new DeltaStats());
+    if (config.getDeltaCacheMemorySize() > 0) {
+      context.add(DeltaCache.class, new DeltaCache(context.getCacheDB(), config.getDeltaCacheMemorySize(), config.getDeltaCacheDiskEntries()));
+    }
 
     commands.put("commit", new CommitCmd());
     commands.put("diff", new DeltaCmd(DiffParams.class));
@@ -127,10 +160,26 @@ public final class SvnServer extends Thread implements ThreadFactory {
 
     context.add(VcsRepositoryMapping.class, repositoryMapping);
 
-    serverSocket = new ServerSocket();
+    if (config.isNioFrontend()) {
+      // Sockets accepted by channel-backed server socket can be parked in selector.
+      serverSocket = ServerSocketChannel.open().socket();
+      sessionSelector = new SessionSelector(this);
+    } else {
+      serverSocket = new ServerSocket();
+      sessionSelector = null;
+    }
     serverSocket.setReuseAddress(config.getReuseAddress());
     serverSocket.bind(new InetSocketAddress(InetAddress.getByName(config.getHost()), config.getPort()));
-    poolExecutor = Executors.newCachedThreadPool(this);
+    connectionEngine = config.getConnections().create(this);
+    if (config.getDeltaLookAhead() > 0) {
+      deltaExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+        final Thread thread = new Thread(r, String.format("SvnServer-delta-%s", threadNumber.incrementAndGet()));
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      deltaExecutor = null;
+    }
 
     context.ready();
   }
@@ -164,70 +213,207 @@ public final class SvnServer extends Thread implements ThreadFactory {
         log.error("Error accepting client connection", e);
         continue;
       }
-      long sessionId = lastSessionId.incrementAndGet();
-      poolExecutor.execute(() -> {
-        log.info("New connection from: {}", client.getRemoteSocketAddress());
-        try (Socket clientSocket = client) {
-          connections.put(sessionId, client);
-          serveClient(clientSocket);
-        } catch (EOFException | SocketException ignore) {
-          // client disconnect is not a error
-        } catch (SVNException | IOException e) {
-          log.info("Client error:", e);
-        } finally {
-          connections.remove(sessionId);
-          log.info("Connection from {} closed", client.getRemoteSocketAddress());
-        }
-      });
+      final ClientSession session;
+      try {
+        session = new ClientSession(lastSessionId.incrementAndGet(), client, connectionEngine.acquireAddress(client));
+      } catch (RejectedExecutionException e) {
+        rejectClient(client, e.getMessage());
+        continue;
+      }
+      try {
+        connectionEngine.execute(session);
+      } catch (RejectedExecutionException e) {
+        session.close();
+        rejectClient(client, e.getMessage());
+      }
     }
   }
 
-  private void serveClient(@NotNull Socket socket) throws IOException, SVNException {
-    socket.setTcpNoDelay(true);
-    final SvnServerWriter writer = new SvnServerWriter(new BufferedOutputStream(socket.getOutputStream()));
-    final SvnServerParser parser = new SvnServerParser(socket.getInputStream());
+  private static void rejectClient(@NotNull Socket client, @NotNull String message) {
+    log.warn("Connection from {} rejected: {}", client.getRemoteSocketAddress(), message);
+    try (Socket clientSocket = client) {
+      clientSocket.setSoTimeout(REJECT_TIMEOUT);
+      BaseCmd.sendError(new SvnServerWriter(clientSocket.getOutputStream()), SVNErrorMessage.create(SVNErrorCode.RA_SVN_CONNECTION_CLOSED, message));
+    } catch (IOException ignored) {
+      // client disconnect is not a error
+    }
+  }
 
-    final ClientInfo clientInfo = exchangeCapabilities(parser, writer);
-    final RepositoryInfo repositoryInfo = repositoryMapping.getRepository(clientInfo.getUrl());
-    if (repositoryInfo == null) {
-      BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_REPOS_NOT_FOUND, "Repository not found: " + clientInfo.getUrl()));
-      return;
+  /**
+   * Client connection state.
+   * <p>
+   * Session is processed on worker thread while it has something to do. With NIO front-end idle session
+   * (waiting for next command) is parked in {@link SessionSelector} and resumed on new data from client.
+   */
+  private final class ClientSession implements Runnable, SessionSelector.Session {
+    private final long sessionId;
+    @NotNull
+    private final Socket socket;
+    @NotNull
+    private final ConnectionEngine.Lease addressLease;
+    @NotNull
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    @Nullable
+    private ConnectionEngine.Lease userLease;
+    @Nullable
+    private SessionContext context;
+    private boolean resumed = false;
+
+    private ClientSession(long sessionId, @NotNull Socket socket, @NotNull ConnectionEngine.Lease addressLease) {
+      this.sessionId = sessionId;
+      this.socket = socket;
+      this.addressLease = addressLease;
+      connections.put(sessionId, socket);
     }
-    final SessionContext context = new SessionContext(parser, writer, this, repositoryInfo, clientInfo);
-    context.authenticate(hasAnonymousAuthenticator(repositoryInfo));
-    final VcsRepository repository = context.getRepository();
-    repository.updateRevisions();
-    sendAnnounce(writer, repositoryInfo);
 
-    while (!isInterrupted()) {
+    @Override
+    public void run() {
+      boolean parked = false;
       try {
-        Step step = context.poll();
-        if (step != null) {
-          step.process(context);
-          continue;
-        }
-
-        final SvnServerToken token = parser.readToken();
-        if (token != ListBeginToken.instance) {
-          throw new IOException("Unexpected token: " + token);
+        if (context == null) {
+          log.info("New connection from: {}", socket.getRemoteSocketAddress());
+          context = openSession();
+          if (context == null) {
+            return;
+          }
         }
-        final String cmd = parser.readText();
-        final BaseCmd<?> command = commands.get(cmd);
-        if (command != null) {
-          log.debug("Receive command: {}", cmd);
-          processCommand(context, command, parser);
-        } else {
-          log.warn("Unsupported command: {}", cmd);
-          BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_UNKNOWN_CMD, "Unsupported command: " + cmd));
-          parser.skipItems();
+        final boolean canPark = !resumed;
+        resumed = false;
+        parked = serveCommands(context, canPark);
+      } catch (EOFException | SocketException ignore) {
+        // client disconnect is not a error
+      } catch (SVNException | IOException e) {
+        log.info("Client error:", e);
+      } finally {
+        if (!parked) {
+          close();
         }
+      }
+    }
+
+    @Nullable
+    private SessionContext openSession() throws IOException, SVNException {
+      socket.setTcpNoDelay(true);
+      final SvnServerWriter writer = new SvnServerWriter(socket.getOutputStream());
+      final SvnServerParser parser = new SvnServerParser(socket.getInputStream());
+
+      final ClientInfo clientInfo = exchangeCapabilities(parser, writer);
+      final RepositoryInfo repositoryInfo = repositoryMapping.getRepository(clientInfo.getUrl());
+      if (repositoryInfo == null) {
+        BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_REPOS_NOT_FOUND, "Repository not found: " + clientInfo.getUrl()));
+        return null;
+      }
+      final SessionContext sessionContext = new SessionContext(parser, writer, SvnServer.this, repositoryInfo, clientInfo);
+      sessionContext.authenticate(hasAnonymousAuthenticator(repositoryInfo));
+      try {
+        userLease = connectionEngine.acquireUser(sessionContext.getUser());
       } catch (SVNException e) {
-        if (WARNING_CODES.contains(e.getErrorMessage().getErrorCode())) {
-          log.warn("Command execution error: {}", e.getMessage());
-        } else {
-          log.error("Command execution error", e);
-        }
+        log.warn("Connection rejected: {}", e.getMessage());
         BaseCmd.sendError(writer, e.getErrorMessage());
+        return null;
+      }
+      // With ref watcher revisions are updated in background.
+      if (getContext().get(GitRefWatcher.class) == null) {
+        sessionContext.getRepository().updateRevisions();
+      }
+      sendAnnounce(writer, repositoryInfo);
+      return sessionContext;
+    }
+
+    /**
+     * Process client commands.
+     *
+     * @param context Session context.
+     * @param canPark Can session be parked before reading next command.
+     * @return True, if session is parked in selector.
+     */
+    private boolean serveCommands(@NotNull SessionContext context, boolean canPark) throws IOException {
+      final SvnServerParser parser = context.getParser();
+      final SvnServerWriter writer = context.getWriter();
+      boolean waitCommand = canPark;
+      while (!isInterrupted()) {
+        try {
+          Step step = context.poll();
+          if (step != null) {
+            step.process(context);
+            continue;
+          }
+          if (waitCommand && sessionSelector != null && hasChannel() && !parser.hasBufferedData()) {
+            // Idle session keeps only socket: buffers are allocated again on resume.
+            parser.releaseBuffers();
+            writer.releaseBuffers();
+            if (sessionSelector.park(this)) {
+              return true;
+            }
+          }
+          waitCommand = true;
+
+          final SvnServerToken token = parser.readToken();
+          if (token != ListBeginToken.instance) {
+            throw new IOException("Unexpected token: " + token);
+          }
+          final String cmd = parser.readText();
+          final BaseCmd<?> command = commands.get(cmd);
+          if (command != null) {
+            log.debug("Receive command: {}", cmd);
+            processCommand(context, command, parser);
+          } else {
+            log.warn("Unsupported command: {}", cmd);
+            BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_UNKNOWN_CMD, "Unsupported command: " + cmd));
+            parser.skipItems();
+          }
+        } catch (SVNException e) {
+          if (WARNING_CODES.contains(e.getErrorMessage().getErrorCode())) {
+            log.warn("Command execution error: {}", e.getMessage());
+          } else {
+            log.error("Command execution error", e);
+          }
+          BaseCmd.sendError(writer, e.getErrorMessage());
+        }
+      }
+      return false;
+    }
+
+    private boolean hasChannel() {
+      return socket.getChannel() != null;
+    }
+
+    @NotNull
+    @Override
+    public SocketChannel getChannel() {
+      return socket.getChannel();
+    }
+
+    @Override
+    public void resume() {
+      resumed = true;
+      try {
+        connectionEngine.resume(this);
+      } catch (RejectedExecutionException e) {
+        close();
+      }
+    }
+
+    @Override
+    public void close() {
+      if (!closed.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        socket.close();
+      } catch (IOException e) {
+        log.warn("Can't close client socket", e);
+      }
+      connections.remove(sessionId);
+      if (userLease != null) {
+        userLease.close();
+      }
+      addressLease.close();
+      if (context != null) {
+        final SvnServerWriter writer = context.getWriter();
+        log.info("Connection from {} closed (sent {} bytes, {} writes, {} flushes)", socket.getRemoteSocketAddress(), writer.getBytesWritten(), writer.getWriteCount(), writer.getFlushCount());
+      } else {
+        log.info("Connection from {} closed", socket.getRemoteSocketAddress());
       }
     }
   }
@@ -261,6 +447,7 @@ public final class SvnServer extends Thread implements ThreadFactory {
 
     if (config.isCompressionEnabled()) {
       writer.word("svndiff1");         // We support svndiff1 (compression)
+      writer.word("accepts-svndiff2"); // We can read svndiff2 (LZ4 compression)
     }
     // End capabilities block.
     writer
@@ -358,16 +545,23 @@ public final class SvnServer extends Thread implements ThreadFactory {
     if (stopped.compareAndSet(false, true)) {
       log.info("Shutdown server");
       serverSocket.close();
-      poolExecutor.shutdown();
+      if (sessionSelector != null) {
+        // Idle sessions have nothing to finish.
+        sessionSelector.close();
+      }
+      connectionEngine.shutdown();
     }
   }
 
   public void shutdown(long millis) throws Exception {
     startShutdown();
-    if (!poolExecutor.awaitTermination(millis, TimeUnit.MILLISECONDS)) {
+    if (!connectionEngine.awaitTermination(millis, TimeUnit.MILLISECONDS)) {
       forceShutdown();
     }
     join(millis);
+    if (deltaExecutor != null) {
+      deltaExecutor.shutdownNow();
+    }
     context.close();
     log.info("Server shutdowned");
   }
@@ -376,10 +570,24 @@ public final class SvnServer extends Thread implements ThreadFactory {
     for (Socket socket : connections.values()) {
       socket.close();
     }
-    poolExecutor.awaitTermination(FORCE_SHUTDOWN, TimeUnit.MILLISECONDS);
+    connectionEngine.awaitTermination(FORCE_SHUTDOWN, TimeUnit.MILLISECONDS);
   }
 
   boolean isCompressionEnabled() {
     return config.isCompressionEnabled();
   }
+
+  @NotNull
+  SvnDiffCodec getDeltaCodec() {
+    return config.getDeltaCodec();
+  }
+
+  @Nullable
+  ExecutorService getDeltaExecutor() {
+    return deltaExecutor;
+  }
+
+  int getDeltaLookAhead() {
+    return config.getDeltaLookAhead();
+  }
 }
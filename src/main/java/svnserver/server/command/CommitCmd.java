@@ -15,13 +15,14 @@ import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNURL;
-import org.tmatesoft.svn.core.internal.delta.SVNDeltaReader;
 import svnserver.StringHelper;
 import svnserver.parser.MessageParser;
 import svnserver.parser.SvnServerParser;
 import svnserver.parser.SvnServerWriter;
+import svnserver.parser.svndiff.SvnDiffReader;
 import svnserver.parser.token.ListBeginToken;
 import svnserver.parser.token.ListEndToken;
+import svnserver.parser.token.StringToken;
 import svnserver.repository.*;
 import svnserver.repository.locks.LockDesc;
 import svnserver.repository.locks.LockManagerWrite;
@@ -198,9 +199,9 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
     @NotNull
     private final String token;
     @NotNull
-    private final byte[] chunk;
+    private final StringToken chunk;
 
-    public DeltaChunkParams(@NotNull String token, @NotNull byte[] chunk) {
+    public DeltaChunkParams(@NotNull String token, @NotNull StringToken chunk) {
       this.token = token;
       this.chunk = chunk;
     }
@@ -239,7 +240,7 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
     @NotNull
     private final VcsDeltaConsumer deltaConsumer;
     @NotNull
-    private final SVNDeltaReader reader = new SVNDeltaReader();
+    private final SvnDiffReader reader = new SvnDiffReader();
 
     public FileUpdater(@NotNull VcsDeltaConsumer deltaConsumer) {
       this.deltaConsumer = deltaConsumer;
@@ -505,7 +506,8 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
     }
 
     private void deltaChunk(@NotNull SessionContext context, @NotNull DeltaChunkParams args) throws SVNException, IOException {
-      getFile(args.token).reader.nextWindow(args.chunk, 0, args.chunk.length, "", getFile(args.token).deltaConsumer);
+      final FileUpdater file = getFile(args.token);
+      file.reader.nextWindow(args.chunk.getArray(), args.chunk.getOffset(), args.chunk.getLength(), "", file.deltaConsumer);
     }
 
     private void deltaEnd(@NotNull SessionContext context, @NotNull TokenParams args) throws SVNException, IOException {
@@ -0,0 +1,135 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.mapdb.HTreeMap;
+import org.mapdb.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import svnserver.context.Shared;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Encoded delta windows, shared between sessions.
+ * <p>
+ * Recently used deltas are kept in memory, evicted ones are moved to cache database.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class DeltaCache implements Shared {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(DeltaCache.class);
+
+  @NotNull
+  private final DB memoryDb;
+  @NotNull
+  private final HTreeMap<String, byte[]> memory;
+  @NotNull
+  private final HTreeMap<String, byte[]> disk;
+  @NotNull
+  private final AtomicLong hits = new AtomicLong();
+  @NotNull
+  private final AtomicLong misses = new AtomicLong();
+
+  public DeltaCache(@NotNull DB cacheDb, long memorySize, long diskEntries) {
+    disk = cacheDb.hashMap("cache.delta", Serializer.STRING, Serializer.BYTE_ARRAY)
+        .expireAfterGet()
+        .expireMaxSize(diskEntries)
+        .createOrOpen();
+    memoryDb = DBMaker.memoryDB().make();
+    memory = memoryDb.hashMap("cache.delta", Serializer.STRING, Serializer.BYTE_ARRAY)
+        .expireAfterGet()
+        .expireStoreSize(memorySize)
+        .expireOverflow(disk)
+        .create();
+  }
+
+  /**
+   * Get encoded delta windows.
+   *
+   * @param key Delta key: source and target content hashes with delta codec.
+   * @return Delta windows or null, if delta is not cached.
+   */
+  @Nullable
+  public List<byte[]> get(@NotNull String key) {
+    byte[] data = memory.get(key);
+    if (data == null) {
+      data = disk.get(key);
+      if (data != null) {
+        memory.put(key, data);
+      }
+    }
+    if (data == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    try {
+      return decode(data);
+    } catch (IOException e) {
+      log.warn("Can't decode cached delta: {}", key, e);
+      memory.remove(key);
+      disk.remove(key);
+      return null;
+    }
+  }
+
+  public void put(@NotNull String key, @NotNull List<byte[]> windows) {
+    memory.put(key, encode(windows));
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  @NotNull
+  private static byte[] encode(@NotNull List<byte[]> windows) {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(stream)) {
+      output.writeInt(windows.size());
+      for (byte[] window : windows) {
+        output.writeInt(window.length);
+        output.write(window);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return stream.toByteArray();
+  }
+
+  @NotNull
+  private static List<byte[]> decode(@NotNull byte[] data) throws IOException {
+    final DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+    final int count = input.readInt();
+    final List<byte[]> windows = new ArrayList<>(count);
+    for (int i = 0; i < count; ++i) {
+      final byte[] window = new byte[input.readInt()];
+      input.readFully(window);
+      windows.add(window);
+    }
+    return windows;
+  }
+
+  @Override
+  public void close() {
+    log.info("Delta cache: {} hits, {} misses", hits.get(), misses.get());
+    memoryDb.close();
+  }
+}
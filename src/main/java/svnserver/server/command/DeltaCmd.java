@@ -19,6 +19,7 @@ import svnserver.StringHelper;
 import svnserver.parser.MessageParser;
 import svnserver.parser.SvnServerParser;
 import svnserver.parser.SvnServerWriter;
+import svnserver.parser.svndiff.SvnDiffCodec;
 import svnserver.parser.token.ListBeginToken;
 import svnserver.parser.token.ListEndToken;
 import svnserver.repository.Depth;
@@ -30,6 +31,7 @@ import svnserver.server.step.CheckPermissionStep;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Delta commands.
@@ -115,6 +117,12 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
 
   @NotNull
   private static final Logger log = LoggerFactory.getLogger(DeltaCmd.class);
+  /**
+   * Prepared delta is kept in memory until written: larger files are streamed from session thread.
+   */
+  private static final long MAX_PREPARED_SIZE = 1024 * 1024;
+  @NotNull
+  private static final ThreadLocal<SVNDeltaGenerator> deltaGenerators = ThreadLocal.withInitial(SVNDeltaGenerator::new);
 
   @Override
   protected void processCommand(@NotNull SessionContext context, @NotNull DeltaParams args) throws IOException, SVNException {
@@ -156,6 +164,133 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
     }
   }
 
+  /**
+   * File delta, computed in background before file is reached by editor drive.
+   */
+  private static final class PreparedDelta {
+    @Nullable
+    private final VcsFile source;
+    @NotNull
+    private final String md5;
+    @NotNull
+    private final List<byte[]> windows;
+
+    private PreparedDelta(@Nullable VcsFile source, @NotNull String md5, @NotNull List<byte[]> windows) {
+      this.source = source;
+      this.md5 = md5;
+      this.windows = windows;
+    }
+  }
+
+  private static final class EntryUpdate {
+    @NotNull
+    private final String wcPath;
+    @Nullable
+    private final VcsFile oldFile;
+    @NotNull
+    private final VcsFile newFile;
+    @NotNull
+    private final Depth wcDepth;
+
+    private EntryUpdate(@NotNull String wcPath, @Nullable VcsFile oldFile, @NotNull VcsFile newFile, @NotNull Depth wcDepth) {
+      this.wcPath = wcPath;
+      this.oldFile = oldFile;
+      this.newFile = newFile;
+      this.wcDepth = wcDepth;
+    }
+  }
+
+  /**
+   * Compute file delta.
+   *
+   * @return Delta or null, if delta should be streamed on session thread (large file, unchanged content or error).
+   */
+  @Nullable
+  private static PreparedDelta prepareDelta(@Nullable DeltaCache cache, @Nullable VcsFile oldFile, @NotNull VcsFile newFile, @NotNull SvnDiffCodec codec) {
+    try {
+      if (newFile.getSize() > MAX_PREPARED_SIZE) {
+        return null;
+      }
+      final String newHash = newFile.getContentHash();
+      final String oldHash = oldFile != null ? oldFile.getContentHash() : "";
+      if (newHash.equals(oldHash)) {
+        return null;
+      }
+      final String md5 = newFile.getMd5();
+      final String cacheKey = getCacheKey(codec, oldHash, newHash);
+      if (cache != null) {
+        final List<byte[]> cached = cache.get(cacheKey);
+        if (cached != null) {
+          return new PreparedDelta(oldFile, md5, cached);
+        }
+      }
+      final List<byte[]> windows = new ArrayList<>();
+      final String validateMd5;
+      try (InputStream source = openStream(oldFile);
+           InputStream target = newFile.openStream()) {
+        validateMd5 = deltaGenerators.get().sendDelta(newFile.getFileName(), source, 0, target, new ISVNDeltaConsumer() {
+          private boolean header = true;
+
+          @Override
+          public void applyTextDelta(String path, String baseChecksum) throws SVNException {
+          }
+
+          @Override
+          public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+            final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            try {
+              codec.writeTo(diffWindow, stream, header);
+            } catch (IOException e) {
+              throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_WRITE_ERROR), e);
+            }
+            header = false;
+            windows.add(stream.toByteArray());
+            return null;
+          }
+
+          @Override
+          public void textDeltaEnd(String path) throws SVNException {
+          }
+        }, true);
+      }
+      if (!validateMd5.equals(md5)) {
+        return null;
+      }
+      if (cache != null) {
+        cache.put(cacheKey, windows);
+      }
+      return new PreparedDelta(oldFile, md5, windows);
+    } catch (IOException | SVNException | RuntimeException e) {
+      // Session thread will get same error with proper handling.
+      log.debug("Can't prepare delta for file: {}", newFile.getFileName(), e);
+      return null;
+    }
+  }
+
+  /**
+   * Get file delta from cache without computing it.
+   *
+   * @return Delta or null, if delta is not cached.
+   */
+  @Nullable
+  private static PreparedDelta getCachedDelta(@Nullable DeltaCache cache, @Nullable VcsFile oldFile, @NotNull VcsFile newFile, @NotNull String md5, @NotNull SvnDiffCodec codec) throws IOException, SVNException {
+    if (cache == null) {
+      return null;
+    }
+    final List<byte[]> cached = cache.get(getCacheKey(codec, oldFile != null ? oldFile.getContentHash() : "", newFile.getContentHash()));
+    return cached != null ? new PreparedDelta(oldFile, md5, cached) : null;
+  }
+
+  @NotNull
+  private static String getCacheKey(@NotNull SvnDiffCodec codec, @NotNull String oldHash, @NotNull String newHash) {
+    return codec.name() + ":" + oldHash + ":" + newHash;
+  }
+
+  @NotNull
+  private static InputStream openStream(@Nullable VcsFile file) throws IOException, SVNException {
+    return file == null ? new ByteArrayInputStream(new byte[0]) : file.openStream();
+  }
+
   public static class ReportPipeline {
     private int lastTokenId;
     @NotNull
@@ -170,6 +305,12 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
     private final Map<String, SetPathParams> paths = new HashMap<>();
     @NotNull
     private final Deque<HeaderEntry> pathStack = new ArrayDeque<>();
+    // Deltas of next files in editor drive order, computed on shared pool.
+    @NotNull
+    private final Map<VcsFile, Future<PreparedDelta>> prepared = new IdentityHashMap<>();
+    // Reused between files: generator owns window-sized buffers.
+    @Nullable
+    private SVNDeltaGenerator deltaGenerator;
 
     @FunctionalInterface
     private interface HeaderWriter {
@@ -313,7 +454,14 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
         newFile = context.getFile(rev, targetPath);
 
       final VcsFile oldFile = getPrevFile(context, path, context.getFile(rootRev, fullPath));
-      updateEntry(context, path, oldFile, newFile, tokenId, path.isEmpty(), rootParams.depth, params.getDepth());
+      try {
+        updateEntry(context, path, oldFile, newFile, tokenId, path.isEmpty(), rootParams.depth, params.getDepth());
+      } finally {
+        for (Future<PreparedDelta> future : prepared.values()) {
+          future.cancel(true);
+        }
+        prepared.clear();
+      }
       writer
           .listBegin()
           .word("close-dir")
@@ -323,12 +471,18 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
 
     protected void sendResponse(@NotNull SessionContext context, @NotNull String path, int rev) throws IOException, SVNException {
       final SvnServerWriter writer = getWriter(context);
-      sendDelta(context, path, rev);
-      writer
-          .listBegin()
-          .word("close-edit")
-          .listBegin().listEnd()
-          .listEnd();
+      // Editor drive is sent without waiting for client: flush only on full buffer.
+      writer.cork();
+      try {
+        sendDelta(context, path, rev);
+        writer
+            .listBegin()
+            .word("close-edit")
+            .listBegin().listEnd()
+            .listEnd();
+      } finally {
+        writer.uncork();
+      }
       final SvnServerParser parser = context.getParser();
       parser.readToken(ListBeginToken.class);
 
@@ -481,6 +635,7 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
         removeEntry(context, entryPath, newFile.getLastChange().getId(), tokenId);
       }
 
+      final List<EntryUpdate> updates = new ArrayList<>();
       for (VcsFile newEntry : newFile.getEntries()) {
         final String entryPath = joinPath(wcPath, newEntry.getFileName());
         final VcsFile oldEntry = getPrevFile(context, entryPath, oldEntries.get(newEntry.getFileName()));
@@ -494,13 +649,68 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
         if (action == Depth.Action.Skip)
           continue;
 
-        final Depth entryDepth = getWcDepth(entryPath, wcDepth);
-        updateEntry(context, entryPath, action == Depth.Action.Upgrade ? null : oldEntry, newEntry, tokenId, false, entryDepth, requestedDepth.deepen());
+        updates.add(new EntryUpdate(entryPath, action == Depth.Action.Upgrade ? null : oldEntry, newEntry, getWcDepth(entryPath, wcDepth)));
+      }
+
+      int next = 0;
+      for (int i = 0; i < updates.size(); ++i) {
+        next = prepareDeltas(context, updates, Math.max(next, i));
+        final EntryUpdate update = updates.get(i);
+        updateEntry(context, update.wcPath, update.oldFile, update.newFile, tokenId, false, update.wcDepth, requestedDepth.deepen());
+      }
+    }
+
+    /**
+     * Start background delta computation for next files of directory.
+     *
+     * @return Index of first entry, which is not processed yet.
+     */
+    private int prepareDeltas(@NotNull SessionContext context, @NotNull List<EntryUpdate> updates, int first) throws IOException {
+      final ExecutorService executor = context.getDeltaExecutor();
+      if (executor == null || !params.needDeltas()) {
+        return updates.size();
+      }
+      final SvnDiffCodec codec = context.getDeltaCodec();
+      final DeltaCache cache = context.getDeltaCache();
+      int next = first;
+      while (next < updates.size() && prepared.size() < context.getDeltaLookAhead()) {
+        final EntryUpdate update = updates.get(next);
+        if (update.newFile.isDirectory()) {
+          // Directory subtree is sent before next files: keep look-ahead budget for it.
+          break;
+        }
+        next++;
+        if (update.oldFile != null && update.oldFile.isDirectory()) {
+          continue;
+        }
+        try {
+          prepared.put(update.newFile, executor.submit(() -> prepareDelta(cache, update.oldFile, update.newFile, codec)));
+        } catch (RejectedExecutionException ignored) {
+          // Server shutdown in progress.
+          return updates.size();
+        }
+      }
+      return next;
+    }
+
+    @Nullable
+    private PreparedDelta takePreparedDelta(@NotNull VcsFile newFile) throws IOException {
+      final Future<PreparedDelta> future = prepared.remove(newFile);
+      if (future == null) {
+        return null;
+      }
+      try {
+        return future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      } catch (ExecutionException e) {
+        return null;
       }
     }
 
     private void updateProps(@NotNull SessionContext context, @NotNull String type, @NotNull String tokenId, @Nullable VcsFile oldFile, @NotNull VcsFile newFile) throws IOException, SVNException {
-      final Map<String, String> oldProps = oldFile != null ? oldFile.getProperties() : new HashMap<>();
+      final Map<String, String> oldProps = oldFile != null ? new HashMap<>(oldFile.getProperties()) : new HashMap<>();
       if (oldFile == null) {
         getWriter(context);
       }
@@ -516,7 +726,8 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
 
     private void updateFile(@NotNull SessionContext context, @NotNull String wcPath, @Nullable VcsFile prevFile, @NotNull VcsFile newFile, @NotNull String parentTokenId) throws IOException, SVNException {
       final String tokenId = createTokenId();
-      final String md5 = newFile.getMd5();
+      final PreparedDelta prepared = takePreparedDelta(newFile);
+      final String md5 = prepared != null ? prepared.md5 : newFile.getMd5();
       try (final HeaderEntry header = sendEntryHeader(context, wcPath, prevFile, newFile, "file", parentTokenId, tokenId, writer -> writer
           .listBegin()
           .word("close-file")
@@ -540,12 +751,36 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
               .listEnd()
               .listEnd();
 
-          if (params.needDeltas()) {
-            final SVNDeltaGenerator deltaGenerator = new SVNDeltaGenerator();
+          final PreparedDelta delta;
+          if (prepared != null && prepared.source == oldFile) {
+            delta = prepared;
+            context.getDeltaStats().addPrepared();
+          } else if (params.needDeltas()) {
+            // Session thread doesn't compute deltas into memory: only cached delta is used, otherwise delta is streamed.
+            delta = getCachedDelta(context.getDeltaCache(), oldFile, newFile, md5, context.getDeltaCodec());
+            if (delta != null) {
+              context.getDeltaStats().addCached();
+            }
+          } else {
+            delta = null;
+          }
+          if (delta != null) {
+            for (byte[] window : delta.windows) {
+              writer
+                  .listBegin()
+                  .word("textdelta-chunk")
+                  .listBegin()
+                  .string(tokenId)
+                  .binary(window)
+                  .listEnd()
+                  .listEnd();
+            }
+          } else if (params.needDeltas()) {
+            context.getDeltaStats().addStreamed();
             try (InputStream source = openStream(oldFile);
                  InputStream target = newFile.openStream()) {
-              final boolean compress = context.isCompressionEnabled();
-              final String validateMd5 = deltaGenerator.sendDelta(newFile.getFileName(), source, 0, target, new ISVNDeltaConsumer() {
+              final SvnDiffCodec codec = context.getDeltaCodec();
+              final String validateMd5 = getDeltaGenerator().sendDelta(newFile.getFileName(), source, 0, target, new ISVNDeltaConsumer() {
                 private boolean header = true;
 
                 @Override
@@ -554,15 +789,21 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
 
                 @Override
                 public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
-                  try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
-                    diffWindow.writeTo(stream, header, compress);
-                    header = false;
+                  final boolean writeHeader = header;
+                  header = false;
+                  try {
                     writer
                         .listBegin()
                         .word("textdelta-chunk")
                         .listBegin()
-                        .string(tokenId)
-                        .binary(stream.toByteArray())
+                        .string(tokenId);
+                    if (codec != SvnDiffCodec.None) {
+                      // Compressed size is unknown before compression.
+                      writer.binary(stream -> codec.writeTo(diffWindow, stream, writeHeader));
+                    } else {
+                      writer.binary(getWindowSize(diffWindow, writeHeader), stream -> diffWindow.writeTo(stream, writeHeader, false));
+                    }
+                    writer
                         .listEnd()
                         .listEnd();
                     return null;
@@ -593,8 +834,36 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
     }
 
     @NotNull
-    private InputStream openStream(@Nullable VcsFile file) throws IOException, SVNException {
-      return file == null ? new ByteArrayInputStream(new byte[0]) : file.openStream();
+    private SVNDeltaGenerator getDeltaGenerator() {
+      if (deltaGenerator == null) {
+        deltaGenerator = new SVNDeltaGenerator();
+      }
+      return deltaGenerator;
+    }
+
+    /**
+     * Uncompressed svndiff0 window size, as written by {@link SVNDiffWindow#writeTo(OutputStream, boolean, boolean)}.
+     */
+    private static int getWindowSize(@NotNull SVNDiffWindow window, boolean writeHeader) {
+      int size = writeHeader ? SVNDiffWindow.SVN_HEADER.length : 0;
+      if (window.hasInstructions()) {
+        size += getVarIntSize(window.getSourceViewOffset())
+            + getVarIntSize(window.getSourceViewLength())
+            + getVarIntSize(window.getTargetViewLength())
+            + getVarIntSize(window.getInstructionsLength())
+            + getVarIntSize(window.getNewDataLength())
+            + window.getInstructionsLength()
+            + window.getNewDataLength();
+      }
+      return size;
+    }
+
+    private static int getVarIntSize(long value) {
+      int size = 1;
+      while ((value >>>= 7) != 0) {
+        size++;
+      }
+      return size;
     }
 
     @NotNull
@@ -0,0 +1,69 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import svnserver.context.Shared;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File delta statistics: how file deltas were sent to clients.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class DeltaStats implements Shared {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(DeltaStats.class);
+  @NotNull
+  private final AtomicLong prepared = new AtomicLong();
+  @NotNull
+  private final AtomicLong cached = new AtomicLong();
+  @NotNull
+  private final AtomicLong streamed = new AtomicLong();
+
+  void addPrepared() {
+    prepared.incrementAndGet();
+  }
+
+  void addCached() {
+    cached.incrementAndGet();
+  }
+
+  void addStreamed() {
+    streamed.incrementAndGet();
+  }
+
+  /**
+   * @return Count of deltas, computed ahead on delta pool.
+   */
+  public long getPrepared() {
+    return prepared.get();
+  }
+
+  /**
+   * @return Count of deltas, taken from delta cache on session thread.
+   */
+  public long getCached() {
+    return cached.get();
+  }
+
+  /**
+   * @return Count of deltas, streamed window by window on session thread.
+   */
+  public long getStreamed() {
+    return streamed.get();
+  }
+
+  @Override
+  public void close() {
+    log.info("File deltas: {} prepared, {} cached, {} streamed", prepared.get(), cached.get(), streamed.get());
+  }
+}
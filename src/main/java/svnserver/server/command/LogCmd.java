@@ -14,13 +14,14 @@ import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.SvnServerWriter;
 import svnserver.repository.VcsCopyFrom;
 import svnserver.repository.VcsLogEntry;
+import svnserver.repository.VcsPathChanges;
+import svnserver.repository.VcsRepository;
 import svnserver.repository.VcsRevision;
 import svnserver.server.SessionContext;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 
 /**
@@ -100,6 +101,16 @@ public final class LogCmd extends BaseCmd<LogCmd.Params> {
   @Override
   protected void processCommand(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
     final SvnServerWriter writer = context.getWriter();
+    // Log entries are sent without waiting for client: flush only on full buffer.
+    writer.cork();
+    try {
+      sendLog(context, writer, args);
+    } finally {
+      writer.uncork();
+    }
+  }
+
+  private void sendLog(@NotNull SessionContext context, @NotNull SvnServerWriter writer, @NotNull Params args) throws IOException, SVNException {
     final int head = context.getRepository().getLatestRevision().getId();
     int endRev = getRevision(args.endRev, head);
     int startRev = getRevision(args.startRev, 1);
@@ -109,62 +120,34 @@ public final class LogCmd extends BaseCmd<LogCmd.Params> {
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NO_SUCH_REVISION, "No such revision " + Math.max(startRev, endRev)));
     }
 
-    final List<VcsRevision> log;
-    if (startRev >= endRev) {
-      log = getLog(context, args, startRev, endRev, args.limit);
-    } else {
-      final List<VcsRevision> logReverse = getLog(context, args, endRev, startRev, -1);
-      final int minIndex = args.limit <= 0 ? 0 : Math.max(0, logReverse.size() - args.limit);
-      log = new ArrayList<>(logReverse.size() - minIndex);
-      for (int i = logReverse.size() - 1; i >= minIndex; i--) {
-        log.add(logReverse.get(i));
+    // Log entries are found lazily and sent without collecting: limit stops history walk.
+    final boolean descending = startRev >= endRev;
+    final List<PathHistory> histories = new ArrayList<>();
+    for (String target : args.targetPath) {
+      final PathHistory history = new PathHistory(context.getRepository(), context.getRepositoryPath(target), Math.max(startRev, endRev), Math.min(startRev, endRev), args.strictNode, descending);
+      if (history.getRevision() >= 0) {
+        histories.add(history);
       }
     }
-    for (VcsRevision revisionInfo : log) {
-      writer
-          .listBegin()
-          .listBegin();
-      if (args.changedPaths) {
-        final Map<String, ? extends VcsLogEntry> changes = revisionInfo.getChanges();
-        writer.separator();
-        for (Map.Entry<String, ? extends VcsLogEntry> entry : changes.entrySet()) {
-          final VcsLogEntry logEntry = entry.getValue();
-          final char change = logEntry.getChange();
-          if (change == 0) continue;
-          writer
-              .listBegin()
-              .string(entry.getKey()) // Path
-              .word(change)
-              .listBegin();
-          final VcsCopyFrom copyFrom = logEntry.getCopyFrom();
-          if (copyFrom != null) {
-            writer.string(copyFrom.getPath());
-            writer.number(copyFrom.getRevision());
-          }
-          writer.listEnd()
-              .listBegin()
-              .string(logEntry.getKind().toString())
-              .bool(logEntry.isContentModified()) // text-mods
-              .bool(logEntry.isPropertyModified()) // prop-mods
-              .listEnd()
-              .listEnd()
-              .separator();
+    int sent = 0;
+    while (args.limit <= 0 || sent < args.limit) {
+      int revision = -1;
+      for (PathHistory history : histories) {
+        final int candidate = history.getRevision();
+        if (candidate >= 0 && (revision < 0 || (descending ? candidate > revision : candidate < revision))) {
+          revision = candidate;
         }
       }
-
-      final Map<String, String> revProps = revisionInfo.getProperties(false);
-
-      writer.listEnd()
-          .number(revisionInfo.getId())
-          .listBegin().stringNullable(revisionInfo.getAuthor()).listEnd()
-          .listBegin().stringNullable(revisionInfo.getDateString()).listEnd()
-          .listBegin().stringNullable(revisionInfo.getLog()).listEnd()
-          .bool(false)
-          .bool(false)
-          .number(revProps.size())
-          .writeMap(revProps)
-          .listEnd()
-          .separator();
+      if (revision < 0) {
+        break;
+      }
+      for (PathHistory history : histories) {
+        if (history.getRevision() == revision) {
+          history.next();
+        }
+      }
+      sendRevision(writer, args, context.getRepository().getRevisionInfo(revision));
+      sent++;
     }
     writer
         .word("done");
@@ -176,53 +159,148 @@ public final class LogCmd extends BaseCmd<LogCmd.Params> {
         .listEnd();
   }
 
-  private List<VcsRevision> getLog(@NotNull SessionContext context, @NotNull Params args, int endRev, int startRev, int limit) throws IOException, SVNException {
-    final List<VcsCopyFrom> targetPaths = new ArrayList<>();
-    int revision = -1;
-    for (String target : args.targetPath) {
-      final String fullTargetPath = context.getRepositoryPath(target);
-      final int lastChange = context.getRepository().getLastChange(fullTargetPath, endRev);
-      if (lastChange >= startRev) {
-        targetPaths.add(new VcsCopyFrom(lastChange, fullTargetPath));
-        revision = Math.max(revision, lastChange);
+  private void sendRevision(@NotNull SvnServerWriter writer, @NotNull Params args, @NotNull VcsRevision revisionInfo) throws IOException, SVNException {
+    writer
+        .listBegin()
+        .listBegin();
+    if (args.changedPaths) {
+      final Map<String, ? extends VcsLogEntry> changes = revisionInfo.getChanges();
+      writer.separator();
+      for (Map.Entry<String, ? extends VcsLogEntry> entry : changes.entrySet()) {
+        final VcsLogEntry logEntry = entry.getValue();
+        final char change = logEntry.getChange();
+        if (change == 0) continue;
+        writer
+            .listBegin()
+            .string(entry.getKey()) // Path
+            .word(change)
+            .listBegin();
+        final VcsCopyFrom copyFrom = logEntry.getCopyFrom();
+        if (copyFrom != null) {
+          writer.string(copyFrom.getPath());
+          writer.number(copyFrom.getRevision());
+        }
+        writer.listEnd()
+            .listBegin()
+            .string(logEntry.getKind().toString())
+            .bool(logEntry.isContentModified()) // text-mods
+            .bool(logEntry.isPropertyModified()) // prop-mods
+            .listEnd()
+            .listEnd()
+            .separator();
+      }
+    }
+
+    final Map<String, String> revProps = revisionInfo.getProperties(false);
+
+    writer.listEnd()
+        .number(revisionInfo.getId())
+        .listBegin().stringNullable(revisionInfo.getAuthor()).listEnd()
+        .listBegin().stringNullable(revisionInfo.getDateString()).listEnd()
+        .listBegin().stringNullable(revisionInfo.getLog()).listEnd()
+        .bool(false)
+        .bool(false)
+        .number(revProps.size())
+        .writeMap(revProps)
+        .listEnd()
+        .separator();
+  }
+
+  /**
+   * Path history, following copies.
+   * <p>
+   * History is stored as segments (newest first): revision, where path was changed or copied to, and path changes
+   * since its creation before this revision.
+   */
+  private static final class PathHistory {
+    @NotNull
+    private final List<Segment> segments = new ArrayList<>();
+    private final int minRevision;
+    private final boolean descending;
+    private int segment;
+    private int index;
+    private int revision;
+
+    private PathHistory(@NotNull VcsRepository repository, @NotNull String path, int maxRevision, int minRevision, boolean strictNode, boolean descending) throws IOException, SVNException {
+      this.minRevision = minRevision;
+      this.descending = descending;
+      String segmentPath = path;
+      int top = repository.getLastChange(path, maxRevision);
+      while (top >= minRevision) {
+        final Segment item = new Segment(top, repository.getPathChanges(segmentPath, top - 1));
+        segments.add(item);
+        final int created = item.get(0);
+        if (strictNode || created <= minRevision) {
+          break;
+        }
+        final VcsCopyFrom copyFrom = repository.getRevisionInfo(created).getCopyFrom(segmentPath);
+        if (copyFrom == null) {
+          break;
+        }
+        segmentPath = copyFrom.getPath();
+        top = copyFrom.getRevision();
+      }
+      if (descending) {
+        segment = 0;
+        index = segments.isEmpty() ? 0 : segments.get(0).size() - 1;
+      } else {
+        segment = segments.size() - 1;
+        index = segments.isEmpty() ? 0 : segments.get(segment).ceilingIndex(minRevision);
       }
+      update();
+    }
+
+    /**
+     * @return Current revision or -1, if history is over.
+     */
+    private int getRevision() {
+      return revision;
     }
-    final List<VcsRevision> result = new ArrayList<>();
-    int logLimit = limit;
-    while (revision >= startRev) {
-      final VcsRevision revisionInfo = context.getRepository().getRevisionInfo(revision);
-      result.add(revisionInfo);
-      if (--logLimit == 0) break;
-
-      int nextRevision = -1;
-      final ListIterator<VcsCopyFrom> iter = targetPaths.listIterator();
-      while (iter.hasNext()) {
-        final VcsCopyFrom entry = iter.next();
-        if (revision == entry.getRevision()) {
-          final int lastChange = context.getRepository().getLastChange(entry.getPath(), revision - 1);
-          if (lastChange >= revision) {
-            throw new IllegalStateException();
-          }
-          if (lastChange < 0) {
-            if (args.strictNode) {
-              iter.remove();
-              continue;
-            }
-            final VcsCopyFrom copyFrom = revisionInfo.getCopyFrom(entry.getPath());
-            if (copyFrom != null) {
-              iter.set(copyFrom);
-              nextRevision = Math.max(nextRevision, copyFrom.getRevision());
-            } else {
-              iter.remove();
-            }
-          } else {
-            iter.set(new VcsCopyFrom(lastChange, entry.getPath()));
-            nextRevision = Math.max(nextRevision, lastChange);
-          }
+
+    private void next() {
+      if (descending) {
+        if (--index < 0 && ++segment < segments.size()) {
+          index = segments.get(segment).size() - 1;
+        }
+      } else {
+        if (++index >= segments.get(segment).size()) {
+          segment--;
+          index = 0;
         }
       }
-      revision = nextRevision;
+      update();
+    }
+
+    private void update() {
+      if (segment < 0 || segment >= segments.size()) {
+        revision = -1;
+        return;
+      }
+      final int value = segments.get(segment).get(index);
+      revision = value >= minRevision ? value : -1;
+    }
+  }
+
+  private static final class Segment {
+    private final int top;
+    @NotNull
+    private final VcsPathChanges changes;
+
+    private Segment(int top, @NotNull VcsPathChanges changes) {
+      this.top = top;
+      this.changes = changes;
+    }
+
+    private int size() {
+      return changes.size() + 1;
+    }
+
+    private int get(int index) {
+      return index < changes.size() ? changes.get(index) : top;
+    }
+
+    private int ceilingIndex(int revision) {
+      return changes.ceilingIndex(revision);
     }
-    return result;
   }
 }
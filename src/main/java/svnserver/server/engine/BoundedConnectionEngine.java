@@ -0,0 +1,119 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.engine;
+
+import org.jetbrains.annotations.NotNull;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.auth.User;
+
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Connection engine with bounded worker pool.
+ * <p>
+ * Connections over worker limit wait in accept queue. Connections over accept queue size
+ * or over per-address/per-user limits are rejected.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class BoundedConnectionEngine implements ConnectionEngine {
+  private static final long KEEP_ALIVE = TimeUnit.MINUTES.toMillis(1);
+
+  @NotNull
+  private final ThreadPoolExecutor poolExecutor;
+  @NotNull
+  private final Map<InetAddress, Integer> addressConnections = new ConcurrentHashMap<>();
+  @NotNull
+  private final Map<String, Integer> userConnections = new ConcurrentHashMap<>();
+  private final int maxThreads;
+  private final int acceptQueue;
+  private final int maxConnectionsPerAddress;
+  private final int maxConnectionsPerUser;
+
+  public BoundedConnectionEngine(@NotNull ThreadFactory threadFactory, int maxThreads, int acceptQueue, int maxConnectionsPerAddress, int maxConnectionsPerUser) {
+    this.maxConnectionsPerAddress = maxConnectionsPerAddress;
+    this.maxConnectionsPerUser = maxConnectionsPerUser;
+    this.maxThreads = Math.max(1, maxThreads);
+    this.acceptQueue = Math.max(0, acceptQueue);
+    // Queue is unbounded: resumed sessions must never be rejected, new connections are limited in execute().
+    poolExecutor = new ThreadPoolExecutor(this.maxThreads, this.maxThreads, KEEP_ALIVE, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+    poolExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  @NotNull
+  @Override
+  public Lease acquireAddress(@NotNull Socket socket) throws RejectedExecutionException {
+    final InetAddress address = socket.getInetAddress();
+    if (address == null || maxConnectionsPerAddress <= 0) {
+      return emptyLease;
+    }
+    if (!acquire(addressConnections, address, maxConnectionsPerAddress)) {
+      throw new RejectedExecutionException("Too many connections from address: " + address.getHostAddress());
+    }
+    return () -> release(addressConnections, address);
+  }
+
+  @Override
+  public void execute(@NotNull Runnable task) throws RejectedExecutionException {
+    // Admission control is approximate: it is enough to protect server from connection flood.
+    if (poolExecutor.getActiveCount() >= maxThreads && poolExecutor.getQueue().size() >= acceptQueue) {
+      throw new RejectedExecutionException("Server is too busy, try again later");
+    }
+    poolExecutor.execute(task);
+  }
+
+  @Override
+  public void resume(@NotNull Runnable task) throws RejectedExecutionException {
+    poolExecutor.execute(task);
+  }
+
+  @NotNull
+  @Override
+  public Lease acquireUser(@NotNull User user) throws SVNException {
+    if (user.isAnonymous() || maxConnectionsPerUser <= 0) {
+      return emptyLease;
+    }
+    final String userName = user.getUserName();
+    if (!acquire(userConnections, userName, maxConnectionsPerUser)) {
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.RA_SVN_CONNECTION_CLOSED, "Too many connections for user: " + userName));
+    }
+    return () -> release(userConnections, userName);
+  }
+
+  private static <K> boolean acquire(@NotNull Map<K, Integer> counters, @NotNull K key, int limit) {
+    final boolean[] accepted = {false};
+    counters.compute(key, (k, count) -> {
+      final int current = count == null ? 0 : count;
+      if (current >= limit) {
+        return count;
+      }
+      accepted[0] = true;
+      return current + 1;
+    });
+    return accepted[0];
+  }
+
+  private static <K> void release(@NotNull Map<K, Integer> counters, @NotNull K key) {
+    counters.computeIfPresent(key, (k, count) -> count <= 1 ? null : count - 1);
+  }
+
+  @Override
+  public void shutdown() {
+    poolExecutor.shutdown();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+    return poolExecutor.awaitTermination(timeout, unit);
+  }
+}
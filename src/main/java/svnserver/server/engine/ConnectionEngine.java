@@ -0,0 +1,81 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.engine;
+
+import org.jetbrains.annotations.NotNull;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.auth.User;
+
+import java.net.Socket;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine for serving accepted client connections.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public interface ConnectionEngine {
+  /**
+   * Connection slot lease. Must be closed on session end.
+   */
+  interface Lease extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  @NotNull
+  Lease emptyLease = () -> {
+  };
+
+  /**
+   * Register accepted client connection.
+   *
+   * @param socket Client socket.
+   * @return Connection lease.
+   * @throws RejectedExecutionException Too many connections from this address.
+   */
+  @NotNull
+  default Lease acquireAddress(@NotNull Socket socket) throws RejectedExecutionException {
+    return emptyLease;
+  }
+
+  /**
+   * Schedule new client connection processing.
+   *
+   * @param task Connection processing task.
+   * @throws RejectedExecutionException Connection can't be served now.
+   */
+  void execute(@NotNull Runnable task) throws RejectedExecutionException;
+
+  /**
+   * Schedule processing of already accepted connection (for example, idle session woken up by selector).
+   * <p>
+   * Unlike {@link #execute(Runnable)} is not a subject of admission control.
+   *
+   * @param task Connection processing task.
+   * @throws RejectedExecutionException Engine is shut down.
+   */
+  void resume(@NotNull Runnable task) throws RejectedExecutionException;
+
+  /**
+   * Register authenticated user session.
+   *
+   * @param user Authenticated user.
+   * @return Session lease.
+   * @throws SVNException Too many sessions for this user.
+   */
+  @NotNull
+  default Lease acquireUser(@NotNull User user) throws SVNException {
+    return emptyLease;
+  }
+
+  void shutdown();
+
+  boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException;
+}
@@ -0,0 +1,49 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unbounded connection engine: one new thread per connection.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class LegacyConnectionEngine implements ConnectionEngine {
+  @NotNull
+  private final ExecutorService poolExecutor;
+
+  public LegacyConnectionEngine(@NotNull ThreadFactory threadFactory) {
+    poolExecutor = Executors.newCachedThreadPool(threadFactory);
+  }
+
+  @Override
+  public void execute(@NotNull Runnable task) {
+    poolExecutor.execute(task);
+  }
+
+  @Override
+  public void resume(@NotNull Runnable task) {
+    poolExecutor.execute(task);
+  }
+
+  @Override
+  public void shutdown() {
+    poolExecutor.shutdown();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+    return poolExecutor.awaitTermination(timeout, unit);
+  }
+}
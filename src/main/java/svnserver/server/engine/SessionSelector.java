@@ -0,0 +1,181 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.engine;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Non-blocking front-end for idle client sessions.
+ * <p>
+ * Session waiting for next command is parked here and costs only a channel registration instead of a blocked thread.
+ * When client sends data, channel is switched back to blocking mode and session is resumed.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class SessionSelector implements AutoCloseable {
+  /**
+   * Parked session.
+   */
+  public interface Session {
+    @NotNull
+    SocketChannel getChannel();
+
+    /**
+     * Client data is available: continue session processing.
+     * <p>
+     * Called on selector thread, must not block.
+     */
+    void resume();
+
+    /**
+     * Session is dropped without resume (selector is closed or channel is broken).
+     */
+    void close();
+  }
+
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(SessionSelector.class);
+
+  @NotNull
+  private final Selector selector;
+  @NotNull
+  private final Queue<Session> pending = new ConcurrentLinkedQueue<>();
+  @NotNull
+  private final Thread thread;
+  private volatile boolean closed = false;
+
+  public SessionSelector(@NotNull ThreadFactory threadFactory) throws IOException {
+    selector = Selector.open();
+    thread = threadFactory.newThread(this::run);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Park idle session until client sends data.
+   *
+   * @param session Session with flushed output and empty input buffer.
+   * @return False, if selector is already closed and session should be closed by caller.
+   */
+  public boolean park(@NotNull Session session) {
+    if (closed) {
+      return false;
+    }
+    pending.add(session);
+    selector.wakeup();
+    if (closed) {
+      // Selector was closed concurrently: don't leave session in queue.
+      closePending();
+    }
+    return true;
+  }
+
+  private void run() {
+    final List<Session> ready = new ArrayList<>();
+    try {
+      while (!closed) {
+        selector.select();
+        registerPending();
+        collectReady(ready);
+        while (!ready.isEmpty()) {
+          // Cancelled keys are deregistered only on next selection, channel can't be switched to blocking mode before it.
+          selector.selectNow();
+          for (Session session : ready) {
+            try {
+              session.getChannel().configureBlocking(true);
+            } catch (IOException e) {
+              log.info("Can't resume session:", e);
+              session.close();
+              continue;
+            }
+            session.resume();
+          }
+          ready.clear();
+          // Keys selected by selectNow() call.
+          collectReady(ready);
+        }
+      }
+    } catch (IOException e) {
+      log.error("Session selector failed", e);
+    } finally {
+      closed = true;
+      for (SelectionKey key : selector.keys()) {
+        if (key.isValid()) {
+          ((Session) key.attachment()).close();
+        }
+      }
+      for (Session session : ready) {
+        session.close();
+      }
+      closePending();
+      try {
+        selector.close();
+      } catch (IOException e) {
+        log.warn("Can't close selector", e);
+      }
+    }
+  }
+
+  private void collectReady(@NotNull List<Session> ready) {
+    for (SelectionKey key : selector.selectedKeys()) {
+      key.cancel();
+      ready.add((Session) key.attachment());
+    }
+    selector.selectedKeys().clear();
+  }
+
+  private void registerPending() {
+    while (true) {
+      final Session session = pending.poll();
+      if (session == null) {
+        break;
+      }
+      try {
+        final SocketChannel channel = session.getChannel();
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ, session);
+      } catch (IOException e) {
+        log.info("Can't park session:", e);
+        session.close();
+      }
+    }
+  }
+
+  private void closePending() {
+    while (true) {
+      final Session session = pending.poll();
+      if (session == null) {
+        break;
+      }
+      session.close();
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    selector.wakeup();
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
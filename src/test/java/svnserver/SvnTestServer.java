@@ -46,6 +46,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -59,6 +60,8 @@ public final class SvnTestServer implements SvnTester {
   @NotNull
   public static final String PASSWORD = "passw0rd";
   @NotNull
+  public static final String CONTEXT_NAME = "test";
+  @NotNull
   private static final Logger log = LoggerFactory.getLogger(SvnTestServer.class);
   @NotNull
   private static final String USER_NAME = "tester";
@@ -93,6 +96,7 @@ public final class SvnTestServer implements SvnTester {
                         @Nullable UserDBConfig userDBConfig,
                         @Nullable Function<File, RepositoryMappingConfig> mappingConfigCreator,
                         boolean anonymousRead,
+                        @Nullable Consumer<Config> configurator,
                         @NotNull SharedConfig... shared) throws Exception {
     SVNFileUtil.setSleepForTimestamp(false);
     this.repository = repository;
@@ -133,6 +137,9 @@ public final class SvnTestServer implements SvnTester {
 
     Collections.addAll(config.getShared(), shared);
     config.getShared().add(context -> context.add(LfsStorageFactory.class, new LfsMemoryStorage.Factory()));
+    if (configurator != null) {
+      configurator.accept(config);
+    }
 
     server = new SvnServer(tempDirectory, config);
     server.start();
@@ -198,12 +205,17 @@ public final class SvnTestServer implements SvnTester {
 
   @NotNull
   public static SvnTestServer createEmpty(@Nullable UserDBConfig userDBConfig, @Nullable Function<File, RepositoryMappingConfig> mappingConfigCreator, boolean anonymousRead, @NotNull SharedConfig... shared) throws Exception {
-    return new SvnTestServer(TestHelper.emptyRepository(), "master", "", false, userDBConfig, mappingConfigCreator, anonymousRead, shared);
+    return new SvnTestServer(TestHelper.emptyRepository(), "master", "", false, userDBConfig, mappingConfigCreator, anonymousRead, null, shared);
+  }
+
+  @NotNull
+  public static SvnTestServer createEmpty(@NotNull Consumer<Config> configurator) throws Exception {
+    return new SvnTestServer(TestHelper.emptyRepository(), "master", "", false, null, null, false, configurator);
   }
 
   @NotNull
   public static SvnTestServer createMasterRepository() throws Exception {
-    return new SvnTestServer(new FileRepository(TestHelper.findGitPath()), null, "master", true, null, null, true);
+    return new SvnTestServer(new FileRepository(TestHelper.findGitPath()), null, "master", true, null, null, true, null);
   }
 
   @NotNull
@@ -264,6 +276,27 @@ public final class SvnTestServer implements SvnTester {
     return server.getContext();
   }
 
+  /**
+   * Open one more repository instance for server git repository.
+   * <p>
+   * Repository caches are named by context name: use {@link #CONTEXT_NAME} to share them with server repository.
+   * Returned repository must be closed by caller.
+   */
+  @NotNull
+  public GitRepository openRepository(@NotNull String name) throws IOException, SVNException {
+    final LocalContext local = new LocalContext(server.getContext(), name);
+    final GitRepository gitRepository = new GitRepository(
+        local,
+        repository,
+        new GitPushEmbedded(local, "", "", ""),
+        testBranch,
+        true,
+        new PersistentLockFactory(local)
+    );
+    gitRepository.updateRevisions();
+    return gitRepository;
+  }
+
   private static final class TestRepositoryConfig implements RepositoryMappingConfig {
     @NotNull
     private final Repository repository;
@@ -283,17 +316,19 @@ public final class SvnTestServer implements SvnTester {
     @NotNull
     @Override
     public VcsRepositoryMapping create(@NotNull SharedContext context, boolean canUseParallelIndexing) throws IOException, SVNException {
-      final LocalContext local = new LocalContext(context, "test");
+      final LocalContext local = new LocalContext(context, CONTEXT_NAME);
       final AclConfig aclConfig = new AclConfig(anonymousRead);
       local.add(VcsAccess.class, aclConfig.create(local));
-      return new RepositoryListMapping(Collections.singletonMap(prefix, new GitRepository(
+      final GitRepository gitRepository = new GitRepository(
           local,
           repository,
           new GitPushEmbedded(local, "", "", ""),
           branch,
           true,
           new PersistentLockFactory(local)
-      )));
+      );
+      gitRepository.updateRevisions();
+      return new RepositoryListMapping(Collections.singletonMap(prefix, gitRepository));
     }
   }
 }
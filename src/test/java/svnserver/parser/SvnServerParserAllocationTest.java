@@ -0,0 +1,132 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+import svnserver.parser.token.ListEndToken;
+import svnserver.parser.token.StringToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Allocation benchmark for text delta chunks parsing on large commit.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class SvnServerParserAllocationTest {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(SvnServerParserAllocationTest.class);
+  private static final int CHUNK_SIZE = 100 * 1024;
+  private static final int CHUNK_COUNT = 200;
+
+  public static class CopyChunk {
+    @NotNull
+    private final String token;
+    @NotNull
+    private final byte[] chunk;
+
+    public CopyChunk(@NotNull String token, @NotNull byte[] chunk) {
+      this.token = token;
+      this.chunk = chunk;
+    }
+  }
+
+  public static class SliceChunk {
+    @NotNull
+    private final String token;
+    @NotNull
+    private final StringToken chunk;
+
+    public SliceChunk(@NotNull String token, @NotNull StringToken chunk) {
+      this.token = token;
+      this.chunk = chunk;
+    }
+  }
+
+  @Test
+  public void largeCommit() throws IOException {
+    final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean) || !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+      throw new SkipException("Thread allocation counter is not supported");
+    }
+    final com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) bean;
+    final byte[] streamData = createCommit();
+    // Warm up.
+    parse(streamData, false);
+    parse(streamData, true);
+
+    final long threadId = Thread.currentThread().getId();
+    long start = allocations.getThreadAllocatedBytes(threadId);
+    long time = System.nanoTime();
+    final long copyChecksum = parse(streamData, false);
+    final long copyTime = System.nanoTime() - time;
+    final long copyBytes = allocations.getThreadAllocatedBytes(threadId) - start;
+
+    start = allocations.getThreadAllocatedBytes(threadId);
+    time = System.nanoTime();
+    final long sliceChecksum = parse(streamData, true);
+    final long sliceTime = System.nanoTime() - time;
+    final long sliceBytes = allocations.getThreadAllocatedBytes(threadId) - start;
+
+    log.info("Parse {} chunks of {} bytes: copy - {} KB allocated in {} ms, slice - {} KB allocated in {} ms",
+        CHUNK_COUNT, CHUNK_SIZE,
+        copyBytes / 1024, copyTime / 1000000,
+        sliceBytes / 1024, sliceTime / 1000000);
+    Assert.assertEquals(sliceChecksum, copyChecksum);
+    Assert.assertTrue(sliceBytes * 4 < copyBytes, "Slice parsing should allocate much less: " + sliceBytes + " vs " + copyBytes);
+  }
+
+  @NotNull
+  private static byte[] createCommit() throws IOException {
+    final Random random = new Random(0);
+    final byte[] chunk = new byte[CHUNK_SIZE];
+    try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+      final SvnServerWriter writer = new SvnServerWriter(outputStream);
+      for (int i = 0; i < CHUNK_COUNT; ++i) {
+        random.nextBytes(chunk);
+        writer.listBegin().word("textdelta-chunk").listBegin().string("c" + (i % 10)).binary(chunk).listEnd().listEnd();
+      }
+      return outputStream.toByteArray();
+    }
+  }
+
+  private static long parse(@NotNull byte[] streamData, boolean slice) throws IOException {
+    long checksum = 0;
+    final SvnServerParser parser = new SvnServerParser(new ByteArrayInputStream(streamData));
+    for (int i = 0; i < CHUNK_COUNT; ++i) {
+      parser.readToken();
+      parser.readText();
+      if (slice) {
+        final SliceChunk message = MessageParser.parse(SliceChunk.class, parser);
+        checksum += checksum(message.chunk.getArray(), message.chunk.getOffset(), message.chunk.getLength());
+      } else {
+        final CopyChunk message = MessageParser.parse(CopyChunk.class, parser);
+        checksum += checksum(message.chunk, 0, message.chunk.length);
+      }
+      parser.readToken(ListEndToken.class);
+    }
+    return checksum;
+  }
+
+  private static long checksum(@NotNull byte[] data, int offset, int length) {
+    long result = 0;
+    for (int i = offset; i < offset + length; i += 997) {
+      result += data[i];
+    }
+    return result + length;
+  }
+}
@@ -7,6 +7,7 @@
  */
 package svnserver.parser;
 
+import org.jetbrains.annotations.NotNull;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import org.testng.internal.junit.ArrayAsserts;
@@ -142,4 +143,157 @@ public class SvnServerParserTest {
       Assert.assertEquals(parser.readToken(), new WordToken("end"));
     }
   }
+
+  /**
+   * Slice token must be valid until next slice read, even if parser buffer is refilled.
+   */
+  @Test
+  public void testSliceData() throws IOException {
+    final byte[][] chunks = new byte[][]{
+        new byte[3],
+        new byte[9],
+        new byte[25],
+        new byte[0],
+        new byte[7],
+    };
+    final byte[] streamData;
+    try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+      final SvnServerWriter writer = new SvnServerWriter(outputStream);
+      for (int i = 0; i < chunks.length; ++i) {
+        for (int j = 0; j < chunks[i].length; ++j) {
+          chunks[i][j] = (byte) (i * 31 + j);
+        }
+        writer.listBegin().word("textdelta-chunk").listBegin().string("c" + i).binary(chunks[i]).listEnd().listEnd();
+      }
+      streamData = outputStream.toByteArray();
+    }
+    for (int bufferSize : new int[]{16, 20, 64, 1024}) {
+      try (ByteArrayInputStream inputStream = new ByteArrayInputStream(streamData)) {
+        final SvnServerParser parser = new SvnServerParser(inputStream, bufferSize);
+        for (int i = 0; i < chunks.length; ++i) {
+          Assert.assertEquals(parser.readToken(), ListBeginToken.instance);
+          Assert.assertEquals(parser.readText(), "textdelta-chunk");
+          Assert.assertEquals(parser.readToken(), ListBeginToken.instance);
+          Assert.assertEquals(parser.readText(), "c" + i);
+          final StringToken slice = parser.readItemSlice();
+          Assert.assertEquals(parser.readToken(), ListEndToken.instance);
+          Assert.assertEquals(parser.readToken(), ListEndToken.instance);
+          Assert.assertNotNull(slice);
+          ArrayAsserts.assertArrayEquals(chunks[i], slice.getData());
+        }
+      }
+    }
+  }
+
+  public static class NestedParams {
+    @NotNull
+    private final String path;
+    private final int rev;
+    @NotNull
+    private final InnerParams[] items;
+    private final boolean flag;
+
+    public NestedParams(@NotNull String path, int rev, @NotNull InnerParams[] items, boolean flag) {
+      this.path = path;
+      this.rev = rev;
+      this.items = items;
+      this.flag = flag;
+    }
+  }
+
+  public static class InnerParams {
+    @NotNull
+    private final String name;
+    @NotNull
+    private final int[] values;
+
+    public InnerParams(@NotNull String name, @NotNull int[] values) {
+      this.name = name;
+      this.values = values;
+    }
+  }
+
+  /**
+   * Message class decoder is reused between messages, optional tail fields get default values.
+   */
+  @Test
+  public void testNestedMessageParse() throws IOException {
+    try (InputStream stream = new ByteArrayInputStream("( 3:foo 42 ( ( 1:a ( 1 2 ) ) ( 1:b ( ) extra ) ) true ) ( 3:bar ) ".getBytes(StandardCharsets.UTF_8))) {
+      final SvnServerParser parser = new SvnServerParser(stream);
+      final NestedParams first = MessageParser.parse(NestedParams.class, parser);
+      Assert.assertEquals(first.path, "foo");
+      Assert.assertEquals(first.rev, 42);
+      Assert.assertTrue(first.flag);
+      Assert.assertEquals(first.items.length, 2);
+      Assert.assertEquals(first.items[0].name, "a");
+      ArrayAsserts.assertArrayEquals(new int[]{1, 2}, first.items[0].values);
+      Assert.assertEquals(first.items[1].name, "b");
+      ArrayAsserts.assertArrayEquals(new int[]{}, first.items[1].values);
+
+      final NestedParams second = MessageParser.parse(NestedParams.class, parser);
+      Assert.assertEquals(second.path, "bar");
+      Assert.assertEquals(second.rev, 0);
+      Assert.assertFalse(second.flag);
+      Assert.assertEquals(second.items.length, 0);
+      Assert.assertEquals(parser.getDepth(), 0);
+    }
+  }
+
+  public static class SliceParams {
+    @NotNull
+    private final StringToken data;
+
+    public SliceParams(@NotNull StringToken data) {
+      this.data = data;
+    }
+  }
+
+  public static class TwoSliceParams {
+    public TwoSliceParams(@NotNull String path, @NotNull SliceParams first, @NotNull StringToken second) {
+    }
+  }
+
+  public static class SliceArrayParams {
+    public SliceArrayParams(@NotNull SliceParams[] items) {
+    }
+  }
+
+  /**
+   * Slice is valid only until next slice is read: message class can't have two slices.
+   */
+  @Test
+  public void testSliceMessageParse() throws IOException {
+    try (InputStream stream = new ByteArrayInputStream("( 3:foo ) ( 3:bar ) ".getBytes(StandardCharsets.UTF_8))) {
+      final SvnServerParser parser = new SvnServerParser(stream);
+      Assert.assertEquals(MessageParser.parse(SliceParams.class, parser).data, new StringToken("foo"));
+      Assert.expectThrows(IllegalStateException.class, () -> MessageParser.parse(TwoSliceParams.class, parser));
+      Assert.expectThrows(IllegalStateException.class, () -> MessageParser.parse(SliceArrayParams.class, parser));
+    }
+  }
+
+  /**
+   * Parser of idle session releases buffers and continues parsing with new ones.
+   */
+  @Test
+  public void testReleaseBuffers() throws IOException {
+    try (InputStream stream = new ByteArrayInputStream("( word 3:foo ) ( 3:bar ) ".getBytes(StandardCharsets.UTF_8))) {
+      final SvnServerParser parser = new SvnServerParser(stream, 10);
+      Assert.assertEquals(parser.readToken(), ListBeginToken.instance);
+      // Parser has buffered data: release must be ignored.
+      parser.releaseBuffers();
+      Assert.assertEquals(parser.readToken(), new WordToken("word"));
+      Assert.assertEquals(parser.readToken(), new StringToken("foo"));
+      Assert.assertEquals(parser.readToken(), ListEndToken.instance);
+      parser.releaseBuffers();
+      Assert.assertEquals(parser.readToken(), ListBeginToken.instance);
+      Assert.assertEquals(parser.readItemSlice(), new StringToken("bar"));
+      Assert.assertEquals(parser.readToken(), ListEndToken.instance);
+      parser.releaseBuffers();
+      try {
+        parser.readToken();
+        Assert.fail();
+      } catch (EOFException ignored) {
+      }
+    }
+  }
 }
@@ -0,0 +1,101 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.parser;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests for output batching.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class SvnServerWriterTest {
+  private static final int ITEMS = 1000;
+
+  @Test
+  public void flushEveryItem() throws IOException {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    final SvnServerWriter writer = new SvnServerWriter(stream);
+    writeItems(writer);
+    Assert.assertEquals(writer.getFlushCount(), ITEMS);
+    Assert.assertEquals(writer.getWriteCount(), ITEMS);
+    Assert.assertEquals(writer.getBytesWritten(), stream.size());
+  }
+
+  @Test
+  public void corked() throws IOException {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    final SvnServerWriter writer = new SvnServerWriter(stream);
+    writer.cork();
+    writer.cork();
+    writeItems(writer);
+    writer.uncork();
+    Assert.assertEquals(writer.getFlushCount(), 0);
+    final int size = stream.size();
+    writer.uncork();
+    Assert.assertEquals(writer.getFlushCount(), 1);
+    Assert.assertTrue(writer.getWriteCount() < ITEMS / 10, "Too many writes: " + writer.getWriteCount());
+    Assert.assertTrue(stream.size() > size);
+    Assert.assertEquals(writer.getBytesWritten(), stream.size());
+
+    final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    writeItems(new SvnServerWriter(expected));
+    Assert.assertEquals(new String(stream.toByteArray(), StandardCharsets.UTF_8), new String(expected.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void releaseBuffers() throws IOException {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    final SvnServerWriter writer = new SvnServerWriter(stream);
+    writer.cork();
+    writer.listBegin().word("foo").listEnd();
+    Assert.assertEquals(stream.size(), 0);
+    // Release of idle writer buffers must not lose pending data.
+    writer.releaseBuffers();
+    Assert.assertEquals(new String(stream.toByteArray(), StandardCharsets.UTF_8), "( foo ) \n");
+    writer.uncork();
+    writer.listBegin().word("bar").listEnd();
+    Assert.assertEquals(new String(stream.toByteArray(), StandardCharsets.UTF_8), "( foo ) \n( bar ) \n");
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void uncorkWithoutCork() throws IOException {
+    new SvnServerWriter(new ByteArrayOutputStream()).uncork();
+  }
+
+  @Test
+  public void binaryProducer() throws IOException {
+    final byte[] data = "Some binary data".getBytes(StandardCharsets.UTF_8);
+    final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    new SvnServerWriter(expected).listBegin().binary(data).binary(data).listEnd();
+
+    final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    new SvnServerWriter(actual).listBegin().binary(data.length, stream -> stream.write(data)).binary(stream -> stream.write(data)).listEnd();
+    Assert.assertEquals(actual.toByteArray(), expected.toByteArray());
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void binaryLengthMismatch() throws IOException {
+    new SvnServerWriter(new ByteArrayOutputStream()).binary(10, stream -> stream.write(new byte[9]));
+  }
+
+  private static void writeItems(SvnServerWriter writer) throws IOException {
+    for (int i = 0; i < ITEMS; ++i) {
+      writer
+          .listBegin()
+          .word("close-file")
+          .listBegin().string("t" + i).listEnd()
+          .listEnd();
+    }
+  }
+}
@@ -0,0 +1,175 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.parser.svndiff;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.io.ISVNDeltaConsumer;
+import org.tmatesoft.svn.core.io.diff.SVNDeltaGenerator;
+import org.tmatesoft.svn.core.io.diff.SVNDeltaProcessor;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Svndiff codecs round-trip and throughput benchmark.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class SvnDiffCodecTest {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(SvnDiffCodecTest.class);
+  private static final int DATA_SIZE = 1024 * 1024;
+  private static final int ITERATIONS = 10;
+
+  @DataProvider
+  public static Object[][] codecs() {
+    final Object[][] result = new Object[SvnDiffCodec.values().length][];
+    for (int i = 0; i < result.length; ++i) {
+      result[i] = new Object[]{SvnDiffCodec.values()[i]};
+    }
+    return result;
+  }
+
+  @Test(dataProvider = "codecs")
+  public void roundTrip(@NotNull SvnDiffCodec codec) throws Exception {
+    final byte[] source = createData(new Random(0), DATA_SIZE);
+    final byte[] target = modify(new Random(1), source);
+    final byte[] delta = encode(codec, source, target);
+    Assert.assertEquals(decode(delta, source, delta.length), target);
+    // Windows splitted between chunks.
+    Assert.assertEquals(decode(delta, source, 7), target);
+    Assert.assertEquals(decode(delta, source, 1), target);
+  }
+
+  @Test(dataProvider = "codecs")
+  public void emptyFile(@NotNull SvnDiffCodec codec) throws Exception {
+    final byte[] delta = encode(codec, new byte[0], new byte[0]);
+    Assert.assertEquals(decode(delta, new byte[0], 1), new byte[0]);
+  }
+
+  @Test
+  public void incompressible() throws Exception {
+    final byte[] target = new byte[DATA_SIZE];
+    new Random(0).nextBytes(target);
+    final byte[] delta = encode(SvnDiffCodec.Lz4, new byte[0], target);
+    Assert.assertTrue(delta.length < target.length + 1024, "Random data must be stored as is: " + delta.length);
+    Assert.assertEquals(decode(delta, new byte[0], 4096), target);
+  }
+
+  /**
+   * Compare delta encoding throughput and size for svndiff0/1/2.
+   */
+  @Test
+  public void benchmark() throws Exception {
+    final byte[] target = createData(new Random(0), DATA_SIZE);
+    final long[] sizes = new long[SvnDiffCodec.values().length];
+    for (SvnDiffCodec codec : SvnDiffCodec.values()) {
+      // Warm up.
+      encode(codec, new byte[0], target);
+    }
+    for (SvnDiffCodec codec : SvnDiffCodec.values()) {
+      final long time = System.nanoTime();
+      for (int i = 0; i < ITERATIONS; ++i) {
+        sizes[codec.ordinal()] = encode(codec, new byte[0], target).length;
+      }
+      final long nanos = Math.max(System.nanoTime() - time, 1);
+      log.info("Encode {}: {} KB -> {} KB, {} MB/s", codec,
+          DATA_SIZE / 1024, sizes[codec.ordinal()] / 1024,
+          (long) DATA_SIZE * ITERATIONS * 1000000000L / nanos / (1024 * 1024));
+    }
+    Assert.assertTrue(sizes[SvnDiffCodec.Lz4.ordinal()] < sizes[SvnDiffCodec.None.ordinal()]);
+    Assert.assertTrue(sizes[SvnDiffCodec.Zlib.ordinal()] < sizes[SvnDiffCodec.None.ordinal()]);
+  }
+
+  @NotNull
+  private static byte[] createData(@NotNull Random random, int size) {
+    final String[] words = {"foo", "bar", "public", "class", "return", "{", "}", "\n", " ", "    "};
+    final StringBuilder builder = new StringBuilder(size);
+    while (builder.length() < size) {
+      builder.append(words[random.nextInt(words.length)]);
+    }
+    builder.setLength(size);
+    return builder.toString().getBytes();
+  }
+
+  @NotNull
+  private static byte[] modify(@NotNull Random random, @NotNull byte[] source) {
+    final byte[] result = source.clone();
+    for (int i = 0; i < 100; ++i) {
+      result[random.nextInt(result.length)] = (byte) random.nextInt();
+    }
+    return result;
+  }
+
+  @NotNull
+  private static byte[] encode(@NotNull SvnDiffCodec codec, @NotNull byte[] source, @NotNull byte[] target) throws SVNException {
+    final ByteArrayOutputStream delta = new ByteArrayOutputStream();
+    new SVNDeltaGenerator().sendDelta("", new ByteArrayInputStream(source), 0, new ByteArrayInputStream(target), new ISVNDeltaConsumer() {
+      private boolean header = true;
+
+      @Override
+      public void applyTextDelta(String path, String baseChecksum) {
+      }
+
+      @Override
+      public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+        try {
+          codec.writeTo(diffWindow, delta, header);
+        } catch (IOException e) {
+          throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_WRITE_ERROR), e);
+        }
+        header = false;
+        return null;
+      }
+
+      @Override
+      public void textDeltaEnd(String path) {
+      }
+    }, false);
+    return delta.toByteArray();
+  }
+
+  @NotNull
+  private static byte[] decode(@NotNull byte[] delta, @NotNull byte[] source, int chunkSize) throws SVNException {
+    final ByteArrayOutputStream result = new ByteArrayOutputStream();
+    final SVNDeltaProcessor processor = new SVNDeltaProcessor();
+    processor.applyTextDelta(new ByteArrayInputStream(source), result, false);
+    final ISVNDeltaConsumer consumer = new ISVNDeltaConsumer() {
+      @Override
+      public void applyTextDelta(String path, String baseChecksum) {
+      }
+
+      @Override
+      public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+        return processor.textDeltaChunk(diffWindow);
+      }
+
+      @Override
+      public void textDeltaEnd(String path) {
+      }
+    };
+    final SvnDiffReader reader = new SvnDiffReader();
+    for (int offset = 0; offset < delta.length; offset += chunkSize) {
+      reader.nextWindow(delta, offset, Math.min(chunkSize, delta.length - offset), "", consumer);
+    }
+    processor.textDeltaEnd();
+    return result.toByteArray();
+  }
+}
@@ -0,0 +1,112 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.collect.ImmutableMap;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.*;
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.SvnTestServer;
+import svnserver.repository.VcsLogEntry;
+import svnserver.repository.git.filter.GitBlobMetadataCache;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Check log changes from revision cache.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitCachedLogEntryTest {
+  @Test
+  public void sameAsTreeChanges() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final Repository git = server.getRepository();
+      commit(git, ImmutableMap.<String, String>builder()
+          .put("dir/a.txt", "A\n")
+          .put("dir/sub/b.txt", "B\n")
+          .put("c.txt", "C\n")
+          .put("e.txt", "Some file content\n")
+          .build());
+      // Directory replaced by file, file modified, file renamed, attributes added.
+      commit(git, ImmutableMap.<String, String>builder()
+          .put(".gitattributes", "*.txt eol=lf\n")
+          .put("dir", "Now file\n")
+          .put("c.txt", "C modified\n")
+          .put("f.txt", "Some file content\n")
+          .build());
+      // File replaced by directory, file removed.
+      commit(git, ImmutableMap.<String, String>builder()
+          .put(".gitattributes", "*.txt eol=lf\n")
+          .put("dir/new/d.txt", "D\n")
+          .put("f.txt", "Some file content\n")
+          .build());
+
+      try (GitRepository repository = server.openRepository("changes")) {
+        // Indexing must not read file content.
+        Assert.assertEquals(server.getContext().sure(GitBlobMetadataCache.class).size(), 0);
+        for (int revision = 1; revision <= repository.getLatestRevision().getId(); ++revision) {
+          final GitRevision revisionInfo = repository.sureRevisionInfo(revision);
+          final Map<String, ? extends VcsLogEntry> actual = revisionInfo.getChanges();
+          final Map<String, GitLogEntry> expected = revisionInfo.getTreeChanges();
+          Assert.assertEquals(actual.keySet(), expected.keySet(), "r" + revision);
+          for (Map.Entry<String, GitLogEntry> entry : expected.entrySet()) {
+            final String message = "r" + revision + ":" + entry.getKey();
+            final VcsLogEntry cached = actual.get(entry.getKey());
+            Assert.assertTrue(cached instanceof GitCachedLogEntry, message);
+            Assert.assertEquals(cached.getChange(), entry.getValue().getChange(), message);
+            Assert.assertEquals(cached.getKind(), entry.getValue().getKind(), message);
+            Assert.assertEquals(cached.getCopyFrom(), entry.getValue().getCopyFrom(), message);
+            if (cached.getChange() != 0) {
+              Assert.assertEquals(cached.isContentModified(), entry.getValue().isContentModified(), message);
+              Assert.assertEquals(cached.isPropertyModified(), entry.getValue().isPropertyModified(), message);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private static void commit(@NotNull Repository repository, @NotNull Map<String, String> files) throws IOException {
+    try (ObjectInserter inserter = repository.newObjectInserter()) {
+      final DirCache cache = DirCache.newInCore();
+      final DirCacheBuilder builder = cache.builder();
+      for (Map.Entry<String, String> file : files.entrySet()) {
+        final DirCacheEntry entry = new DirCacheEntry(file.getKey());
+        entry.setFileMode(FileMode.REGULAR_FILE);
+        entry.setObjectId(inserter.insert(Constants.OBJ_BLOB, file.getValue().getBytes(StandardCharsets.UTF_8)));
+        builder.add(entry);
+      }
+      builder.finish();
+
+      final Ref master = repository.exactRef(Constants.R_HEADS + "master");
+      final CommitBuilder commit = new CommitBuilder();
+      final PersonIdent ident = new PersonIdent("Test", "test@example.com");
+      commit.setAuthor(ident);
+      commit.setCommitter(ident);
+      commit.setMessage("Commit\n");
+      commit.setTreeId(cache.writeTree(inserter));
+      if (master != null) {
+        commit.setParentId(master.getObjectId());
+      }
+      final ObjectId commitId = inserter.insert(commit);
+      inserter.flush();
+
+      final RefUpdate update = repository.updateRef(Constants.R_HEADS + "master");
+      update.setNewObjectId(commitId);
+      update.setForceUpdate(true);
+      update.update();
+    }
+  }
+}
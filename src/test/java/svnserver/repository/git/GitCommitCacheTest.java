@@ -0,0 +1,62 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNProperty;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.SvnTestHelper;
+import svnserver.SvnTestServer;
+
+/**
+ * Lazy commit loading test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitCommitCacheTest {
+  @Test
+  public void cacheHits() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository svn = server.openSvnRepository();
+      SvnTestHelper.createFile(svn, "/foo.txt", "Foo\n", ImmutableMap.of(SVNProperty.EOL_STYLE, SVNProperty.EOL_STYLE_NATIVE));
+
+      final GitCommitCache cache = server.getContext().sure(GitCommitCache.class);
+      try (GitRepository repository = server.openRepository("commits")) {
+        final GitRevision revision = repository.getLatestRevision();
+        final long hits = cache.getStats().hitCount();
+        Assert.assertEquals(revision.getLog(), "Create file: /foo.txt");
+        Assert.assertNotNull(revision.getAuthor());
+        Assert.assertTrue(cache.getStats().hitCount() > hits);
+      }
+    }
+  }
+
+  @Test
+  public void evictedCommits() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty(config -> config.setCommitCacheSize(1))) {
+      final SVNRepository svn = server.openSvnRepository();
+      for (int i = 0; i < 5; ++i) {
+        SvnTestHelper.createFile(svn, "/file" + i + ".txt", "File " + i + "\n", ImmutableMap.of(SVNProperty.EOL_STYLE, SVNProperty.EOL_STYLE_NATIVE));
+      }
+
+      final GitCommitCache cache = server.getContext().sure(GitCommitCache.class);
+      try (GitRepository repository = server.openRepository("commits")) {
+        for (int pass = 0; pass < 2; ++pass) {
+          for (int i = 0; i < 5; ++i) {
+            final GitRevision revision = repository.getRevisionInfo(i + 1);
+            Assert.assertEquals(revision.getLog(), "Create file: /file" + i + ".txt");
+            Assert.assertNotNull(revision.getFile("/file" + i + ".txt"));
+          }
+        }
+        Assert.assertTrue(cache.getStats().evictionCount() > 0);
+      }
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNProperty;
+import org.tmatesoft.svn.core.SVNPropertyValue;
+import org.tmatesoft.svn.core.io.ISVNEditor;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.SvnTestHelper;
+import svnserver.SvnTestServer;
+
+/**
+ * Revision path resolution cache test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitFileCacheTest {
+  @Test
+  public void resolveFiles() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository svn = server.openSvnRepository();
+      final ISVNEditor editor = svn.getCommitEditor("Create directories", null, false, null);
+      editor.openRoot(-1);
+      editor.addDir("/a", null, -1);
+      editor.addDir("/a/b", null, -1);
+      editor.addFile("/a/b/c.txt", null, -1);
+      editor.changeFileProperty("/a/b/c.txt", SVNProperty.EOL_STYLE, SVNPropertyValue.create(SVNProperty.EOL_STYLE_NATIVE));
+      SvnTestHelper.sendDeltaAndClose(editor, "/a/b/c.txt", null, "C\n");
+      editor.closeDir();
+      editor.closeDir();
+      editor.closeDir();
+      editor.closeEdit();
+      SvnTestHelper.createFile(svn, "/d.txt", "D\n", ImmutableMap.of(SVNProperty.EOL_STYLE, SVNProperty.EOL_STYLE_NATIVE));
+
+      final GitFileCache cache = server.getContext().sure(GitFileCache.class);
+      final long size = cache.size();
+      try (GitRepository repository = server.openRepository("files")) {
+        final GitRevision revision = repository.getLatestRevision();
+
+        final GitFile file = revision.getFile("/a/b/c.txt");
+        Assert.assertNotNull(file);
+        Assert.assertEquals(file.getFullPath(), "/a/b/c.txt");
+        final long fileHits = cache.getStats().hitCount();
+        Assert.assertEquals(revision.getFile("a/b/c.txt"), file);
+        Assert.assertEquals(revision.getFile("/a//b/c.txt/"), file);
+        Assert.assertEquals(cache.getStats().hitCount(), fileHits + 2);
+
+        // Parent directories are resolved with file.
+        final long hits = cache.getStats().hitCount();
+        final GitFile dir = revision.getFile("/a/b");
+        Assert.assertNotNull(dir);
+        Assert.assertTrue(dir.isDirectory());
+        Assert.assertEquals(cache.getStats().hitCount(), hits + 1);
+        Assert.assertNull(revision.getFile("/a/b/missing.txt"));
+        Assert.assertNull(revision.getFile("/a/b/c.txt/missing.txt"));
+
+        // Files of other revisions are cached separately.
+        final GitRevision prevRevision = repository.getRevisionInfo(revision.getId() - 1);
+        final GitFile prevFile = prevRevision.getFile("/a/b/c.txt");
+        Assert.assertNotNull(prevFile);
+        Assert.assertEquals(prevFile.getRevision(), revision.getId() - 1);
+        Assert.assertNull(prevRevision.getFile("/d.txt"));
+        Assert.assertNotNull(revision.getFile("/d.txt"));
+
+        // Cached directory copy loads own child entries.
+        final GitFile dirA = revision.getFile("/a");
+        Assert.assertNotNull(dirA);
+        Assert.assertEquals(dirA.getEntries().iterator().next().getFullPath(), "/a/b");
+        Assert.assertTrue(cache.size() > size);
+      }
+      // Files of closed repository are removed from cache.
+      Assert.assertEquals(cache.size(), size);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.repository.git.prop.GitIgnoreFactory;
+import svnserver.repository.git.prop.GitProperty;
+
+import java.io.IOException;
+
+/**
+ * Property cache test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitPropertyCacheTest {
+  @Test
+  public void cacheAndIntern() throws Exception {
+    final GitPropertyCache cache = new GitPropertyCache();
+    final GitProperty[] first = cache.getFile(".gitignore", id(1), () -> gitIgnore("*.class\n"));
+    Assert.assertEquals(first.length, 1);
+    Assert.assertSame(cache.getFile(".gitignore", id(1), () -> {
+      throw new IllegalStateException("Must be cached");
+    }), first);
+    // Equal properties of different objects are interned.
+    Assert.assertSame(cache.getFile(".gitignore", id(2), () -> gitIgnore("*.class\n")), first);
+    // Same object with other file name has separate entry.
+    Assert.assertNotSame(cache.getFile(".tgitconfig", id(1), () -> GitProperty.emptyArray), first);
+    Assert.assertSame(cache.getDirectory(id(1), () -> new GitProperty[0]), GitProperty.emptyArray);
+
+    Assert.assertEquals(cache.getEntryCount(), 4);
+    Assert.assertEquals(cache.getStats().hitCount(), 1);
+    Assert.assertEquals(cache.getStats().missCount(), 4);
+    Assert.assertTrue(cache.getEstimatedBytes() > 0);
+  }
+
+  @Test
+  public void eviction() throws Exception {
+    final GitPropertyCache cache = new GitPropertyCache(4096);
+    for (int i = 0; i < 100; ++i) {
+      final String content = "*.tmp" + i + "\n";
+      cache.getFile(".gitignore", id(i), () -> gitIgnore(content));
+    }
+    Assert.assertTrue(cache.getStats().evictionCount() > 0);
+    Assert.assertTrue(cache.getEntryCount() < 100);
+    Assert.assertTrue(cache.getEstimatedBytes() <= 4096, Long.toString(cache.getEstimatedBytes()));
+    Assert.assertTrue(cache.getEstimatedBytes() > 0);
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void loaderException() throws Exception {
+    new GitPropertyCache().getFile(".gitignore", id(1), () -> {
+      throw new IOException("Can't load");
+    });
+  }
+
+  @NotNull
+  private static GitProperty[] gitIgnore(@NotNull String content) throws IOException {
+    return new GitIgnoreFactory().create(content);
+  }
+
+  @NotNull
+  private static ObjectId id(int value) {
+    return ObjectId.fromRaw(new int[]{value, value * 7, value * 13, value * 17, value * 31});
+  }
+}
@@ -0,0 +1,63 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNProperty;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.SvnTestHelper;
+import svnserver.SvnTestServer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Effective file properties cache test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitPropertyMapCacheTest {
+  @Test
+  public void sharedProperties() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository svn = server.openSvnRepository();
+      final Map<String, String> textProps = ImmutableMap.of(SVNProperty.EOL_STYLE, SVNProperty.EOL_STYLE_NATIVE);
+      SvnTestHelper.createFile(svn, "/.gitattributes", "*.txt text eol=native\n", textProps);
+      SvnTestHelper.createFile(svn, "/a.txt", "A\n", textProps);
+      SvnTestHelper.createFile(svn, "/b.txt", "B\n", textProps);
+      SvnTestHelper.createFile(svn, "/c.bin", new byte[]{0, 1, 2, 3}, ImmutableMap.of(SVNProperty.MIME_TYPE, "application/octet-stream"));
+
+      try (GitRepository repository = server.openRepository("properties")) {
+        final GitPropertyMapCache cache = server.getContext().sure(GitPropertyMapCache.class);
+        final GitFile root = repository.getLatestRevision().getFile("");
+        Assert.assertNotNull(root);
+
+        final Map<String, GitFile> files = new HashMap<>();
+        for (GitFile file : root.getEntries()) {
+          files.put(file.getFileName(), file);
+        }
+        final Map<String, String> props = files.get("a.txt").getProperties();
+        Assert.assertEquals(props, textProps);
+        // Equal maps are shared between files.
+        Assert.assertSame(files.get("b.txt").getProperties(), props);
+        Assert.assertEquals(files.get("c.bin").getProperties(), ImmutableMap.of(SVNProperty.MIME_TYPE, "application/octet-stream"));
+
+        final long hits = cache.getStats().hitCount();
+        Assert.assertSame(files.get("a.txt").getProperties(), props);
+        Assert.assertEquals(cache.getStats().hitCount(), hits + 1);
+        try {
+          props.put("foo", "bar");
+          Assert.fail("Property map must be immutable");
+        } catch (UnsupportedOperationException ignored) {
+        }
+      }
+    }
+  }
+}
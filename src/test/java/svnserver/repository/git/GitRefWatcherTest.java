@@ -0,0 +1,45 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNProperty;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.SvnTestHelper;
+import svnserver.SvnTestServer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background branch watching test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitRefWatcherTest {
+  @Test
+  public void updateOnBranchMove() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty(config -> config.setRefWatchInterval(50))) {
+      try (GitRepository repository = server.openRepository("watched")) {
+        Assert.assertTrue(repository.isUpToDate());
+
+        final SVNRepository svn = server.openSvnRepository();
+        SvnTestHelper.createFile(svn, "/foo.txt", "Foo\n", ImmutableMap.of(SVNProperty.EOL_STYLE, SVNProperty.EOL_STYLE_NATIVE));
+        final long latestRevision = svn.getLatestRevision();
+
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (repository.getLatestRevision().getId() < latestRevision && System.currentTimeMillis() < deadline) {
+          Thread.sleep(10);
+        }
+        Assert.assertEquals(repository.getLatestRevision().getId(), latestRevision);
+        Assert.assertTrue(repository.isUpToDate());
+      }
+    }
+  }
+}
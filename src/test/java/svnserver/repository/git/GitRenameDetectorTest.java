@@ -0,0 +1,110 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.collect.ImmutableMap;
+import org.eclipse.jgit.lib.*;
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.TestHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rename detection test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitRenameDetectorTest {
+  @NotNull
+  private static final String CONTENT = createContent();
+
+  @Test
+  public void renames() throws Exception {
+    final Repository repository = TestHelper.emptyRepository();
+    final ObjectId[] trees = createTrees(repository);
+    final GitRenameDetector detector = new GitRenameDetector();
+    final Map<String, String> expected = ImmutableMap.of(
+        "/b.txt", "/a.txt",
+        "/d.txt", "/c.txt"
+    );
+    Assert.assertEquals(detector.detectRenames(repository, trees[0], trees[1], null, "test"), expected);
+    final long hits = detector.getStats().hitCount();
+    try (GitIndexingPool pool = new GitIndexingPool(2)) {
+      Assert.assertEquals(detector.detectRenames(repository, trees[0], trees[1], pool, "test"), expected);
+    }
+    Assert.assertTrue(detector.getStats().hitCount() > hits);
+  }
+
+  @Test
+  public void candidateLimit() throws Exception {
+    final Repository repository = TestHelper.emptyRepository();
+    final ObjectId[] trees = createTrees(repository);
+    Assert.assertEquals(new GitRenameDetector(0, GitRenameDetector.DEFAULT_TIMEOUT, GitRenameDetector.DEFAULT_BIG_FILE_THRESHOLD).detectRenames(repository, trees[0], trees[1], null, "test"), ImmutableMap.of("/b.txt", "/a.txt"));
+  }
+
+  @Test
+  public void timeout() throws Exception {
+    final Repository repository = TestHelper.emptyRepository();
+    final ObjectId[] trees = createTrees(repository);
+    Assert.assertEquals(new GitRenameDetector(GitRenameDetector.DEFAULT_CANDIDATE_LIMIT, 0, GitRenameDetector.DEFAULT_BIG_FILE_THRESHOLD).detectRenames(repository, trees[0], trees[1], null, "test"), ImmutableMap.of("/b.txt", "/a.txt"));
+  }
+
+  @Test
+  public void bigFileThreshold() throws Exception {
+    final Repository repository = TestHelper.emptyRepository();
+    final ObjectId[] trees = createTrees(repository);
+    final GitRenameDetector detector = new GitRenameDetector(GitRenameDetector.DEFAULT_CANDIDATE_LIMIT, GitRenameDetector.DEFAULT_TIMEOUT, CONTENT.length());
+    Assert.assertEquals(detector.detectRenames(repository, trees[0], trees[1], null, "test"), ImmutableMap.of("/b.txt", "/a.txt"));
+  }
+
+  /**
+   * Old and new trees:
+   * - a.txt renamed to b.txt without changes;
+   * - c.txt renamed to d.txt with small change;
+   * - e.txt removed and unrelated f.txt added.
+   */
+  @NotNull
+  private static ObjectId[] createTrees(@NotNull Repository repository) throws IOException {
+    try (ObjectInserter inserter = repository.newObjectInserter()) {
+      final Map<String, String> oldFiles = new TreeMap<>();
+      oldFiles.put("a.txt", "Some file\n");
+      oldFiles.put("c.txt", CONTENT);
+      oldFiles.put("e.txt", "Removed file\n");
+      final Map<String, String> newFiles = new TreeMap<>();
+      newFiles.put("b.txt", "Some file\n");
+      newFiles.put("d.txt", CONTENT + "One more line\n");
+      newFiles.put("f.txt", "Unrelated file\n");
+      final ObjectId[] result = {createTree(inserter, oldFiles), createTree(inserter, newFiles)};
+      inserter.flush();
+      return result;
+    }
+  }
+
+  @NotNull
+  private static ObjectId createTree(@NotNull ObjectInserter inserter, @NotNull Map<String, String> files) throws IOException {
+    final TreeFormatter formatter = new TreeFormatter();
+    for (Map.Entry<String, String> entry : files.entrySet()) {
+      formatter.append(entry.getKey(), FileMode.REGULAR_FILE, inserter.insert(Constants.OBJ_BLOB, entry.getValue().getBytes(StandardCharsets.UTF_8)));
+    }
+    return inserter.insert(formatter);
+  }
+
+  @NotNull
+  private static String createContent() {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 20; ++i) {
+      builder.append("Line ").append(i).append('\n');
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,91 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.lib.*;
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.TestHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsed tree cache test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitTreeCacheTest {
+  @Test
+  public void lookup() throws Exception {
+    final Repository repository = TestHelper.emptyRepository();
+    final GitTree tree = new GitTreeCache().load(repository, createTree(repository));
+    final List<String> names = new ArrayList<>();
+    for (GitTreeEntry entry : tree) {
+      names.add(entry.getFileName());
+    }
+    // Git tree order: directory name is compared with trailing slash.
+    Assert.assertEquals(names.toArray(), new String[]{"a-b", "a.txt", "a", "b"});
+    for (String name : names) {
+      final GitTreeEntry entry = tree.getEntry(name);
+      Assert.assertNotNull(entry, name);
+      Assert.assertEquals(entry.getFileName(), name);
+    }
+    Assert.assertEquals(tree.getEntry("a").getFileMode(), FileMode.TREE);
+    Assert.assertNull(tree.getEntry("a.tx"));
+    Assert.assertNull(tree.getEntry("c"));
+    Assert.assertNull(tree.getEntry(""));
+  }
+
+  @Test
+  public void cacheHits() throws Exception {
+    final Repository repository = TestHelper.emptyRepository();
+    final ObjectId treeId = createTree(repository);
+    final GitTreeCache cache = new GitTreeCache();
+    final GitTree tree = cache.load(repository, treeId);
+    Assert.assertSame(cache.load(repository, treeId), tree);
+    Assert.assertEquals(cache.getStats().hitCount(), 1);
+    // Same tree of other repository.
+    final Repository other = TestHelper.emptyRepository();
+    Assert.assertEquals(createTree(other), treeId);
+    Assert.assertNotSame(cache.load(other, treeId), tree);
+  }
+
+  @Test
+  public void evictedTrees() throws Exception {
+    final Repository repository = TestHelper.emptyRepository();
+    final ObjectId treeId = createTree(repository);
+    final GitTreeCache cache = new GitTreeCache(4);
+    final GitTree tree = cache.load(repository, treeId);
+    Assert.assertEquals(tree.size(), 4);
+    Assert.assertEquals(cache.getStats().evictionCount(), 1);
+    Assert.assertNotSame(cache.load(repository, treeId), tree);
+  }
+
+  @NotNull
+  private static ObjectId createTree(@NotNull Repository repository) throws IOException {
+    try (ObjectInserter inserter = repository.newObjectInserter()) {
+      final ObjectId blob = inserter.insert(Constants.OBJ_BLOB, "Some file\n".getBytes(StandardCharsets.UTF_8));
+      final TreeFormatter subtree = new TreeFormatter();
+      subtree.append("c.txt", FileMode.REGULAR_FILE, blob);
+      final ObjectId subtreeId = inserter.insert(subtree);
+
+      final TreeFormatter formatter = new TreeFormatter();
+      formatter.append("a-b", FileMode.REGULAR_FILE, blob);
+      formatter.append("a.txt", FileMode.REGULAR_FILE, blob);
+      formatter.append("a", FileMode.TREE, subtreeId);
+      formatter.append("b", FileMode.REGULAR_FILE, blob);
+      final ObjectId result = inserter.insert(formatter);
+      inserter.flush();
+      return result;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.collect.ImmutableMap;
+import org.mapdb.HTreeMap;
+import org.mapdb.Serializer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNProperty;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.SvnTestHelper;
+import svnserver.SvnTestServer;
+
+import java.util.Map;
+
+/**
+ * Parallel revision changes computation test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class ParallelIndexingTest {
+  @Test
+  public void sameAsSequential() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      Assert.assertNotNull(server.getContext().get(GitIndexingPool.class));
+      final SVNRepository svn = server.openSvnRepository();
+      for (int i = 0; i < 20; ++i) {
+        SvnTestHelper.createFile(svn, "/file" + i + ".txt", "File " + i + "\n", ImmutableMap.of(SVNProperty.EOL_STYLE, SVNProperty.EOL_STYLE_NATIVE));
+        if (i % 3 == 2) {
+          SvnTestHelper.modifyFile(svn, "/file" + (i - 1) + ".txt", "Modified\n", svn.getLatestRevision());
+        }
+      }
+      final long latestRevision = svn.getLatestRevision();
+
+      // Revision changes, computed sequentially on commit.
+      final HTreeMap<String, byte[]> expected = server.getContext().getCacheDB().hashMap("cache-revision-v2.test.1", Serializer.STRING, Serializer.BYTE_ARRAY).createOrOpen();
+
+      // Repository with own context name has empty caches and indexes all revisions in parallel.
+      try (GitRepository repository = server.openRepository("parallel")) {
+        Assert.assertEquals(repository.getLatestRevision().getId(), latestRevision);
+
+        final HTreeMap<String, byte[]> revisionCache = server.getContext().getCacheDB().hashMap("cache-revision-v2.parallel.1", Serializer.STRING, Serializer.BYTE_ARRAY).createOrOpen();
+        Assert.assertEquals(revisionCache.size(), expected.size());
+        for (Map.Entry<String, byte[]> entry : expected.getEntries()) {
+          Assert.assertEquals(revisionCache.get(entry.getKey()), entry.getValue(), entry.getKey());
+        }
+      }
+    }
+  }
+}
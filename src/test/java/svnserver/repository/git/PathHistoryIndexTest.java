@@ -0,0 +1,106 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.repository.VcsPathChanges;
+
+import java.util.*;
+
+/**
+ * Path history index test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class PathHistoryIndexTest {
+  @Test
+  public void simple() {
+    final PathHistoryIndex index = new PathHistoryIndex();
+    index.add("/foo", 1, false);
+    index.add("/foo/bar.txt", 1, false);
+    index.add("/foo/bar.txt", 3, false);
+    index.add("/foo/bar.txt", 5, true);
+    index.add("/foo/bar.txt", 7, false);
+
+    Assert.assertEquals(index.getLastChange("/foo/bar.txt", 0), PathHistoryIndex.NO_CHANGE);
+    Assert.assertEquals(index.getLastChange("/foo/bar.txt", 1), 1);
+    Assert.assertEquals(index.getLastChange("/foo/bar.txt", 2), 1);
+    Assert.assertEquals(index.getLastChange("/foo/bar.txt", 4), 3);
+    Assert.assertEquals(index.getLastChange("/foo/bar.txt", 5), PathHistoryIndex.NO_CHANGE);
+    Assert.assertEquals(index.getLastChange("/foo/bar.txt", 6), PathHistoryIndex.NO_CHANGE);
+    Assert.assertEquals(index.getLastChange("/foo/bar.txt", 100), 7);
+    Assert.assertEquals(index.getLastChange("/foo", 100), 1);
+    Assert.assertEquals(index.getLastChange("/foo/bar", 100), PathHistoryIndex.NO_CHANGE);
+    Assert.assertEquals(index.getLastChange("/foo/", 100), PathHistoryIndex.NO_CHANGE);
+    Assert.assertEquals(index.getLastChange("/fo", 100), PathHistoryIndex.NO_CHANGE);
+    Assert.assertEquals(index.getChangeCount(), 5);
+
+    checkChanges(index.getChanges("/foo/bar.txt", 0));
+    checkChanges(index.getChanges("/foo/bar.txt", 4), 1, 3);
+    checkChanges(index.getChanges("/foo/bar.txt", 6));
+    checkChanges(index.getChanges("/foo/bar.txt", 100), 7);
+    checkChanges(index.getChanges("/foo/bar", 100));
+  }
+
+  private static void checkChanges(@NotNull VcsPathChanges changes, int... expected) {
+    final int[] actual = new int[changes.size()];
+    for (int i = 0; i < actual.length; ++i) {
+      actual[i] = changes.get(i);
+    }
+    Assert.assertEquals(actual, expected);
+  }
+
+  @Test
+  public void random() {
+    final Random random = new Random(0);
+    final String[] names = {"a", "b", "ab", "foo", "Foo", "bar.txt", ""};
+    final PathHistoryIndex index = new PathHistoryIndex();
+    final Map<String, TreeMap<Integer, Boolean>> expected = new HashMap<>();
+    final List<String> paths = new ArrayList<>();
+    for (int i = 0; i < 200; ++i) {
+      final StringBuilder path = new StringBuilder();
+      final int depth = random.nextInt(4);
+      for (int j = 0; j <= depth; ++j) {
+        path.append('/').append(names[random.nextInt(names.length)]);
+      }
+      paths.add(path.toString());
+    }
+    final int revisions = 500;
+    for (int revision = 1; revision <= revisions; ++revision) {
+      final Set<String> changed = new HashSet<>();
+      for (int i = random.nextInt(10); i >= 0; --i) {
+        changed.add(paths.get(random.nextInt(paths.size())));
+      }
+      for (String path : changed) {
+        final boolean deleted = random.nextInt(4) == 0;
+        index.add(path, revision, deleted);
+        expected.computeIfAbsent(path, key -> new TreeMap<>()).put(revision, deleted);
+      }
+    }
+    for (String path : paths) {
+      final TreeMap<Integer, Boolean> history = expected.getOrDefault(path, new TreeMap<>());
+      for (int revision = 0; revision <= revisions + 1; ++revision) {
+        final Map.Entry<Integer, Boolean> entry = history.floorEntry(revision);
+        final int last = entry == null || entry.getValue() ? PathHistoryIndex.NO_CHANGE : entry.getKey();
+        Assert.assertEquals(index.getLastChange(path, revision), last, path + "@" + revision);
+
+        final VcsPathChanges changes = index.getChanges(path, revision);
+        Assert.assertEquals(changes.size() == 0 ? PathHistoryIndex.NO_CHANGE : changes.get(changes.size() - 1), last, path + "@" + revision);
+        if (changes.size() > 0) {
+          final Map.Entry<Integer, Boolean> before = history.lowerEntry(changes.get(0));
+          Assert.assertTrue(before == null || before.getValue(), path + "@" + revision);
+          Assert.assertEquals(history.subMap(changes.get(0), true, last, true).size(), changes.size(), path + "@" + revision);
+          Assert.assertEquals(changes.ceilingIndex(last), changes.size() - 1);
+        }
+      }
+    }
+    Assert.assertTrue(index.getNameCount() <= names.length);
+  }
+}
@@ -0,0 +1,111 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.collect.ImmutableMap;
+import org.jetbrains.annotations.NotNull;
+import org.mapdb.HTreeMap;
+import org.mapdb.Serializer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNProperty;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.SvnTestHelper;
+import svnserver.SvnTestServer;
+
+import java.util.Map;
+
+/**
+ * Revision index snapshot test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class RevisionIndexSnapshotTest {
+  @NotNull
+  private static final Map<String, String> propsEolNative = ImmutableMap.of(SVNProperty.EOL_STYLE, SVNProperty.EOL_STYLE_NATIVE);
+  @NotNull
+  private static final String[] paths = {"", "/foo.txt", "/bar.txt", "/baz.txt"};
+
+  @Test
+  public void reopen() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository svn = server.openSvnRepository();
+      SvnTestHelper.createFile(svn, "/foo.txt", "Foo\n", propsEolNative);
+      SvnTestHelper.createFile(svn, "/bar.txt", "Bar\n", propsEolNative);
+      SvnTestHelper.modifyFile(svn, "/foo.txt", "Foo content\n", svn.getLatestRevision());
+      SvnTestHelper.deleteFile(svn, "/bar.txt");
+
+      final HTreeMap<String, byte[]> indexCache = server.getContext().getCacheDB().hashMap("cache-index.test.1", Serializer.STRING, Serializer.BYTE_ARRAY).createOrOpen();
+      final HTreeMap<String, byte[]> revisionCache = server.getContext().getCacheDB().hashMap("cache-revision-v2.test.1", Serializer.STRING, Serializer.BYTE_ARRAY).createOrOpen();
+      Assert.assertEquals(indexCache.size(), 1);
+      final String key = "refs/git-as-svn/v1/master";
+      final byte[] snapshot = indexCache.get(key);
+      Assert.assertNotNull(RevisionIndexSnapshot.deserialize(snapshot));
+
+      // Snapshot is used: no revision changes are loaded.
+      revisionCache.clear();
+      try (GitRepository fromSnapshot = server.openRepository(SvnTestServer.CONTEXT_NAME)) {
+        Assert.assertTrue(revisionCache.isEmpty());
+
+        // Broken snapshot is ignored.
+        snapshot[snapshot.length / 2] ^= 1;
+        Assert.assertNull(RevisionIndexSnapshot.deserialize(snapshot));
+        indexCache.put(key, snapshot);
+        try (GitRepository fromScratch = server.openRepository(SvnTestServer.CONTEXT_NAME)) {
+          Assert.assertFalse(revisionCache.isEmpty());
+
+          compare(fromSnapshot, fromScratch);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void replayNewRevisions() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository svn = server.openSvnRepository();
+      SvnTestHelper.createFile(svn, "/foo.txt", "Foo\n", propsEolNative);
+      SvnTestHelper.createFile(svn, "/bar.txt", "Bar\n", propsEolNative);
+
+      final HTreeMap<String, byte[]> indexCache = server.getContext().getCacheDB().hashMap("cache-index.test.1", Serializer.STRING, Serializer.BYTE_ARRAY).createOrOpen();
+      final String key = "refs/git-as-svn/v1/master";
+      final byte[] snapshot = indexCache.get(key);
+
+      SvnTestHelper.deleteFile(svn, "/foo.txt");
+      SvnTestHelper.createFile(svn, "/baz.txt", "Baz\n", propsEolNative);
+
+      // Outdated snapshot: latest revisions must be loaded from cache branch.
+      indexCache.put(key, snapshot);
+      try (GitRepository fromSnapshot = server.openRepository(SvnTestServer.CONTEXT_NAME)) {
+        indexCache.clear();
+        try (GitRepository fromScratch = server.openRepository(SvnTestServer.CONTEXT_NAME)) {
+          Assert.assertEquals(fromSnapshot.getLatestRevision().getId(), 4);
+          compare(fromSnapshot, fromScratch);
+        }
+      }
+    }
+  }
+
+  private static void compare(@NotNull GitRepository actual, @NotNull GitRepository expected) throws Exception {
+    final int latest = expected.getLatestRevision().getId();
+    Assert.assertEquals(actual.getLatestRevision().getId(), latest);
+    for (int id = 0; id <= latest; ++id) {
+      final GitRevision actualRevision = actual.getRevisionInfo(id);
+      final GitRevision expectedRevision = expected.getRevisionInfo(id);
+      Assert.assertEquals(actualRevision.getDate(), expectedRevision.getDate());
+      Assert.assertEquals(actualRevision.getAuthor(), expectedRevision.getAuthor());
+      Assert.assertEquals(actualRevision.getLog(), expectedRevision.getLog());
+      Assert.assertEquals(actualRevision.getProperties(true), expectedRevision.getProperties(true));
+      Assert.assertEquals(actualRevision.getCacheCommit(), expectedRevision.getCacheCommit());
+      for (String path : paths) {
+        Assert.assertEquals(actual.getLastChange(path, id), expected.getLastChange(path, id), path + "@" + id);
+      }
+    }
+    Assert.assertEquals(actual.getRevisionByDate(System.currentTimeMillis()).getId(), latest);
+  }
+}
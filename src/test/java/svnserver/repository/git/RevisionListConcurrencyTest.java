@@ -0,0 +1,79 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNProperty;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.SvnTestHelper;
+import svnserver.SvnTestServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Revision list reads during concurrent revision loading.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class RevisionListConcurrencyTest {
+  private static final int FILES = 30;
+  private static final int READERS = 4;
+
+  @Test
+  public void readDuringUpdate() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      try (GitRepository repository = server.openRepository("reader")) {
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        try {
+          final List<Future<Integer>> readers = new ArrayList<>();
+          for (int i = 0; i < READERS; ++i) {
+            readers.add(executor.submit(() -> {
+              int checks = 0;
+              int lastSeen = 0;
+              while (!done.get()) {
+                final GitRevision latest = repository.getLatestRevision();
+                Assert.assertTrue(latest.getId() >= lastSeen);
+                lastSeen = latest.getId();
+                Assert.assertSame(repository.getRevisionInfo(latest.getId()), latest);
+                Assert.assertTrue(repository.getRevisionByDate(Long.MAX_VALUE).getId() >= latest.getId());
+                if (latest.getGitNewCommitId() != null) {
+                  Assert.assertSame(repository.getRevision(latest.getGitNewCommitId()), latest);
+                }
+                // File N is created in revision N + 1.
+                for (int file = 0; file < latest.getId(); ++file) {
+                  Assert.assertEquals(repository.getLastChange("/file" + file + ".txt", latest.getId()), file + 1);
+                }
+                checks++;
+              }
+              return checks;
+            }));
+          }
+          final SVNRepository svn = server.openSvnRepository();
+          for (int file = 0; file < FILES; ++file) {
+            SvnTestHelper.createFile(svn, "/file" + file + ".txt", "File " + file + "\n", ImmutableMap.of(SVNProperty.EOL_STYLE, SVNProperty.EOL_STYLE_NATIVE));
+            repository.updateRevisions();
+          }
+          done.set(true);
+          for (Future<Integer> reader : readers) {
+            Assert.assertTrue(reader.get() > 0);
+          }
+          Assert.assertEquals(repository.getLatestRevision().getId(), FILES);
+        } finally {
+          done.set(true);
+          executor.shutdown();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.cache;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.google.common.collect.ImmutableMap;
+import org.eclipse.jgit.lib.ObjectId;
+import org.jetbrains.annotations.NotNull;
+import org.mapdb.HTreeMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNProperty;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.SvnTestHelper;
+import svnserver.SvnTestServer;
+import svnserver.repository.VcsRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Revision cache serialization test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class CacheRevisionTest {
+  @Test
+  public void serialize() throws Exception {
+    final Map<String, String> renames = new TreeMap<>();
+    renames.put("/trunk/b.txt", "/trunk/a.txt");
+    renames.put("/trunk/д.txt", "/trunk/г.txt");
+    final Map<String, CacheChange> changes = new TreeMap<>();
+    changes.put("/trunk", new CacheChange(id(1), id(2)));
+    changes.put("/trunk/a.txt", new CacheChange(id(3), null));
+    changes.put("/trunk/b.txt", new CacheChange(null, id(3)));
+    changes.put("/trunk/г.txt", new CacheChange(id(4), null));
+    changes.put("/trunk/д.txt", new CacheChange(null, id(4)));
+    changes.put("/trunk/д/е.txt", new CacheChange(id(5), id(6)));
+    changes.put("/trunk/ж.txt", new CacheChange(id(8), id(9), CacheChange.LOG_INFO | CacheChange.LOG_OLD_ENTRY | CacheChange.LOG_NEW_ENTRY | CacheChange.LOG_MODIFIED | CacheChange.LOG_COMPARE));
+    changes.put("/trunk/з", new CacheChange(id(10), null, CacheChange.LOG_INFO | CacheChange.LOG_OLD_ENTRY | CacheChange.LOG_OLD_DIR));
+    final CacheRevision revision = new CacheRevision(id(7), renames, changes);
+
+    final byte[] bytes = CacheRevision.serialize(revision);
+    checkEquals(CacheRevision.deserialize(bytes), revision);
+    checkEquals(CacheRevision.deserialize(CacheRevision.serialize(CacheRevision.empty)), CacheRevision.empty);
+
+    bytes[bytes.length / 2] ^= 1;
+    Assert.assertNull(CacheRevision.deserialize(bytes));
+    Assert.assertNull(CacheRevision.deserialize(new byte[0]));
+    Assert.assertNull(CacheRevision.deserialize(null));
+  }
+
+  @Test
+  public void migrateLegacy() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository svn = server.openSvnRepository();
+      SvnTestHelper.createFile(svn, "/foo.txt", "Foo\n", ImmutableMap.of(SVNProperty.EOL_STYLE, SVNProperty.EOL_STYLE_NATIVE));
+      SvnTestHelper.createFile(svn, "/bar.txt", "Bar\n", ImmutableMap.of(SVNProperty.EOL_STYLE, SVNProperty.EOL_STYLE_NATIVE));
+
+      final HTreeMap<String, byte[]> revisionCache = server.getContext().getCacheDB().hashMap("cache-revision-v2.test.1", org.mapdb.Serializer.STRING, org.mapdb.Serializer.BYTE_ARRAY).createOrOpen();
+      final HTreeMap<String, byte[]> legacyCache = server.getContext().getCacheDB().hashMap("cache-revision.test.1", org.mapdb.Serializer.STRING, org.mapdb.Serializer.BYTE_ARRAY).createOrOpen();
+      final Map<String, CacheRevision> expected = new HashMap<>();
+      for (Map.Entry<String, byte[]> entry : revisionCache.getEntries()) {
+        expected.put(entry.getKey(), withoutLogInfo(CacheRevision.deserialize(entry.getValue())));
+        final byte[] legacy = serializeLegacy(CacheRevision.deserialize(entry.getValue()));
+        checkEquals(CacheRevision.deserializeLegacy(legacy), expected.get(entry.getKey()));
+        legacyCache.put(entry.getKey(), legacy);
+      }
+      Assert.assertFalse(expected.isEmpty());
+      revisionCache.clear();
+
+      try (VcsRepository repository = server.openRepository(SvnTestServer.CONTEXT_NAME)) {
+        Assert.assertTrue(legacyCache.isEmpty());
+        Assert.assertEquals(revisionCache.size(), expected.size());
+        for (Map.Entry<String, CacheRevision> entry : expected.entrySet()) {
+          checkEquals(CacheRevision.deserialize(revisionCache.get(entry.getKey())), entry.getValue());
+        }
+        Assert.assertEquals(repository.getLatestRevision().getId(), svn.getLatestRevision());
+      }
+    }
+  }
+
+  @NotNull
+  private static ObjectId id(int value) {
+    return ObjectId.fromRaw(new int[]{value, value * 7, value * 13, value * 17, value * 31});
+  }
+
+  private static void checkEquals(CacheRevision actual, @NotNull CacheRevision expected) {
+    Assert.assertNotNull(actual);
+    Assert.assertEquals(actual.getGitCommitId(), expected.getGitCommitId());
+    Assert.assertEquals(actual.getRenames(), expected.getRenames());
+    Assert.assertEquals(actual.getFileChange().keySet(), expected.getFileChange().keySet());
+    for (Map.Entry<String, CacheChange> entry : expected.getFileChange().entrySet()) {
+      final CacheChange change = actual.getFileChange().get(entry.getKey());
+      Assert.assertEquals(change.getOldFile(), entry.getValue().getOldFile(), entry.getKey());
+      Assert.assertEquals(change.getNewFile(), entry.getValue().getNewFile(), entry.getKey());
+      Assert.assertEquals(change.getLogFlags(), entry.getValue().getLogFlags(), entry.getKey());
+    }
+  }
+
+  /**
+   * Legacy format doesn't have log information.
+   */
+  @NotNull
+  private static CacheRevision withoutLogInfo(CacheRevision revision) {
+    Assert.assertNotNull(revision);
+    final Map<String, CacheChange> changes = new TreeMap<>();
+    for (Map.Entry<String, CacheChange> entry : revision.getFileChange().entrySet()) {
+      Assert.assertTrue(entry.getValue().hasLogInfo(), entry.getKey());
+      changes.put(entry.getKey(), new CacheChange(entry.getValue().getOldFile(), entry.getValue().getNewFile()));
+    }
+    return new CacheRevision(revision.getGitCommitId(), revision.getRenames(), changes);
+  }
+
+  /**
+   * Serialize revision cache like previous versions did.
+   */
+  @NotNull
+  private static byte[] serializeLegacy(CacheRevision revision) {
+    final Kryo kryo = new Kryo();
+    kryo.register(ObjectId.class, new Serializer<ObjectId>() {
+      @Override
+      public void write(Kryo kryo, Output output, ObjectId object) {
+        output.writeString(object != null ? object.name() : null);
+      }
+
+      @Override
+      public ObjectId read(Kryo kryo, Input input, Class<ObjectId> type) {
+        final String id = input.readString();
+        return id != null ? ObjectId.fromString(id) : null;
+      }
+    });
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    try (Output output = new Output(stream)) {
+      kryo.writeObject(output, revision);
+    }
+    return stream.toByteArray();
+  }
+}
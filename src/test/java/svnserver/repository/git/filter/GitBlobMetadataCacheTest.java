@@ -0,0 +1,176 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.filter;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.mapdb.HTreeMap;
+import org.mapdb.Serializer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.auth.User;
+import svnserver.context.CacheReport;
+import svnserver.repository.git.GitObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Blob metadata cache layout test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitBlobMetadataCacheTest {
+  @Test
+  public void filterIds() throws Exception {
+    final DB db = DBMaker.memoryDB().make();
+    final GitBlobMetadataCache cache = new GitBlobMetadataCache(db);
+    final ObjectId objectId = id(1);
+    final GitBlobMetadata raw = metadata("raw");
+    final GitBlobMetadata gzip = metadata("gzip");
+    cache.putIfAbsent(filter("raw"), objectId, raw);
+    cache.putIfAbsent(filter("gzip"), objectId, gzip);
+    Assert.assertEquals(cache.size(), 2);
+    checkEquals(cache.get(filter("raw"), objectId), raw);
+    checkEquals(cache.get(filter("gzip"), objectId), gzip);
+    Assert.assertNull(cache.get(filter("link"), objectId));
+    Assert.assertNull(cache.get(filter("raw"), id(2)));
+
+    // Filter ids must survive cache reopening.
+    final GitBlobMetadataCache reopened = new GitBlobMetadataCache(db);
+    checkEquals(reopened.get(filter("gzip"), objectId), gzip);
+  }
+
+  @Test
+  public void migrate() throws Exception {
+    final DB db = DBMaker.memoryDB().make();
+    final HTreeMap<String, String> legacyRawMd5 = db.hashMap("cache.filter.raw.md5", Serializer.STRING, Serializer.STRING).createOrOpen();
+    final HTreeMap<String, String> legacyGzipMd5 = db.hashMap("cache.filter.gzip.md5", Serializer.STRING, Serializer.STRING).createOrOpen();
+    final HTreeMap<String, Long> legacyGzipSize = db.hashMap("cache.filter.gzip.size", Serializer.STRING, Serializer.LONG).createOrOpen();
+    final HTreeMap<String, Boolean> legacyBinary = db.hashMap(GitBlobMetadataCache.LEGACY_BINARY_NAME, Serializer.STRING, Serializer.BOOLEAN).createOrOpen();
+    for (int i = 0; i < 100; ++i) {
+      final GitBlobMetadata metadata = metadata("content " + i);
+      // Raw filter had no size cache.
+      legacyRawMd5.put(id(i).name(), metadata.getMd5());
+      legacyBinary.put("raw " + id(i).name(), metadata.isBinary());
+      legacyGzipMd5.put(id(i).name(), metadata.getMd5());
+      legacyGzipSize.put(id(i).name(), metadata.getSize());
+      // Binary flag is unknown for every tenth blob.
+      if (i % 10 != 0) {
+        legacyBinary.put("gzip " + id(i).name(), metadata.isBinary());
+      }
+    }
+    legacyGzipMd5.put("broken", "broken");
+    legacyGzipSize.put("broken", 0L);
+    legacyBinary.put("gzip broken", false);
+
+    final CacheReport before = CacheReport.create(db);
+    final GitBlobMetadataCache cache = new GitBlobMetadataCache(db);
+    final CacheReport after = CacheReport.create(db);
+
+    Assert.assertTrue(legacyRawMd5.isEmpty());
+    Assert.assertTrue(legacyGzipMd5.isEmpty());
+    Assert.assertTrue(legacyGzipSize.isEmpty());
+    Assert.assertTrue(legacyBinary.isEmpty());
+    Assert.assertEquals(cache.size(), 90);
+    for (int i = 0; i < 100; ++i) {
+      Assert.assertNull(cache.get(filter("raw"), id(i)));
+      final GitBlobMetadata actual = cache.get(filter("gzip"), id(i));
+      if (i % 10 == 0) {
+        Assert.assertNull(actual);
+        continue;
+      }
+      final GitBlobMetadata expected = metadata("content " + i);
+      Assert.assertNotNull(actual);
+      Assert.assertEquals(actual.getSize(), expected.getSize());
+      Assert.assertEquals(actual.getMd5(), expected.getMd5());
+      Assert.assertNull(actual.getSha256());
+      Assert.assertEquals(actual.isBinary(), expected.isBinary());
+    }
+    Assert.assertTrue(after.getLogicalBytes() < before.getLogicalBytes(), before.format() + "\n" + after.format());
+    // Store doesn't shrink until compaction: removed entries become free space.
+    Assert.assertTrue(after.getStoreBytes() >= before.getStoreBytes(), before.format() + "\n" + after.format());
+    Assert.assertTrue(after.getFreeBytes() > before.getFreeBytes(), before.format() + "\n" + after.format());
+    db.getStore().compact();
+    final CacheReport compacted = CacheReport.create(db);
+    Assert.assertTrue(compacted.getFreeBytes() < after.getFreeBytes(), after.format() + "\n" + compacted.format());
+
+    // Conversion is done only once.
+    Assert.assertTrue(db.atomicBoolean(GitBlobMetadataCache.MIGRATED_NAME).createOrOpen().get());
+    legacyGzipMd5.put(id(0).name(), metadata("content 0").getMd5());
+    final GitBlobMetadataCache reopened = new GitBlobMetadataCache(db);
+    Assert.assertEquals(reopened.size(), 90);
+    Assert.assertEquals(legacyGzipMd5.size(), 1);
+  }
+
+  @Test
+  public void migrateEmpty() throws Exception {
+    final DB db = DBMaker.memoryDB().make();
+    db.hashMap(GitBlobMetadataCache.LEGACY_BINARY_NAME, Serializer.STRING, Serializer.BOOLEAN).createOrOpen();
+    final GitBlobMetadataCache cache = new GitBlobMetadataCache(db);
+    Assert.assertEquals(cache.size(), 0);
+    Assert.assertTrue(db.atomicBoolean(GitBlobMetadataCache.MIGRATED_NAME).createOrOpen().get());
+  }
+
+  @NotNull
+  private static GitBlobMetadata metadata(@NotNull String content) throws Exception {
+    return GitFilterHelper.createMetadata(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @NotNull
+  private static GitFilter filter(@NotNull String name) {
+    return new GitFilter() {
+      @NotNull
+      @Override
+      public String getName() {
+        return name;
+      }
+
+      @NotNull
+      @Override
+      public String getMd5(@NotNull GitObject<? extends ObjectId> objectId) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public long getSize(@NotNull GitObject<? extends ObjectId> objectId) {
+        throw new UnsupportedOperationException();
+      }
+
+      @NotNull
+      @Override
+      public InputStream inputStream(@NotNull GitObject<? extends ObjectId> objectId) {
+        throw new UnsupportedOperationException();
+      }
+
+      @NotNull
+      @Override
+      public OutputStream outputStream(@NotNull OutputStream stream, @Nullable User user) {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @NotNull
+  private static ObjectId id(int value) {
+    return ObjectId.fromRaw(new int[]{value, value * 7, value * 13, value * 17, value * 31});
+  }
+
+  private static void checkEquals(GitBlobMetadata actual, @NotNull GitBlobMetadata expected) {
+    Assert.assertNotNull(actual);
+    Assert.assertEquals(actual.getSize(), expected.getSize());
+    Assert.assertEquals(actual.getMd5(), expected.getMd5());
+    Assert.assertEquals(actual.getSha256(), expected.getSha256());
+    Assert.assertEquals(actual.isBinary(), expected.isBinary());
+  }
+}
@@ -0,0 +1,154 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.filter;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.Repository;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.HashHelper;
+import svnserver.StringHelper;
+import svnserver.TestHelper;
+import svnserver.context.LocalContext;
+import svnserver.context.SharedContext;
+import svnserver.repository.git.GitObject;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Blob metadata test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitBlobMetadataTest {
+  @Test
+  public void textContent() throws Exception {
+    final byte[] content = "Some text\n".getBytes(StandardCharsets.UTF_8);
+    final GitBlobMetadata metadata = GitFilterHelper.createMetadata(new ByteArrayInputStream(content));
+    Assert.assertEquals(metadata.getSize(), content.length);
+    Assert.assertEquals(metadata.getMd5(), StringHelper.toHex(HashHelper.md5().digest(content)));
+    Assert.assertEquals(metadata.getSha256(), StringHelper.toHex(HashHelper.sha256().digest(content)));
+    Assert.assertFalse(metadata.isBinary());
+  }
+
+  @Test
+  public void binaryContent() throws Exception {
+    // Binary marker after first read buffer must be ignored, like SVNFileUtil.detectMimeType does.
+    final byte[] late = new byte[64 * 1024];
+    late[late.length - 1] = 0;
+    for (int i = 0; i < late.length - 1; ++i) {
+      late[i] = 'a';
+    }
+    Assert.assertFalse(GitFilterHelper.createMetadata(new ByteArrayInputStream(late)).isBinary());
+
+    final byte[] early = late.clone();
+    early[100] = 0;
+    final GitBlobMetadata metadata = GitFilterHelper.createMetadata(new ByteArrayInputStream(early));
+    Assert.assertTrue(metadata.isBinary());
+    Assert.assertEquals(metadata.getSize(), early.length);
+    Assert.assertEquals(metadata.getMd5(), StringHelper.toHex(HashHelper.md5().digest(early)));
+  }
+
+  @Test
+  public void serialize() throws Exception {
+    final GitBlobMetadata metadata = GitFilterHelper.createMetadata(new ByteArrayInputStream(new byte[]{1, 0, 2}));
+    final GitBlobMetadata copy = GitBlobMetadata.deserialize(metadata.serialize());
+    Assert.assertNotNull(copy);
+    Assert.assertEquals(copy.getSize(), metadata.getSize());
+    Assert.assertEquals(copy.getMd5(), metadata.getMd5());
+    Assert.assertEquals(copy.getSha256(), metadata.getSha256());
+    Assert.assertEquals(copy.isBinary(), metadata.isBinary());
+
+    // SHA-256 is optional.
+    final GitBlobMetadata partial = new GitBlobMetadata(metadata.getSize(), metadata.getMd5(), null, true);
+    final byte[] partialData = partial.serialize();
+    Assert.assertTrue(partialData.length < metadata.serialize().length);
+    final GitBlobMetadata partialCopy = GitBlobMetadata.deserialize(partialData);
+    Assert.assertNotNull(partialCopy);
+    Assert.assertEquals(partialCopy.getSize(), metadata.getSize());
+    Assert.assertEquals(partialCopy.getMd5(), metadata.getMd5());
+    Assert.assertNull(partialCopy.getSha256());
+    Assert.assertTrue(partialCopy.isBinary());
+
+    Assert.assertNull(GitBlobMetadata.deserialize(null));
+    Assert.assertNull(GitBlobMetadata.deserialize(new byte[3]));
+    Assert.assertNull(GitBlobMetadata.deserialize(GitBlobMetadata.serializeBinary(true)));
+    Assert.assertEquals(GitBlobMetadata.deserializeBinary(GitBlobMetadata.serializeBinary(true)), Boolean.TRUE);
+    Assert.assertEquals(GitBlobMetadata.deserializeBinary(GitBlobMetadata.serializeBinary(false)), Boolean.FALSE);
+    Assert.assertEquals(GitBlobMetadata.deserializeBinary(metadata.serialize()), Boolean.TRUE);
+    Assert.assertNull(GitBlobMetadata.deserializeBinary(null));
+    // Record length must match flags.
+    final byte[] truncated = metadata.serialize();
+    Assert.assertNull(GitBlobMetadata.deserialize(Arrays.copyOf(truncated, partialData.length)));
+  }
+
+  @Test
+  public void cached() throws Exception {
+    final Repository repository = TestHelper.emptyRepository();
+    final ObjectId blobId;
+    try (ObjectInserter inserter = repository.newObjectInserter()) {
+      blobId = inserter.insert(Constants.OBJ_BLOB, "Some text\n".getBytes(StandardCharsets.UTF_8));
+      inserter.flush();
+    }
+    final GitObject<ObjectId> blob = new GitObject<>(repository, blobId);
+    final DB cacheDb = DBMaker.memoryDB().make();
+    final LocalContext context = new LocalContext(new SharedContext(repository.getDirectory(), cacheDb), "test");
+    final GitFilter filter = new GitFilterRaw(context);
+    final GitBlobMetadataCache cache = GitFilterHelper.getCacheMetadata(context);
+    final AtomicInteger loads = new AtomicInteger();
+    for (int pass = 0; pass < 3; ++pass) {
+      final GitBlobMetadata metadata = GitFilterHelper.getMetadata(filter, cache, blob, () -> {
+        loads.incrementAndGet();
+        return GitFilterHelper.createMetadata(filter.inputStream(blob));
+      });
+      Assert.assertEquals(metadata.getSize(), filter.getSize(blob));
+      Assert.assertFalse(metadata.isBinary());
+    }
+    Assert.assertEquals(loads.get(), 1);
+    Assert.assertEquals(cache.size(), 1);
+
+    Assert.assertEquals(filter.getMd5(blob), StringHelper.toHex(HashHelper.md5().digest("Some text\n".getBytes(StandardCharsets.UTF_8))));
+    Assert.assertFalse(filter.getMetadata(blob).isBinary());
+    Assert.assertEquals(cache.size(), 1);
+  }
+
+  @Test
+  public void binaryOnly() throws Exception {
+    final Repository repository = TestHelper.emptyRepository();
+    final ObjectId blobId;
+    try (ObjectInserter inserter = repository.newObjectInserter()) {
+      blobId = inserter.insert(Constants.OBJ_BLOB, new byte[]{1, 0, 2});
+      inserter.flush();
+    }
+    final GitObject<ObjectId> blob = new GitObject<>(repository, blobId);
+    final DB cacheDb = DBMaker.memoryDB().make();
+    final LocalContext context = new LocalContext(new SharedContext(repository.getDirectory(), cacheDb), "test");
+    final GitFilter filter = new GitFilterRaw(context);
+    final GitBlobMetadataCache cache = GitFilterHelper.getCacheMetadata(context);
+
+    // Binary flag is detected by content head without full metadata record.
+    Assert.assertTrue(filter.isBinary(blob));
+    Assert.assertEquals(cache.getBinary(filter, blobId), Boolean.TRUE);
+    Assert.assertNull(cache.get(filter, blobId));
+
+    // Full record replaces binary flag only record.
+    final GitBlobMetadata metadata = filter.getMetadata(blob);
+    Assert.assertEquals(metadata.getSize(), 3);
+    Assert.assertTrue(metadata.isBinary());
+    Assert.assertNotNull(cache.get(filter, blobId));
+    Assert.assertEquals(cache.size(), 1);
+    Assert.assertTrue(filter.isBinary(blob));
+  }
+}
@@ -0,0 +1,70 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNProperty;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.SvnTestServer;
+import svnserver.config.BoundedConnectionConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static svnserver.SvnTestHelper.checkFileContent;
+import static svnserver.SvnTestHelper.createFile;
+import static svnserver.SvnTestHelper.modifyFile;
+
+/**
+ * Check sessions parked in NIO front-end between commands.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class NioFrontendTest {
+  private static final int SESSIONS = 16;
+  private final static Map<String, String> propsEolNative = ImmutableMap.<String, String>builder()
+      .put(SVNProperty.EOL_STYLE, SVNProperty.EOL_STYLE_NATIVE)
+      .build();
+
+  /**
+   * More idle sessions, than worker threads.
+   */
+  @Test
+  public void idleSessions() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty(config -> {
+      config.setNioFrontend(true);
+      config.setConnections(new BoundedConnectionConfig(2, SESSIONS));
+    })) {
+      final List<SVNRepository> repos = new ArrayList<>();
+      long revision = -1;
+      for (int i = 0; i < SESSIONS; ++i) {
+        final SVNRepository repo = server.openSvnRepository();
+        if (revision < 0) {
+          revision = repo.getLatestRevision();
+        }
+        Assert.assertEquals(repo.getLatestRevision(), revision);
+        repos.add(repo);
+      }
+      revision = createFile(repos.get(0), "/foo.txt", "Hello", propsEolNative).getNewRevision();
+      for (int i = 1; i < SESSIONS; ++i) {
+        final SVNRepository repo = repos.get(i);
+        Assert.assertEquals(repo.getLatestRevision(), revision);
+        revision = modifyFile(repo, "/foo.txt", "Hello " + i, revision).getNewRevision();
+      }
+      for (SVNRepository repo : repos) {
+        checkFileContent(repo, "/foo.txt", "Hello " + (SESSIONS - 1));
+      }
+      for (SVNRepository repo : repos) {
+        repo.closeSession();
+      }
+    }
+  }
+}
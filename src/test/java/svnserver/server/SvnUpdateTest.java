@@ -7,9 +7,13 @@
  */
 package svnserver.server;
 
+import com.google.common.collect.ImmutableMap;
+import org.jetbrains.annotations.NotNull;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 import org.tmatesoft.svn.core.SVNDepth;
+import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNProperty;
 import org.tmatesoft.svn.core.SVNPropertyValue;
 import org.tmatesoft.svn.core.wc.SVNClientManager;
@@ -17,10 +21,19 @@ import org.tmatesoft.svn.core.wc.SVNRevision;
 import org.tmatesoft.svn.core.wc2.SvnCheckout;
 import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
 import org.tmatesoft.svn.core.wc2.SvnTarget;
+import svnserver.SvnTestHelper;
 import svnserver.SvnTestServer;
 import svnserver.TestHelper;
+import svnserver.server.command.DeltaCache;
+import svnserver.server.command.DeltaStats;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 /**
  * Simple update tests.
@@ -74,4 +87,162 @@ public class SvnUpdateTest {
       Assert.assertFalse(newFile.exists());
     }
   }
+
+  @DataProvider
+  public static Object[][] compressionProvider() {
+    return new Object[][]{
+        new Object[]{false},
+        new Object[]{true},
+    };
+  }
+
+  /**
+   * Checkout file with many delta windows.
+   */
+  @Test(dataProvider = "compressionProvider")
+  public void checkoutLargeFile(boolean compression) throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty(config -> config.setCompressionEnabled(compression))) {
+      final Random random = new Random(0);
+      final byte[] content = new byte[350 * 1024];
+      for (int i = 0; i < content.length; ++i) {
+        content[i] = (byte) ('a' + random.nextInt(4));
+      }
+      SvnTestHelper.createFile(server.openSvnRepository(), "/large.txt", content, ImmutableMap.of(SVNProperty.EOL_STYLE, SVNProperty.EOL_STYLE_NATIVE));
+
+      final SvnOperationFactory factory = server.createOperationFactory();
+      final SvnCheckout checkout = factory.createCheckout();
+      checkout.setSource(SvnTarget.fromURL(server.getUrl()));
+      checkout.setSingleTarget(SvnTarget.fromFile(server.getTempDirectory()));
+      checkout.setRevision(SVNRevision.HEAD);
+      checkout.run();
+      Assert.assertEquals(Files.readAllBytes(new File(server.getTempDirectory(), "large.txt").toPath()), content);
+    }
+  }
+
+  /**
+   * Without delta cache and look-ahead small files are streamed on session thread, not collected in memory.
+   */
+  @Test
+  public void streamWithoutCache() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty(config -> {
+      config.setDeltaLookAhead(0);
+      config.setDeltaCacheMemorySize(0);
+    })) {
+      SvnTestHelper.createFile(server.openSvnRepository(), "/small.txt", "Small file\n", ImmutableMap.of(SVNProperty.EOL_STYLE, SVNProperty.EOL_STYLE_NATIVE));
+      Assert.assertNull(server.getContext().get(DeltaCache.class));
+
+      final DeltaStats stats = server.getContext().sure(DeltaStats.class);
+      final File target = new File(server.getTempDirectory(), "target");
+      checkout(server, server.createOperationFactory(), target);
+      Assert.assertEquals(new String(Files.readAllBytes(new File(target, "small.txt").toPath()), StandardCharsets.UTF_8), "Small file\n");
+      Assert.assertEquals(stats.getStreamed(), 1);
+      Assert.assertEquals(stats.getPrepared(), 0);
+      Assert.assertEquals(stats.getCached(), 0);
+    }
+  }
+
+  @DataProvider
+  public static Object[][] lookAheadProvider() {
+    return new Object[][]{
+        new Object[]{0},
+        new Object[]{1},
+        new Object[]{8},
+    };
+  }
+
+  /**
+   * Checkout and update many files with background delta computation.
+   */
+  @Test(dataProvider = "lookAheadProvider")
+  public void updateManyFiles(int lookAhead) throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty(config -> config.setDeltaLookAhead(lookAhead))) {
+      final SvnOperationFactory factory = server.createOperationFactory();
+      final SVNClientManager client = SVNClientManager.newInstance(factory);
+      final File source = new File(server.getTempDirectory(), "source");
+      final File target = new File(server.getTempDirectory(), "target");
+      checkout(server, factory, source);
+      checkout(server, factory, target);
+
+      final File[] files = new File[30];
+      for (int i = 0; i < files.length; ++i) {
+        final File dir = new File(source, "dir" + (i % 3));
+        if (dir.mkdir()) {
+          client.getWCClient().doAdd(dir, false, false, false, SVNDepth.EMPTY, false, true);
+        }
+        files[i] = new File(dir, "file" + i + ".txt");
+        TestHelper.saveFile(files[i], "Content " + i + "\n");
+        client.getWCClient().doAdd(files[i], false, false, false, SVNDepth.INFINITY, false, true);
+        client.getWCClient().doSetProperty(files[i], SVNProperty.EOL_STYLE, SVNPropertyValue.create(SVNProperty.EOL_STYLE_NATIVE), false, SVNDepth.INFINITY, null, null);
+      }
+      client.getCommitClient().doCommit(new File[]{source}, false, "Add files", null, null, false, false, SVNDepth.INFINITY);
+      client.getUpdateClient().doUpdate(target, SVNRevision.HEAD, SVNDepth.INFINITY, false, false);
+      checkContent(source, target, files);
+
+      for (int i = 0; i < files.length; i += 2) {
+        TestHelper.saveFile(files[i], "Content " + i + "\nModified\n");
+      }
+      client.getCommitClient().doCommit(new File[]{source}, false, "Modify files", null, null, false, false, SVNDepth.INFINITY);
+      client.getUpdateClient().doUpdate(target, SVNRevision.HEAD, SVNDepth.INFINITY, false, false);
+      checkContent(source, target, files);
+    }
+  }
+
+  /**
+   * Files of subdirectory must be computed ahead, even if parent directory has many files after it.
+   */
+  @Test
+  public void lookAheadNestedTree() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty(config -> config.setDeltaLookAhead(8))) {
+      final SvnOperationFactory factory = server.createOperationFactory();
+      final SVNClientManager client = SVNClientManager.newInstance(factory);
+      final File source = new File(server.getTempDirectory(), "source");
+      final File target = new File(server.getTempDirectory(), "target");
+      checkout(server, factory, source);
+
+      final List<File> files = new ArrayList<>();
+      final File dir = new File(source, "a");
+      Assert.assertTrue(dir.mkdir());
+      final File subDir = new File(dir, "b");
+      Assert.assertTrue(subDir.mkdir());
+      for (int i = 0; i < 10; ++i) {
+        files.add(new File(source, "z" + i + ".txt"));
+        files.add(new File(dir, "file" + i + ".txt"));
+        files.add(new File(subDir, "file" + i + ".txt"));
+      }
+      for (File file : files) {
+        TestHelper.saveFile(file, "Content of " + file.getName() + "\n");
+        if (file.getParentFile().equals(source)) {
+          client.getWCClient().doAdd(file, false, false, false, SVNDepth.INFINITY, false, true);
+        }
+      }
+      client.getWCClient().doAdd(dir, false, false, false, SVNDepth.INFINITY, false, true);
+      for (File file : files) {
+        client.getWCClient().doSetProperty(file, SVNProperty.EOL_STYLE, SVNPropertyValue.create(SVNProperty.EOL_STYLE_NATIVE), false, SVNDepth.INFINITY, null, null);
+      }
+      client.getCommitClient().doCommit(new File[]{source}, false, "Add files", null, null, false, false, SVNDepth.INFINITY);
+
+      final DeltaStats stats = server.getContext().sure(DeltaStats.class);
+      final long prepared = stats.getPrepared();
+      final long streamed = stats.getStreamed();
+      checkout(server, factory, target);
+      checkContent(source, target, files.toArray(new File[0]));
+      Assert.assertEquals(stats.getPrepared() - prepared, files.size());
+      Assert.assertEquals(stats.getStreamed() - streamed, 0);
+    }
+  }
+
+  private static void checkout(@NotNull SvnTestServer server, @NotNull SvnOperationFactory factory, @NotNull File dir) throws SVNException {
+    final SvnCheckout checkout = factory.createCheckout();
+    checkout.setSource(SvnTarget.fromURL(server.getUrl()));
+    checkout.setSingleTarget(SvnTarget.fromFile(dir));
+    checkout.setRevision(SVNRevision.HEAD);
+    checkout.run();
+  }
+
+  private static void checkContent(@NotNull File source, @NotNull File target, @NotNull File[] files) throws IOException {
+    for (File file : files) {
+      final File targetFile = new File(target, source.toPath().relativize(file.toPath()).toString());
+      Assert.assertEquals(Files.readAllBytes(targetFile.toPath()), Files.readAllBytes(file.toPath()), targetFile.getPath());
+    }
+  }
 }
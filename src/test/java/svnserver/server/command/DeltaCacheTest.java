@@ -0,0 +1,87 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import com.google.common.collect.ImmutableMap;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNProperty;
+import org.tmatesoft.svn.core.wc.SVNRevision;
+import org.tmatesoft.svn.core.wc2.SvnCheckout;
+import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
+import org.tmatesoft.svn.core.wc2.SvnTarget;
+import svnserver.SvnTestHelper;
+import svnserver.SvnTestServer;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shared delta cache tests.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class DeltaCacheTest {
+  @Test
+  public void overflowToDisk() throws Exception {
+    final DB cacheDb = DBMaker.memoryDB().make();
+    final DeltaCache cache = new DeltaCache(cacheDb, 64 * 1024, 1000);
+    final int count = 100;
+    for (int i = 0; i < count; ++i) {
+      cache.put("key" + i, createWindows(i));
+    }
+    for (int i = 0; i < count; ++i) {
+      final List<byte[]> windows = cache.get("key" + i);
+      Assert.assertNotNull(windows, "key" + i);
+      Assert.assertEquals(windows.size(), 2);
+      Assert.assertEquals(windows.get(0), createWindows(i).get(0));
+      Assert.assertEquals(windows.get(1), createWindows(i).get(1));
+    }
+    Assert.assertNull(cache.get("unknown"));
+    Assert.assertEquals(cache.getHitCount(), count);
+    Assert.assertEquals(cache.getMissCount(), 1);
+    cache.close();
+    cacheDb.close();
+  }
+
+  @Test
+  public void sharedBetweenSessions() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      SvnTestHelper.createFile(server.openSvnRepository(), "/foo.txt", "Some file content\n", ImmutableMap.of(SVNProperty.EOL_STYLE, SVNProperty.EOL_STYLE_NATIVE));
+      final DeltaCache cache = server.getContext().sure(DeltaCache.class);
+
+      checkout(server, new File(server.getTempDirectory(), "first"));
+      final long hits = cache.getHitCount();
+      Assert.assertTrue(cache.getMissCount() > 0);
+
+      checkout(server, new File(server.getTempDirectory(), "second"));
+      Assert.assertTrue(cache.getHitCount() > hits);
+      Assert.assertEquals(Files.readAllBytes(new File(server.getTempDirectory(), "second/foo.txt").toPath()), "Some file content\n".getBytes());
+    }
+  }
+
+  private static void checkout(SvnTestServer server, File dir) throws Exception {
+    final SvnOperationFactory factory = server.createOperationFactory();
+    final SvnCheckout checkout = factory.createCheckout();
+    checkout.setSource(SvnTarget.fromURL(server.getUrl()));
+    checkout.setSingleTarget(SvnTarget.fromFile(dir));
+    checkout.setRevision(SVNRevision.HEAD);
+    checkout.run();
+  }
+
+  private static List<byte[]> createWindows(int seed) {
+    final byte[] window = new byte[10 * 1024];
+    Arrays.fill(window, (byte) seed);
+    return Arrays.asList(window, Collections.nCopies(seed, "x").toString().getBytes());
+  }
+}
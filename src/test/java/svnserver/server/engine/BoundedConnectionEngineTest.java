@@ -0,0 +1,73 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.engine;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.auth.User;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test for bounded connection engine admission control.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class BoundedConnectionEngineTest {
+  @Test
+  public void rejectWhenBusy() throws Exception {
+    final BoundedConnectionEngine engine = new BoundedConnectionEngine(Executors.defaultThreadFactory(), 1, 0, 0, 0);
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    try {
+      engine.execute(() -> {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+      try {
+        engine.execute(() -> {
+        });
+        Assert.fail("Connection over limit must be rejected");
+      } catch (RejectedExecutionException ignored) {
+        // expected
+      }
+    } finally {
+      release.countDown();
+      engine.shutdown();
+    }
+    Assert.assertTrue(engine.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void userLimit() throws Exception {
+    final BoundedConnectionEngine engine = new BoundedConnectionEngine(Executors.defaultThreadFactory(), 1, 0, 0, 1);
+    final User user = User.create("test", "Test", null, null);
+    try (ConnectionEngine.Lease ignored = engine.acquireUser(user)) {
+      try {
+        engine.acquireUser(user).close();
+        Assert.fail("Second connection of same user must be rejected");
+      } catch (SVNException ignored2) {
+        // expected
+      }
+      // Anonymous user is not limited
+      engine.acquireUser(User.getAnonymous()).close();
+      engine.acquireUser(User.getAnonymous()).close();
+    }
+    engine.acquireUser(user).close();
+    engine.shutdown();
+  }
+}